@@ -10,7 +10,7 @@ USE discovery_assistant;
 -- Drop old tables for clean setup
 DROP TABLE IF EXISTS user_feedback;
 DROP TABLE IF EXISTS suggested_item;
-DROP TABLE IF EXISTS message;
+DROP TABLE IF EXISTS messages;
 DROP TABLE IF EXISTS conversation;
 DROP TABLE IF EXISTS business_info;
 DROP TABLE IF EXISTS offer;
@@ -73,6 +73,7 @@ CREATE TABLE business (
 -- ======================================================
 CREATE TABLE event (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    external_id VARCHAR(128) NULL,
     name VARCHAR(255) NOT NULL,
     description TEXT,
     category_id BIGINT,
@@ -88,6 +89,7 @@ CREATE TABLE event (
     FOREIGN KEY (category_id) REFERENCES category(id),
     FOREIGN KEY (business_id) REFERENCES business(id),
     FOREIGN KEY (created_by) REFERENCES user(id),
+    UNIQUE KEY uq_event_external_id (external_id),
     CONSTRAINT chk_event_creator CHECK (
         (business_id IS NOT NULL AND created_by IS NULL)
         OR (business_id IS NULL AND created_by IS NOT NULL)
@@ -162,33 +164,47 @@ CREATE TABLE conversation (
     started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     ended_at TIMESTAMP NULL,
     context_summary TEXT,
-    FOREIGN KEY (user_id) REFERENCES user(id)
+    FOREIGN KEY (user_id) REFERENCES user(id),
+    INDEX idx_conversation_user_ended (user_id, ended_at)
 );
 
 -- ======================================================
--- MESSAGE TABLE
+-- MESSAGES TABLE
 -- ======================================================
-CREATE TABLE message (
-    id INT AUTO_INCREMENT PRIMARY KEY,
+-- Named messages, as MessageRepository and archival.tables refer to it.
+-- Partitioned by month on created_at; MessageArchivalService adds upcoming
+-- partitions and archives cold ones. Partitioned InnoDB tables cannot have
+-- foreign keys and need the partition column in the primary key.
+CREATE TABLE messages (
+    id INT AUTO_INCREMENT,
     conversation_id INT NOT NULL,
     sender ENUM('user','system') NOT NULL,
     content TEXT NOT NULL,
     message_type ENUM('text','image','audio','video','interactive') DEFAULT 'text',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (conversation_id) REFERENCES conversation(id)
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at),
+    INDEX idx_message_conversation_created (conversation_id, created_at)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
 );
 
 -- ======================================================
 -- SUGGESTED_ITEM TABLE
 -- Generic table for suggestions (events, businesses, offers)
 -- ======================================================
+-- Partitioned by month on suggested_at, like messages
 CREATE TABLE suggested_item (
-    id INT AUTO_INCREMENT PRIMARY KEY,
+    id INT AUTO_INCREMENT,
     conversation_id INT NOT NULL,
     item_type ENUM('event','business','offer') NOT NULL,
     item_id BIGINT NOT NULL,
-    suggested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (conversation_id) REFERENCES conversation(id)
+    suggested_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, suggested_at),
+    INDEX idx_suggested_item_conversation (conversation_id, suggested_at)
+)
+PARTITION BY RANGE (UNIX_TIMESTAMP(suggested_at)) (
+    PARTITION p_future VALUES LESS THAN MAXVALUE
 );
 
 -- ======================================================
@@ -216,7 +232,96 @@ CREATE TABLE user_interest (
     location VARCHAR(255) NULL,
     interest_weight FLOAT DEFAULT 1.0,
     last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    -- Category of plain category-level rows, NULL for tag and location rows
+    category_scope INT AS (IF(tag_id IS NULL AND location IS NULL, category_id, NULL)) STORED,
     FOREIGN KEY (user_id) REFERENCES user(id),
     FOREIGN KEY (category_id) REFERENCES category(id),
-    FOREIGN KEY (tag_id) REFERENCES tag(id)
+    FOREIGN KEY (tag_id) REFERENCES tag(id),
+    INDEX idx_user_interest_user_category (user_id, category_id),
+    UNIQUE KEY uk_user_interest_category (user_id, category_scope)
+);
+
+-- ======================================================
+-- ENTITY_CHANGE_OUTBOX TABLE
+-- ======================================================
+CREATE TABLE entity_change_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity_type ENUM('event','business','offer') NOT NULL,
+    entity_id BIGINT NOT NULL,
+    change_type ENUM('created','updated','deleted') NOT NULL,
+    version BIGINT NOT NULL,
+    source_instance VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_entity_change_outbox_created (created_at)
+);
+
+-- ======================================================
+-- MESSAGE_DELIVERY TABLE
+-- ======================================================
+-- One row per outbound message, written in batches by DeliveryTracker.
+-- state_rank orders sent < delivered < read < failed so upserts keep the highest.
+CREATE TABLE message_delivery (
+    wamid VARCHAR(128) PRIMARY KEY,
+    recipient VARCHAR(32) NULL,
+    send_type VARCHAR(32) NULL,
+    campaign VARCHAR(128) NULL,
+    state ENUM('sent','delivered','read','failed') NOT NULL,
+    state_rank TINYINT NOT NULL,
+    sent_at TIMESTAMP NULL,
+    delivered_at TIMESTAMP NULL,
+    read_at TIMESTAMP NULL,
+    failed_at TIMESTAMP NULL,
+    first_seen_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_message_delivery_first_seen (first_seen_at)
+);
+
+-- ======================================================
+-- MESSAGE_CORRELATION TABLE
+-- ======================================================
+-- wamid of each outbound message and what it was sent for, written in batches
+-- by MessageCorrelationStore. No foreign key to messages, which is partitioned.
+CREATE TABLE message_correlation (
+    wamid VARCHAR(128) PRIMARY KEY,
+    conversation_id INT NULL,
+    message_id INT NULL,
+    campaign VARCHAR(128) NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_message_correlation_conversation (conversation_id)
+);
+
+-- ======================================================
+-- CLUSTER_MEMBER TABLE
+-- ======================================================
+-- One row per running instance in cluster mode, renewed by ClusterMembership.
+-- Liveness is judged on the database clock from heartbeat_at.
+CREATE TABLE cluster_member (
+    instance_id VARCHAR(64) PRIMARY KEY,
+    base_url VARCHAR(255) NOT NULL,
+    started_at TIMESTAMP(3) NOT NULL,
+    heartbeat_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_cluster_member_heartbeat (heartbeat_at)
+);
+
+-- ======================================================
+-- JOB_LEASE TABLE
+-- ======================================================
+-- Leases of cluster-wide background jobs, one row per job or job partition,
+-- taken and renewed by ClusterJobScheduler. fencing_token increments on every
+-- change of owner; expiry is judged on the database clock from lease_until.
+CREATE TABLE job_lease (
+    lease_name VARCHAR(128) PRIMARY KEY,
+    owner_instance VARCHAR(64) NULL,
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    lease_until TIMESTAMP(3) NOT NULL
+);
+
+-- ======================================================
+-- TENANT_ROUTE TABLE
+-- ======================================================
+-- Business phone number id each user last wrote to, kept by TenantRegistry so
+-- replies go out through the same number after a restart or on another instance.
+CREATE TABLE tenant_route (
+    phone_number VARCHAR(20) PRIMARY KEY,
+    phone_number_id VARCHAR(64) NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
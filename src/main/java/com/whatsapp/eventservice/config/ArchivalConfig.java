@@ -0,0 +1,105 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for partition maintenance and archival of time-series tables
+ */
+@Configuration
+@ConfigurationProperties(prefix = "archival")
+public class ArchivalConfig {
+    
+    private boolean enabled = true;
+    private String archiveDir = "./archive";
+    private int hotMonths = 3;
+    private int futurePartitions = 2;
+    private int archiveRetentionMonths = 24;
+    private int pageSize = 1000;
+    private List<Table> tables = new ArrayList<>();
+    
+    /**
+     * A monthly-partitioned table and the timestamp column it is partitioned on
+     */
+    public static class Table {
+        
+        private String name;
+        private String timeColumn;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public String getTimeColumn() {
+            return timeColumn;
+        }
+        
+        public void setTimeColumn(String timeColumn) {
+            this.timeColumn = timeColumn;
+        }
+    }
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getArchiveDir() {
+        return archiveDir;
+    }
+    
+    public void setArchiveDir(String archiveDir) {
+        this.archiveDir = archiveDir;
+    }
+    
+    public int getHotMonths() {
+        return hotMonths;
+    }
+    
+    public void setHotMonths(int hotMonths) {
+        this.hotMonths = hotMonths;
+    }
+    
+    public int getFuturePartitions() {
+        return futurePartitions;
+    }
+    
+    public void setFuturePartitions(int futurePartitions) {
+        this.futurePartitions = futurePartitions;
+    }
+    
+    public int getArchiveRetentionMonths() {
+        return archiveRetentionMonths;
+    }
+    
+    public void setArchiveRetentionMonths(int archiveRetentionMonths) {
+        this.archiveRetentionMonths = archiveRetentionMonths;
+    }
+    
+    public int getPageSize() {
+        return pageSize;
+    }
+    
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+    
+    public List<Table> getTables() {
+        return tables;
+    }
+    
+    public void setTables(List<Table> tables) {
+        this.tables = tables;
+    }
+}
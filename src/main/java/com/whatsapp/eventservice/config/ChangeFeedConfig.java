@@ -0,0 +1,68 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the entity change feed and its outbox
+ */
+@Configuration
+@ConfigurationProperties(prefix = "change-feed")
+public class ChangeFeedConfig {
+    
+    private boolean outboxEnabled = false;
+    private long pollIntervalMs = 1000;
+    private int batchSize = 500;
+    private int maxOutboxGaps = 1000;
+    private long lateCommitWindowMs = 60000;
+    private int retentionDays = 7;
+    
+    // Getters and Setters
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+    
+    public void setOutboxEnabled(boolean outboxEnabled) {
+        this.outboxEnabled = outboxEnabled;
+    }
+    
+    public long getPollIntervalMs() {
+        return pollIntervalMs;
+    }
+    
+    public void setPollIntervalMs(long pollIntervalMs) {
+        this.pollIntervalMs = pollIntervalMs;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getMaxOutboxGaps() {
+        return maxOutboxGaps;
+    }
+    
+    public void setMaxOutboxGaps(int maxOutboxGaps) {
+        this.maxOutboxGaps = maxOutboxGaps;
+    }
+    
+    public long getLateCommitWindowMs() {
+        return lateCommitWindowMs;
+    }
+    
+    public void setLateCommitWindowMs(long lateCommitWindowMs) {
+        this.lateCommitWindowMs = lateCommitWindowMs;
+    }
+    
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+    
+    public void setRetentionDays(int retentionDays) {
+        this.retentionDays = retentionDays;
+    }
+}
@@ -0,0 +1,109 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for cluster mode: membership and user affinity across instances
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterConfig {
+    
+    private boolean enabled = false;
+    
+    // Base URL other instances forward webhooks to; derived from the host address and port when empty
+    private String advertisedUrl;
+    private int port = 8080;
+    
+    private long heartbeatIntervalMs = 2000;
+    private long memberTimeoutMs = 10000;
+    private int virtualNodes = 128;
+    private int forwardThreads = 4;
+    private int forwardQueueCapacity = 1000;
+    private int forwardTimeoutMs = 3000;
+    
+    // Length of a background job lease; the holder renews it every third of this
+    private long jobLeaseMs = 60000;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getAdvertisedUrl() {
+        return advertisedUrl;
+    }
+    
+    public void setAdvertisedUrl(String advertisedUrl) {
+        this.advertisedUrl = advertisedUrl;
+    }
+    
+    public int getPort() {
+        return port;
+    }
+    
+    public void setPort(int port) {
+        this.port = port;
+    }
+    
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+    
+    public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+    }
+    
+    public long getMemberTimeoutMs() {
+        return memberTimeoutMs;
+    }
+    
+    public void setMemberTimeoutMs(long memberTimeoutMs) {
+        this.memberTimeoutMs = memberTimeoutMs;
+    }
+    
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+    
+    public void setVirtualNodes(int virtualNodes) {
+        this.virtualNodes = virtualNodes;
+    }
+    
+    public int getForwardThreads() {
+        return forwardThreads;
+    }
+    
+    public void setForwardThreads(int forwardThreads) {
+        this.forwardThreads = forwardThreads;
+    }
+    
+    public int getForwardQueueCapacity() {
+        return forwardQueueCapacity;
+    }
+    
+    public void setForwardQueueCapacity(int forwardQueueCapacity) {
+        this.forwardQueueCapacity = forwardQueueCapacity;
+    }
+    
+    public int getForwardTimeoutMs() {
+        return forwardTimeoutMs;
+    }
+    
+    public void setForwardTimeoutMs(int forwardTimeoutMs) {
+        this.forwardTimeoutMs = forwardTimeoutMs;
+    }
+    
+    public long getJobLeaseMs() {
+        return jobLeaseMs;
+    }
+    
+    public void setJobLeaseMs(long jobLeaseMs) {
+        this.jobLeaseMs = jobLeaseMs;
+    }
+}
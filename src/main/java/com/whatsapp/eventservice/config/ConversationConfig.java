@@ -0,0 +1,61 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the conversation lifecycle
+ */
+@Configuration
+@ConfigurationProperties(prefix = "conversation")
+public class ConversationConfig {
+    
+    private int idleTimeoutMinutes = 30;
+    private long reaperTickMs = 30000;
+    private long sweepIntervalMs = 600000;
+    private int sweepBatchSize = 500;
+    
+    // Slices of the idle sweep, shared out between cluster instances
+    private int sweepPartitions = 8;
+    
+    // Getters and Setters
+    public int getIdleTimeoutMinutes() {
+        return idleTimeoutMinutes;
+    }
+    
+    public void setIdleTimeoutMinutes(int idleTimeoutMinutes) {
+        this.idleTimeoutMinutes = idleTimeoutMinutes;
+    }
+    
+    public long getReaperTickMs() {
+        return reaperTickMs;
+    }
+    
+    public void setReaperTickMs(long reaperTickMs) {
+        this.reaperTickMs = reaperTickMs;
+    }
+    
+    public long getSweepIntervalMs() {
+        return sweepIntervalMs;
+    }
+    
+    public void setSweepIntervalMs(long sweepIntervalMs) {
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+    
+    public int getSweepBatchSize() {
+        return sweepBatchSize;
+    }
+    
+    public void setSweepBatchSize(int sweepBatchSize) {
+        this.sweepBatchSize = sweepBatchSize;
+    }
+    
+    public int getSweepPartitions() {
+        return sweepPartitions;
+    }
+    
+    public void setSweepPartitions(int sweepPartitions) {
+        this.sweepPartitions = sweepPartitions;
+    }
+}
@@ -0,0 +1,37 @@
+package com.whatsapp.eventservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource and JdbcTemplate configuration
+ * 
+ * The Hikari pool itself (sizing, timeouts, leak detection and MySQL driver
+ * properties) is configured under spring.datasource.hikari in application.yml.
+ * This replaces the auto-configured JdbcTemplate with an instrumented one that
+ * still honours the spring.jdbc.template settings.
+ */
+@Configuration
+@EnableConfigurationProperties(JdbcProperties.class)
+public class DataSourceConfig {
+    
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties jdbcProperties, MeterRegistry meterRegistry) {
+        InstrumentedJdbcTemplate jdbcTemplate = new InstrumentedJdbcTemplate(dataSource, meterRegistry);
+        
+        JdbcProperties.Template template = jdbcProperties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        
+        return jdbcTemplate;
+    }
+}
@@ -0,0 +1,59 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for outbound message delivery tracking
+ */
+@Configuration
+@ConfigurationProperties(prefix = "delivery-tracking")
+public class DeliveryTrackingConfig {
+    
+    private boolean enabled = true;
+    private long flushIntervalMs = 2000;
+    private int batchSize = 500;
+    private int maxPending = 100000;
+    private int correlationHotEntries = 50000;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getMaxPending() {
+        return maxPending;
+    }
+    
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+    
+    public int getCorrelationHotEntries() {
+        return correlationHotEntries;
+    }
+    
+    public void setCorrelationHotEntries(int correlationHotEntries) {
+        this.correlationHotEntries = correlationHotEntries;
+    }
+}
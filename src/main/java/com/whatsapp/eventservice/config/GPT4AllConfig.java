@@ -0,0 +1,235 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for the GPT4All model server and its prompt templates
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.gpt4all")
+public class GPT4AllConfig {
+    
+    private String apiUrl = "http://localhost:8000";
+    private int timeout = 30000;
+    private int contextWindow = 2048;
+    private int maxTokens = 200;
+    private double temperature = 0.3;
+    private double topP = 0.9;
+    private List<Backend> backends = new ArrayList<>();
+    private long healthCheckIntervalMs = 10000;
+    private int unhealthyAfterFailures = 3;
+    private boolean hedgingEnabled = true;
+    private long hedgeMinDelayMs = 250;
+    private int concurrencyPerBackend = 4;
+    private Map<String, Prompt> prompts = new LinkedHashMap<>();
+    
+    /**
+     * One inference server; backends sharing a pool serve the same model
+     */
+    public static class Backend {
+        
+        private String name;
+        private String url;
+        private String pool = "default";
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public String getUrl() {
+            return url;
+        }
+        
+        public void setUrl(String url) {
+            this.url = url;
+        }
+        
+        public String getPool() {
+            return pool;
+        }
+        
+        public void setPool(String pool) {
+            this.pool = pool;
+        }
+    }
+    
+    /**
+     * A prompt template and the generation settings of the operation that uses it
+     * 
+     * Placeholders are written {{name}}. Everything before the first placeholder is
+     * sent byte-for-byte the same on every call, so it should hold the instructions.
+     */
+    public static class Prompt {
+        
+        private String template;
+        private String pool;
+        private Integer maxTokens;
+        private Double temperature;
+        private Map<String, Integer> slotTokens = new HashMap<>();
+        private List<String> tailSlots = new ArrayList<>();
+        
+        public String getTemplate() {
+            return template;
+        }
+        
+        public void setTemplate(String template) {
+            this.template = template;
+        }
+        
+        public String getPool() {
+            return pool;
+        }
+        
+        public void setPool(String pool) {
+            this.pool = pool;
+        }
+        
+        public Integer getMaxTokens() {
+            return maxTokens;
+        }
+        
+        public void setMaxTokens(Integer maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+        
+        public Double getTemperature() {
+            return temperature;
+        }
+        
+        public void setTemperature(Double temperature) {
+            this.temperature = temperature;
+        }
+        
+        public Map<String, Integer> getSlotTokens() {
+            return slotTokens;
+        }
+        
+        public void setSlotTokens(Map<String, Integer> slotTokens) {
+            this.slotTokens = slotTokens;
+        }
+        
+        public List<String> getTailSlots() {
+            return tailSlots;
+        }
+        
+        public void setTailSlots(List<String> tailSlots) {
+            this.tailSlots = tailSlots;
+        }
+    }
+    
+    // Getters and Setters
+    public String getApiUrl() {
+        return apiUrl;
+    }
+    
+    public void setApiUrl(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+    
+    public int getTimeout() {
+        return timeout;
+    }
+    
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+    
+    public int getContextWindow() {
+        return contextWindow;
+    }
+    
+    public void setContextWindow(int contextWindow) {
+        this.contextWindow = contextWindow;
+    }
+    
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+    
+    public void setMaxTokens(int maxTokens) {
+        this.maxTokens = maxTokens;
+    }
+    
+    public double getTemperature() {
+        return temperature;
+    }
+    
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+    }
+    
+    public double getTopP() {
+        return topP;
+    }
+    
+    public void setTopP(double topP) {
+        this.topP = topP;
+    }
+    
+    public List<Backend> getBackends() {
+        return backends;
+    }
+    
+    public void setBackends(List<Backend> backends) {
+        this.backends = backends;
+    }
+    
+    public long getHealthCheckIntervalMs() {
+        return healthCheckIntervalMs;
+    }
+    
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+    }
+    
+    public int getUnhealthyAfterFailures() {
+        return unhealthyAfterFailures;
+    }
+    
+    public void setUnhealthyAfterFailures(int unhealthyAfterFailures) {
+        this.unhealthyAfterFailures = unhealthyAfterFailures;
+    }
+    
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+    
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+    
+    public long getHedgeMinDelayMs() {
+        return hedgeMinDelayMs;
+    }
+    
+    public void setHedgeMinDelayMs(long hedgeMinDelayMs) {
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+    }
+    
+    public int getConcurrencyPerBackend() {
+        return concurrencyPerBackend;
+    }
+    
+    public void setConcurrencyPerBackend(int concurrencyPerBackend) {
+        this.concurrencyPerBackend = concurrencyPerBackend;
+    }
+    
+    public Map<String, Prompt> getPrompts() {
+        return prompts;
+    }
+    
+    public void setPrompts(Map<String, Prompt> prompts) {
+        this.prompts = prompts;
+    }
+}
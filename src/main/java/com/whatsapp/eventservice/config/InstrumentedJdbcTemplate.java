@@ -0,0 +1,234 @@
+package com.whatsapp.eventservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.KeyHolder;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * JdbcTemplate that records a latency histogram per calling repository method
+ * 
+ * Every query and update entry point used by the repositories is timed under the
+ * "jdbc.query" timer, tagged with the caller as method=EventRepository.searchByCriteria
+ * and with outcome=success|error. The caller is found by walking the stack once per
+ * call; nested calls inside JdbcTemplate are not timed again.
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+    
+    private static final String METRIC_NAME = "jdbc.query";
+    
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    
+    private static final ThreadLocal<Boolean> TIMING = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    public InstrumentedJdbcTemplate(DataSource dataSource, MeterRegistry meterRegistry) {
+        super(dataSource);
+        this.meterRegistry = meterRegistry;
+    }
+    
+    // Queries
+    
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+        return timed(() -> super.query(sql, rowMapper));
+    }
+    
+    @Override
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        return timed(() -> super.query(sql, rowMapper, args));
+    }
+    
+    @Override
+    public void query(String sql, RowCallbackHandler rch) throws DataAccessException {
+        timed(() -> {
+            super.query(sql, rch);
+            return null;
+        });
+    }
+    
+    @Override
+    public void query(String sql, RowCallbackHandler rch, Object... args) throws DataAccessException {
+        timed(() -> {
+            super.query(sql, rch, args);
+            return null;
+        });
+    }
+    
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        return timed(() -> super.query(sql, rse));
+    }
+    
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) throws DataAccessException {
+        return timed(() -> super.query(sql, rse, args));
+    }
+    
+    @Override
+    public <T> List<T> query(PreparedStatementCreator psc, RowMapper<T> rowMapper) throws DataAccessException {
+        return timed(() -> super.query(psc, rowMapper));
+    }
+    
+    @Override
+    public void query(PreparedStatementCreator psc, RowCallbackHandler rch) throws DataAccessException {
+        timed(() -> {
+            super.query(psc, rch);
+            return null;
+        });
+    }
+    
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType) throws DataAccessException {
+        return timed(() -> super.queryForObject(sql, requiredType));
+    }
+    
+    @Override
+    public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) throws DataAccessException {
+        return timed(() -> super.queryForObject(sql, requiredType, args));
+    }
+    
+    @Override
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper) throws DataAccessException {
+        return timed(() -> super.queryForObject(sql, rowMapper));
+    }
+    
+    @Override
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        return timed(() -> super.queryForObject(sql, rowMapper, args));
+    }
+    
+    @Override
+    public <T> List<T> queryForList(String sql, Class<T> elementType) throws DataAccessException {
+        return timed(() -> super.queryForList(sql, elementType));
+    }
+    
+    @Override
+    public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) throws DataAccessException {
+        return timed(() -> super.queryForList(sql, elementType, args));
+    }
+    
+    @Override
+    public List<Map<String, Object>> queryForList(String sql, Object... args) throws DataAccessException {
+        return timed(() -> super.queryForList(sql, args));
+    }
+    
+    // Updates
+    
+    @Override
+    public int update(String sql) throws DataAccessException {
+        return timed(() -> super.update(sql));
+    }
+    
+    @Override
+    public int update(String sql, Object... args) throws DataAccessException {
+        return timed(() -> super.update(sql, args));
+    }
+    
+    @Override
+    public int update(String sql, PreparedStatementSetter pss) throws DataAccessException {
+        return timed(() -> super.update(sql, pss));
+    }
+    
+    @Override
+    public int update(PreparedStatementCreator psc) throws DataAccessException {
+        return timed(() -> super.update(psc));
+    }
+    
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        return timed(() -> super.update(psc, generatedKeyHolder));
+    }
+    
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        return timed(() -> super.batchUpdate(sql, pss));
+    }
+    
+    @Override
+    public int[] batchUpdate(String sql, List<Object[]> batchArgs) throws DataAccessException {
+        return timed(() -> super.batchUpdate(sql, batchArgs));
+    }
+    
+    @Override
+    public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                   ParameterizedPreparedStatementSetter<T> pss) throws DataAccessException {
+        return timed(() -> super.batchUpdate(sql, batchArgs, batchSize, pss));
+    }
+    
+    private <T> T timed(Supplier<T> action) {
+        // JdbcTemplate delegates between its own overloads; only the outermost call is timed
+        if (TIMING.get()) {
+            return action.get();
+        }
+        
+        String caller = callerMethod();
+        String outcome = "success";
+        TIMING.set(Boolean.TRUE);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(timerFor(caller, outcome));
+            TIMING.set(Boolean.FALSE);
+        }
+    }
+    
+    private Timer timerFor(String caller, String outcome) {
+        return timers.computeIfAbsent(caller + '|' + outcome, key -> Timer.builder(METRIC_NAME)
+            .description("JDBC latency by calling repository method")
+            .tag("method", caller)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+    
+    /**
+     * The first frame outside this class and JdbcTemplate, as SimpleClassName.method
+     */
+    private static String callerMethod() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> !frame.getClassName().equals(InstrumentedJdbcTemplate.class.getName())
+                && !frame.getClassName().equals(JdbcTemplate.class.getName()))
+            .findFirst()
+            .map(frame -> simpleClassName(frame.getClassName()) + "." + baseMethodName(frame.getMethodName()))
+            .orElse("unknown"));
+    }
+    
+    private static String simpleClassName(String className) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        // Strip CGLIB proxy and inner class suffixes
+        int marker = simpleName.indexOf('$');
+        return marker > 0 ? simpleName.substring(0, marker) : simpleName;
+    }
+    
+    private static String baseMethodName(String methodName) {
+        // lambda$findById$3 -> findById
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', 7);
+            return end > 7 ? methodName.substring(7, end) : methodName;
+        }
+        return methodName;
+    }
+}
@@ -0,0 +1,70 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the fast-path intent classifier
+ */
+@Configuration
+@ConfigurationProperties(prefix = "intent-classifier")
+public class IntentClassifierConfig {
+    
+    private boolean enabled = true;
+    private double confidenceThreshold = 0.9;
+    private String trainingFile;
+    private int maxLookupWords = 4;
+    
+    // Greeting, thanks and help only when the message is this short and mostly known words
+    private int maxSmallTalkWords = 5;
+    private double minKnownWordRatio = 0.8;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+    
+    public void setConfidenceThreshold(double confidenceThreshold) {
+        this.confidenceThreshold = confidenceThreshold;
+    }
+    
+    public String getTrainingFile() {
+        return trainingFile;
+    }
+    
+    public void setTrainingFile(String trainingFile) {
+        this.trainingFile = trainingFile;
+    }
+    
+    public int getMaxLookupWords() {
+        return maxLookupWords;
+    }
+    
+    public void setMaxLookupWords(int maxLookupWords) {
+        this.maxLookupWords = maxLookupWords;
+    }
+    
+    public int getMaxSmallTalkWords() {
+        return maxSmallTalkWords;
+    }
+    
+    public void setMaxSmallTalkWords(int maxSmallTalkWords) {
+        this.maxSmallTalkWords = maxSmallTalkWords;
+    }
+    
+    public double getMinKnownWordRatio() {
+        return minKnownWordRatio;
+    }
+    
+    public void setMinKnownWordRatio(double minKnownWordRatio) {
+        this.minKnownWordRatio = minKnownWordRatio;
+    }
+}
@@ -0,0 +1,59 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the inbound media pipeline
+ */
+@Configuration
+@ConfigurationProperties(prefix = "media")
+public class MediaConfig {
+    
+    private boolean enabled = true;
+    private String storageDir = "./media";
+    private int downloadThreads = 4;
+    private int queueCapacity = 200;
+    private long maxFileSizeMb = 100;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getStorageDir() {
+        return storageDir;
+    }
+    
+    public void setStorageDir(String storageDir) {
+        this.storageDir = storageDir;
+    }
+    
+    public int getDownloadThreads() {
+        return downloadThreads;
+    }
+    
+    public void setDownloadThreads(int downloadThreads) {
+        this.downloadThreads = downloadThreads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public long getMaxFileSizeMb() {
+        return maxFileSizeMb;
+    }
+    
+    public void setMaxFileSizeMb(long maxFileSizeMb) {
+        this.maxFileSizeMb = maxFileSizeMb;
+    }
+}
@@ -0,0 +1,84 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for text extraction from image messages
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ocr")
+public class OcrConfig {
+    
+    private boolean enabled = true;
+    
+    // OCR command line; {input} is replaced with the image path, text is read from stdout
+    private List<String> command = new ArrayList<>(List.of("tesseract", "{input}", "stdout", "--psm", "3"));
+    
+    // 0 means one less than the number of processors
+    private int workerThreads = 0;
+    private int queueCapacity = 50;
+    private int timeoutSeconds = 30;
+    private int minTextChars = 12;
+    private int maxTextChars = 600;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public List<String> getCommand() {
+        return command;
+    }
+    
+    public void setCommand(List<String> command) {
+        this.command = command;
+    }
+    
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+    
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+    
+    public int getMinTextChars() {
+        return minTextChars;
+    }
+    
+    public void setMinTextChars(int minTextChars) {
+        this.minTextChars = minTextChars;
+    }
+    
+    public int getMaxTextChars() {
+        return maxTextChars;
+    }
+    
+    public void setMaxTextChars(int maxTextChars) {
+        this.maxTextChars = maxTextChars;
+    }
+}
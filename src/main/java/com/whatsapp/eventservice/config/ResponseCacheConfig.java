@@ -0,0 +1,50 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration properties for the cache of LLM-generated reply texts
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.response-cache")
+public class ResponseCacheConfig {
+    
+    private boolean enabled = true;
+    private int maxEntries = 2000;
+    private int ttlMinutes = 60;
+    private String greetingTemplate = "Hi {{name}}! ";
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+    
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+    
+    public int getTtlMinutes() {
+        return ttlMinutes;
+    }
+    
+    public void setTtlMinutes(int ttlMinutes) {
+        this.ttlMinutes = ttlMinutes;
+    }
+    
+    public String getGreetingTemplate() {
+        return greetingTemplate;
+    }
+    
+    public void setGreetingTemplate(String greetingTemplate) {
+        this.greetingTemplate = greetingTemplate;
+    }
+}
@@ -0,0 +1,110 @@
+package com.whatsapp.eventservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for local speech-to-text of voice messages
+ */
+@Configuration
+@ConfigurationProperties(prefix = "speech")
+public class SpeechConfig {
+    
+    // Off unless the recognizer command and its model are installed
+    private boolean enabled = false;
+    
+    // Model implementation: command (a local recognizer such as whisper.cpp) or stub
+    private String model = "command";
+    
+    // Decodes {input} into 16 kHz mono 16-bit WAV at {output}
+    private List<String> decodeCommand = new ArrayList<>(List.of(
+        "ffmpeg", "-nostdin", "-loglevel", "error", "-y", "-i", "{input}", "-ac", "1", "-ar", "16000", "-c:a", "pcm_s16le", "{output}"));
+    
+    // Transcribes the WAV at {input} and prints the text
+    private List<String> modelCommand = new ArrayList<>(List.of(
+        "whisper-cli", "-m", "models/ggml-base.bin", "-f", "{input}", "-nt", "-np"));
+    
+    // Transcript returned by the stub model
+    private String stubTranscript = "";
+    
+    private int workerThreads = 2;
+    private int queueCapacity = 50;
+    private int timeoutSeconds = 60;
+    private int cacheEntries = 1000;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public void setModel(String model) {
+        this.model = model;
+    }
+    
+    public List<String> getDecodeCommand() {
+        return decodeCommand;
+    }
+    
+    public void setDecodeCommand(List<String> decodeCommand) {
+        this.decodeCommand = decodeCommand;
+    }
+    
+    public List<String> getModelCommand() {
+        return modelCommand;
+    }
+    
+    public void setModelCommand(List<String> modelCommand) {
+        this.modelCommand = modelCommand;
+    }
+    
+    public String getStubTranscript() {
+        return stubTranscript;
+    }
+    
+    public void setStubTranscript(String stubTranscript) {
+        this.stubTranscript = stubTranscript;
+    }
+    
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+    
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+    
+    public void setTimeoutSeconds(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+    
+    public int getCacheEntries() {
+        return cacheEntries;
+    }
+    
+    public void setCacheEntries(int cacheEntries) {
+        this.cacheEntries = cacheEntries;
+    }
+}
@@ -3,6 +3,9 @@ package com.whatsapp.eventservice.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration properties for WhatsApp Business API
  */
@@ -14,6 +17,93 @@ public class WhatsAppConfig {
     private String phoneNumberId;
     private String verifyToken = "mywhatsappverify";
     private String apiUrl = "https://graph.facebook.com/v21.0";
+    private String appSecret;
+    private int replayWindowSeconds = 300;
+    private List<Tenant> tenants = new ArrayList<>();
+    private int tenantRoutingEntries = 100000;
+    private long sendMaxWaitMs = 5000;
+    private int connectTimeoutMs = 5000;
+    private int readTimeoutMs = 30000;
+    
+    /**
+     * One business phone number with its own token, send rate and worker pool
+     */
+    public static class Tenant {
+        
+        private String name;
+        private String phoneNumberId;
+        // Falls back to whatsapp.access-token when empty
+        private String accessToken;
+        private double messagesPerSecond = 20;
+        private int burst = 40;
+        private int workerThreads = 4;
+        private int queueCapacity = 500;
+        private int ingestCapacity = 10000;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public String getPhoneNumberId() {
+            return phoneNumberId;
+        }
+        
+        public void setPhoneNumberId(String phoneNumberId) {
+            this.phoneNumberId = phoneNumberId;
+        }
+        
+        public String getAccessToken() {
+            return accessToken;
+        }
+        
+        public void setAccessToken(String accessToken) {
+            this.accessToken = accessToken;
+        }
+        
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+        
+        public void setMessagesPerSecond(double messagesPerSecond) {
+            this.messagesPerSecond = messagesPerSecond;
+        }
+        
+        public int getBurst() {
+            return burst;
+        }
+        
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+        
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+        
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+        
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+        
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+        
+        public int getIngestCapacity() {
+            return ingestCapacity;
+        }
+        
+        public void setIngestCapacity(int ingestCapacity) {
+            this.ingestCapacity = ingestCapacity;
+        }
+    }
     
     // Getters and Setters
     public String getAccessToken() {
@@ -47,4 +137,60 @@ public class WhatsAppConfig {
     public void setApiUrl(String apiUrl) {
         this.apiUrl = apiUrl;
     }
+    
+    public String getAppSecret() {
+        return appSecret;
+    }
+    
+    public void setAppSecret(String appSecret) {
+        this.appSecret = appSecret;
+    }
+    
+    public int getReplayWindowSeconds() {
+        return replayWindowSeconds;
+    }
+    
+    public void setReplayWindowSeconds(int replayWindowSeconds) {
+        this.replayWindowSeconds = replayWindowSeconds;
+    }
+    
+    public List<Tenant> getTenants() {
+        return tenants;
+    }
+    
+    public void setTenants(List<Tenant> tenants) {
+        this.tenants = tenants;
+    }
+    
+    public int getTenantRoutingEntries() {
+        return tenantRoutingEntries;
+    }
+    
+    public void setTenantRoutingEntries(int tenantRoutingEntries) {
+        this.tenantRoutingEntries = tenantRoutingEntries;
+    }
+    
+    public long getSendMaxWaitMs() {
+        return sendMaxWaitMs;
+    }
+    
+    public void setSendMaxWaitMs(long sendMaxWaitMs) {
+        this.sendMaxWaitMs = sendMaxWaitMs;
+    }
+    
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+    
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+    
+    public int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+    
+    public void setReadTimeoutMs(int readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
 }
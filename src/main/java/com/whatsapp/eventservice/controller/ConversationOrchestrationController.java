@@ -75,11 +75,12 @@ public class ConversationOrchestrationController {
             Long userId = Long.valueOf(requestBody.get("user_id").toString());
             Long suggestionId = Long.valueOf(requestBody.get("suggestion_id").toString());
             String feedbackType = (String) requestBody.get("feedback_type");
+            String suggestionType = (String) requestBody.getOrDefault("suggestion_type", "event");
             
-            logger.info("💬 Processing feedback for user: {}, suggestion: {}, type: {}", 
-                       userId, suggestionId, feedbackType);
+            logger.info("💬 Processing feedback for user: {}, {} suggestion: {}, type: {}", 
+                       userId, suggestionType, suggestionId, feedbackType);
             
-            Map<String, Object> response = orchestrationService.processUserFeedback(userId, suggestionId, feedbackType);
+            Map<String, Object> response = orchestrationService.processUserFeedback(userId, suggestionType, suggestionId, feedbackType);
             
             logger.info("✅ Feedback processed successfully");
             return ResponseEntity.ok(response);
@@ -1,6 +1,7 @@
 package com.whatsapp.eventservice.controller;
 
 import com.whatsapp.eventservice.model.Event;
+import com.whatsapp.eventservice.service.EventImportService;
 import com.whatsapp.eventservice.service.EventService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +27,9 @@ public class EventController {
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private EventImportService eventImportService;
+    
     /**
      * List all events - matches OpenAPI spec
      */
@@ -61,4 +67,31 @@ public class EventController {
             return ResponseEntity.status(500).body(null);
         }
     }
+    
+    /**
+     * Bulk import events from an NDJSON or CSV feed, upserting on external_id.
+     * The body is streamed, so feeds of any size are accepted.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Map<String, Object>> importEvents(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        EventImportService.Format format = contentType != null && contentType.startsWith("text/csv")
+            ? EventImportService.Format.csv
+            : EventImportService.Format.ndjson;
+        
+        logger.info("📦 Importing events from {} feed", format);
+        
+        try {
+            Map<String, Object> report = eventImportService.importEvents(request.getInputStream(), format);
+            return ResponseEntity.ok(report);
+            
+        } catch (IllegalArgumentException e) {
+            logger.warn("⚠️ Rejected event feed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            
+        } catch (Exception e) {
+            logger.error("❌ Error importing events", e);
+            return ResponseEntity.status(500).body(null);
+        }
+    }
 }
@@ -1,14 +1,21 @@
 package com.whatsapp.eventservice.controller;
 
-import com.whatsapp.eventservice.model.WhatsAppWebhookPayload;
+import com.whatsapp.eventservice.model.WebhookEnvelope;
+import com.whatsapp.eventservice.service.DeliveryTracker;
+import com.whatsapp.eventservice.service.WebhookIngestService;
+import com.whatsapp.eventservice.service.WebhookForwarder;
 import com.whatsapp.eventservice.service.WebhookService;
+import com.whatsapp.eventservice.service.WebhookSignatureVerifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * REST Controller for handling WhatsApp webhook requests
@@ -28,6 +35,15 @@ public class WebhookController {
     @Autowired
     private WebhookService webhookService;
     
+    @Autowired
+    private WebhookIngestService webhookIngestService;
+    
+    @Autowired
+    private WebhookSignatureVerifier webhookSignatureVerifier;
+    
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+    
     /**
      * Handle webhook verification (GET request)
      * WhatsApp Cloud API sends a GET request to verify the webhook URL
@@ -66,23 +82,44 @@ public class WebhookController {
      * Handle incoming webhook messages (POST request)
      * WhatsApp Cloud API sends POST requests with message data
      * 
-     * @param payload WhatsApp webhook payload containing messages and statuses
+     * The body is taken as raw bytes and its signature is checked before any JSON
+     * parsing; only the routing fields are read here and the full payload is bound on
+     * the worker, so the 200 goes back as early as possible.
+     * 
+     * @param body Raw WhatsApp webhook payload containing messages and statuses
+     * @param signature X-Hub-Signature-256 header
+     * @param forwardedMessages Message ids, when another cluster instance forwarded the webhook
      * @return 200 OK response
      */
     @PostMapping
-    public ResponseEntity<String> handleWebhook(@RequestBody WhatsAppWebhookPayload payload) {
-        logger.info("📩 Received webhook payload with {} entries", 
-                   payload.getEntry() != null ? payload.getEntry().size() : 0);
+    public ResponseEntity<String> handleWebhook(@RequestBody byte[] body,
+                                                @RequestHeader(value = "X-Hub-Signature-256", required = false) String signature,
+                                                @RequestHeader(value = WebhookForwarder.FORWARDED_MESSAGES_HEADER, required = false) String forwardedMessages) {
+        WebhookSignatureVerifier.Result verification = webhookSignatureVerifier.verify(body, signature);
+        if (verification == WebhookSignatureVerifier.Result.invalid) {
+            logger.warn("❌ Rejected webhook with invalid signature");
+            return ResponseEntity.status(401).body("Invalid signature");
+        }
+        if (verification == WebhookSignatureVerifier.Result.replayed) {
+            // Acknowledged so the sender stops retrying, but not processed again
+            logger.warn("🔁 Dropped replayed webhook");
+            return ResponseEntity.ok("OK");
+        }
         
         try {
-            // Process the webhook payload asynchronously
-            webhookService.processWebhookPayload(payload);
-            
-            logger.info("✅ Webhook payload processed successfully");
+            Set<String> forwardedMessageIds = forwardedMessages != null ? Set.copyOf(List.of(forwardedMessages.split(","))) : null;
+            WebhookEnvelope envelope = webhookIngestService.ingest(body, signature, forwardedMessageIds);
+            logger.info("📩 Received webhook with {} messages and {} statuses",
+                       envelope.getMessages().size(), envelope.getStatuses().size());
             return ResponseEntity.ok("OK");
             
+        } catch (IOException e) {
+            logger.warn("❌ Rejected malformed webhook body: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("Malformed payload");
         } catch (Exception e) {
             logger.error("❌ Error processing webhook payload", e);
+            // Not ingested, so the retry must not be taken for a replay
+            webhookSignatureVerifier.forget(signature);
             return ResponseEntity.status(500).body("Internal server error");
         }
     }
@@ -123,4 +160,15 @@ public class WebhookController {
             ));
         }
     }
+    
+    /**
+     * Get delivery and read rates of outbound messages
+     * 
+     * @param days Look-back window in days
+     * @return Rates per send type and campaign
+     */
+    @GetMapping("/delivery-rates")
+    public ResponseEntity<List<Map<String, Object>>> getDeliveryRates(@RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(deliveryTracker.getRates(days));
+    }
 }
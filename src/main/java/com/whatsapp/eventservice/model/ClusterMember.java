@@ -0,0 +1,42 @@
+package com.whatsapp.eventservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A running instance of the service, as registered in the cluster_member table
+ */
+public class ClusterMember {
+    
+    private final String instanceId;
+    private final String baseUrl;
+    private final LocalDateTime heartbeatAt;
+    
+    // Constructors
+    public ClusterMember(String instanceId, String baseUrl, LocalDateTime heartbeatAt) {
+        this.instanceId = instanceId;
+        this.baseUrl = baseUrl;
+        this.heartbeatAt = heartbeatAt;
+    }
+    
+    // Getters
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+    
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ClusterMember{" +
+                "instanceId='" + instanceId + '\'' +
+                ", baseUrl='" + baseUrl + '\'' +
+                ", heartbeatAt=" + heartbeatAt +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.whatsapp.eventservice.model;
+
+import java.util.List;
+
+/**
+ * The set of live cluster members changed, so users may have moved between instances;
+ * published on the in-process event bus
+ */
+public class ClusterRingChange {
+    
+    private final List<ClusterMember> members;
+    
+    // Constructors
+    public ClusterRingChange(List<ClusterMember> members) {
+        this.members = List.copyOf(members);
+    }
+    
+    // Getters
+    public List<ClusterMember> getMembers() {
+        return members;
+    }
+    
+    @Override
+    public String toString() {
+        return "ClusterRingChange{" +
+                "members=" + members +
+                '}';
+    }
+}
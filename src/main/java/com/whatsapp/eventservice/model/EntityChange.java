@@ -0,0 +1,100 @@
+package com.whatsapp.eventservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versioned change record for an Event, Business or Offer
+ * 
+ * Published on the in-process event bus after every write, and optionally appended
+ * to the entity_change_outbox table so other instances can tail it. The entity
+ * payload is only present for local, non-delete changes; consumers that receive a
+ * change without it should reload the entity by ID.
+ */
+public class EntityChange {
+    
+    private final Long outboxId;
+    private final EntityType entityType;
+    private final Long entityId;
+    private final ChangeType changeType;
+    private final long version;
+    private final String sourceInstance;
+    private final LocalDateTime occurredAt;
+    private final Object entity;
+    
+    public enum EntityType {
+        event, business, offer
+    }
+    
+    public enum ChangeType {
+        created, updated, deleted
+    }
+    
+    // Constructors
+    public EntityChange(EntityType entityType, Long entityId, ChangeType changeType, long version,
+                        String sourceInstance, Object entity) {
+        this(null, entityType, entityId, changeType, version, sourceInstance, LocalDateTime.now(), entity);
+    }
+    
+    public EntityChange(Long outboxId, EntityType entityType, Long entityId, ChangeType changeType, long version,
+                        String sourceInstance, LocalDateTime occurredAt, Object entity) {
+        this.outboxId = outboxId;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.version = version;
+        this.sourceInstance = sourceInstance;
+        this.occurredAt = occurredAt;
+        this.entity = entity;
+    }
+    
+    // Getters
+    public Long getOutboxId() {
+        return outboxId;
+    }
+    
+    public EntityType getEntityType() {
+        return entityType;
+    }
+    
+    public Long getEntityId() {
+        return entityId;
+    }
+    
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+    
+    /**
+     * Monotonically increasing version within the source instance; versions from
+     * different instances cannot be compared
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    public String getSourceInstance() {
+        return sourceInstance;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    /**
+     * Entity state after the change, or null for deletes and changes tailed from the outbox
+     */
+    public Object getEntity() {
+        return entity;
+    }
+    
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+                "entityType=" + entityType +
+                ", entityId=" + entityId +
+                ", changeType=" + changeType +
+                ", version=" + version +
+                ", sourceInstance='" + sourceInstance + '\'' +
+                '}';
+    }
+}
@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 public class Event {
     
     private Long id;
+    private String externalId;
     private String name;
     private String description;
     private Long categoryId;
@@ -47,6 +48,14 @@ public class Event {
         this.id = id;
     }
     
+    public String getExternalId() {
+        return externalId;
+    }
+    
+    public void setExternalId(String externalId) {
+        this.externalId = externalId;
+    }
+    
     public String getName() {
         return name;
     }
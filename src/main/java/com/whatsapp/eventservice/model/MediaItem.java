@@ -0,0 +1,137 @@
+package com.whatsapp.eventservice.model;
+
+import java.nio.file.Path;
+
+/**
+ * An inbound media attachment moving through the media pipeline
+ * 
+ * Created from the webhook message with the Graph API media id and the declared
+ * mime type and hash; the content hash, stored path and size are set once the
+ * content is in the media store.
+ */
+public class MediaItem {
+    
+    public enum Kind {
+        image, document, audio, video, sticker
+    }
+    
+    private final Kind kind;
+    private final String mediaId;
+    private String messageId;
+    private String from;
+    private Long userId;
+    private String mimeType;
+    private String declaredSha256;
+    private String caption;
+    private String filename;
+    
+    // Set once stored
+    private String contentHash;
+    private Path path;
+    private long size;
+    
+    public MediaItem(Kind kind, String mediaId) {
+        this.kind = kind;
+        this.mediaId = mediaId;
+    }
+    
+    // Getters and Setters
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public String getMediaId() {
+        return mediaId;
+    }
+    
+    public String getMessageId() {
+        return messageId;
+    }
+    
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+    
+    public String getFrom() {
+        return from;
+    }
+    
+    public void setFrom(String from) {
+        this.from = from;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+    
+    public String getDeclaredSha256() {
+        return declaredSha256;
+    }
+    
+    public void setDeclaredSha256(String declaredSha256) {
+        this.declaredSha256 = declaredSha256;
+    }
+    
+    public String getCaption() {
+        return caption;
+    }
+    
+    public void setCaption(String caption) {
+        this.caption = caption;
+    }
+    
+    public String getFilename() {
+        return filename;
+    }
+    
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+    
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public void setPath(Path path) {
+        this.path = path;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public void setSize(long size) {
+        this.size = size;
+    }
+    
+    @Override
+    public String toString() {
+        return "MediaItem{" +
+                "kind=" + kind +
+                ", mediaId='" + mediaId + '\'' +
+                ", messageId='" + messageId + '\'' +
+                ", mimeType='" + mimeType + '\'' +
+                ", contentHash='" + contentHash + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.whatsapp.eventservice.model;
+
+/**
+ * What an outbound WhatsApp message was sent for: the wamid assigned by the Cloud API
+ * and the conversation, message row and campaign it belongs to
+ * 
+ * Callers fill in the conversation, message and campaign before the send; the wamid is
+ * set once the API has accepted the message.
+ */
+public class MessageCorrelation {
+    
+    private String wamid;
+    private Long conversationId;
+    private Long messageId;
+    private String campaign;
+    
+    public MessageCorrelation() {
+    }
+    
+    public MessageCorrelation(String wamid, Long conversationId, Long messageId, String campaign) {
+        this.wamid = wamid;
+        this.conversationId = conversationId;
+        this.messageId = messageId;
+        this.campaign = campaign;
+    }
+    
+    // Getters and Setters
+    public String getWamid() {
+        return wamid;
+    }
+    
+    public void setWamid(String wamid) {
+        this.wamid = wamid;
+    }
+    
+    public Long getConversationId() {
+        return conversationId;
+    }
+    
+    public void setConversationId(Long conversationId) {
+        this.conversationId = conversationId;
+    }
+    
+    public Long getMessageId() {
+        return messageId;
+    }
+    
+    public void setMessageId(Long messageId) {
+        this.messageId = messageId;
+    }
+    
+    public String getCampaign() {
+        return campaign;
+    }
+    
+    public void setCampaign(String campaign) {
+        this.campaign = campaign;
+    }
+    
+    @Override
+    public String toString() {
+        return "MessageCorrelation{" +
+                "wamid='" + wamid + '\'' +
+                ", conversationId=" + conversationId +
+                ", messageId=" + messageId +
+                ", campaign='" + campaign + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,142 @@
+package com.whatsapp.eventservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Delivery state of one outbound WhatsApp message, keyed by its wamid
+ * 
+ * Status callbacks for the same message are merged into one instance: the state only
+ * moves forward and each transition keeps the first time it was reported.
+ */
+public class MessageDelivery {
+    
+    public enum State {
+        sent, delivered, read, failed;
+        
+        /**
+         * Position in the delivery lifecycle; a later state never goes back to an earlier one
+         */
+        public int rank() {
+            return ordinal() + 1;
+        }
+        
+        public static State fromStatus(String status) {
+            if (status == null) {
+                return null;
+            }
+            try {
+                return valueOf(status.toLowerCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+    
+    private final String wamid;
+    private String recipient;
+    private String sendType;
+    private String campaign;
+    private State state;
+    private LocalDateTime sentAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime readAt;
+    private LocalDateTime failedAt;
+    
+    public MessageDelivery(String wamid) {
+        this.wamid = wamid;
+    }
+    
+    /**
+     * Record a transition to the given state at the given time
+     */
+    public void advance(State newState, LocalDateTime at) {
+        if (state == null || newState.rank() > state.rank()) {
+            state = newState;
+        }
+        switch (newState) {
+            case sent -> sentAt = earliest(sentAt, at);
+            case delivered -> deliveredAt = earliest(deliveredAt, at);
+            case read -> readAt = earliest(readAt, at);
+            case failed -> failedAt = earliest(failedAt, at);
+        }
+    }
+    
+    /**
+     * Fold another pending record for the same message into this one
+     */
+    public MessageDelivery merge(MessageDelivery other) {
+        if (recipient == null) {
+            recipient = other.recipient;
+        }
+        if (sendType == null) {
+            sendType = other.sendType;
+        }
+        if (campaign == null) {
+            campaign = other.campaign;
+        }
+        if (other.state != null && (state == null || other.state.rank() > state.rank())) {
+            state = other.state;
+        }
+        sentAt = earliest(sentAt, other.sentAt);
+        deliveredAt = earliest(deliveredAt, other.deliveredAt);
+        readAt = earliest(readAt, other.readAt);
+        failedAt = earliest(failedAt, other.failedAt);
+        return this;
+    }
+    
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        if (current == null) {
+            return candidate;
+        }
+        return candidate != null && candidate.isBefore(current) ? candidate : current;
+    }
+    
+    // Getters and Setters
+    public String getWamid() {
+        return wamid;
+    }
+    
+    public String getRecipient() {
+        return recipient;
+    }
+    
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+    
+    public String getSendType() {
+        return sendType;
+    }
+    
+    public void setSendType(String sendType) {
+        this.sendType = sendType;
+    }
+    
+    public String getCampaign() {
+        return campaign;
+    }
+    
+    public void setCampaign(String campaign) {
+        this.campaign = campaign;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+    
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+    
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+    
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+}
@@ -0,0 +1,122 @@
+package com.whatsapp.eventservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * UserFeedback entity for the user_feedback table - JDBC Template version
+ */
+public class UserFeedback {
+    
+    private Long id;
+    private SuggestedItem.ItemType suggestionType;
+    private Long suggestionId;
+    private Long userId;
+    private FeedbackType feedbackType;
+    private String feedbackText;
+    private LocalDateTime createdAt;
+    
+    public enum FeedbackType {
+        useful, not_useful, interested, attending, ignored;
+        
+        /**
+         * Interest weight delta applied to the item's category for this feedback
+         */
+        public float weightDelta() {
+            switch (this) {
+                case attending:
+                    return 1.0f;
+                case interested:
+                    return 0.5f;
+                case useful:
+                    return 0.25f;
+                case ignored:
+                    return -0.1f;
+                case not_useful:
+                    return -0.5f;
+                default:
+                    return 0f;
+            }
+        }
+    }
+    
+    // Constructors
+    public UserFeedback() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public UserFeedback(Long userId, SuggestedItem.ItemType suggestionType, Long suggestionId, FeedbackType feedbackType) {
+        this();
+        this.userId = userId;
+        this.suggestionType = suggestionType;
+        this.suggestionId = suggestionId;
+        this.feedbackType = feedbackType;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public SuggestedItem.ItemType getSuggestionType() {
+        return suggestionType;
+    }
+    
+    public void setSuggestionType(SuggestedItem.ItemType suggestionType) {
+        this.suggestionType = suggestionType;
+    }
+    
+    public Long getSuggestionId() {
+        return suggestionId;
+    }
+    
+    public void setSuggestionId(Long suggestionId) {
+        this.suggestionId = suggestionId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public FeedbackType getFeedbackType() {
+        return feedbackType;
+    }
+    
+    public void setFeedbackType(FeedbackType feedbackType) {
+        this.feedbackType = feedbackType;
+    }
+    
+    public String getFeedbackText() {
+        return feedbackText;
+    }
+    
+    public void setFeedbackText(String feedbackText) {
+        this.feedbackText = feedbackText;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "UserFeedback{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", suggestionType=" + suggestionType +
+                ", suggestionId=" + suggestionId +
+                ", feedbackType=" + feedbackType +
+                '}';
+    }
+}
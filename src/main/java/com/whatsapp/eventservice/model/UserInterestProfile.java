@@ -0,0 +1,137 @@
+package com.whatsapp.eventservice.model;
+
+import java.util.Arrays;
+
+/**
+ * Compact, immutable interest profile for a single user.
+ * 
+ * Category weights are held in two parallel primitive arrays sorted by category id,
+ * so lookups are a binary search with no boxing. Updates return a new instance
+ * (copy-on-write), which lets the ranking path read profiles without locking.
+ */
+public final class UserInterestProfile {
+    
+    /** Weight used for categories the user has never interacted with */
+    public static final float NEUTRAL_WEIGHT = 1.0f;
+    
+    public static final float MIN_WEIGHT = 0.0f;
+    public static final float MAX_WEIGHT = 10.0f;
+    
+    private final long userId;
+    private final long[] categoryIds;
+    private final float[] weights;
+    
+    private UserInterestProfile(long userId, long[] categoryIds, float[] weights) {
+        this.userId = userId;
+        this.categoryIds = categoryIds;
+        this.weights = weights;
+    }
+    
+    /**
+     * Create an empty profile
+     */
+    public static UserInterestProfile empty(long userId) {
+        return new UserInterestProfile(userId, new long[0], new float[0]);
+    }
+    
+    /**
+     * Build a profile from unsorted parallel arrays (e.g. loaded from user_interest)
+     */
+    public static UserInterestProfile of(long userId, long[] categoryIds, float[] weights) {
+        if (categoryIds.length != weights.length) {
+            throw new IllegalArgumentException("categoryIds and weights must have the same length");
+        }
+        long[] ids = categoryIds.clone();
+        float[] values = new float[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            values[i] = clamp(weights[i]);
+        }
+        
+        // Insertion sort on the parallel arrays; profiles hold a handful of categories
+        for (int i = 1; i < ids.length; i++) {
+            long id = ids[i];
+            float value = values[i];
+            int j = i - 1;
+            while (j >= 0 && ids[j] > id) {
+                ids[j + 1] = ids[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            ids[j + 1] = id;
+            values[j + 1] = value;
+        }
+        return new UserInterestProfile(userId, ids, values);
+    }
+    
+    public long getUserId() {
+        return userId;
+    }
+    
+    public int size() {
+        return categoryIds.length;
+    }
+    
+    public long categoryIdAt(int index) {
+        return categoryIds[index];
+    }
+    
+    public float weightAt(int index) {
+        return weights[index];
+    }
+    
+    /**
+     * Weight for a category, or the neutral weight if the user has no signal for it
+     */
+    public float weightFor(Long categoryId) {
+        if (categoryId == null) {
+            return NEUTRAL_WEIGHT;
+        }
+        int index = Arrays.binarySearch(categoryIds, categoryId);
+        return index >= 0 ? weights[index] : NEUTRAL_WEIGHT;
+    }
+    
+    /**
+     * Return a copy of this profile with the category weight adjusted by delta
+     */
+    public UserInterestProfile withDelta(long categoryId, float delta) {
+        int index = Arrays.binarySearch(categoryIds, categoryId);
+        float current = index >= 0 ? weights[index] : NEUTRAL_WEIGHT;
+        return withWeight(categoryId, current + delta);
+    }
+    
+    /**
+     * Return a copy of this profile with the category weight set
+     */
+    public UserInterestProfile withWeight(long categoryId, float weight) {
+        float clamped = clamp(weight);
+        int index = Arrays.binarySearch(categoryIds, categoryId);
+        if (index >= 0) {
+            float[] newWeights = weights.clone();
+            newWeights[index] = clamped;
+            return new UserInterestProfile(userId, categoryIds, newWeights);
+        }
+        
+        int insertAt = -index - 1;
+        long[] newIds = new long[categoryIds.length + 1];
+        float[] newWeights = new float[weights.length + 1];
+        System.arraycopy(categoryIds, 0, newIds, 0, insertAt);
+        System.arraycopy(weights, 0, newWeights, 0, insertAt);
+        newIds[insertAt] = categoryId;
+        newWeights[insertAt] = clamped;
+        System.arraycopy(categoryIds, insertAt, newIds, insertAt + 1, categoryIds.length - insertAt);
+        System.arraycopy(weights, insertAt, newWeights, insertAt + 1, weights.length - insertAt);
+        return new UserInterestProfile(userId, newIds, newWeights);
+    }
+    
+    public static float clamp(float weight) {
+        return Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, weight));
+    }
+    
+    @Override
+    public String toString() {
+        return "UserInterestProfile{" +
+                "userId=" + userId +
+                ", categories=" + categoryIds.length +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package com.whatsapp.eventservice.model;
+
+/**
+ * Transcript of a voice message, published on the in-process event bus so it can be
+ * answered like a typed message
+ */
+public class VoiceTranscript {
+    
+    private final MediaItem item;
+    private final String text;
+    private final boolean cached;
+    
+    // Constructors
+    public VoiceTranscript(MediaItem item, String text, boolean cached) {
+        this.item = item;
+        this.text = text;
+        this.cached = cached;
+    }
+    
+    // Getters
+    public MediaItem getItem() {
+        return item;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    @Override
+    public String toString() {
+        return "VoiceTranscript{" +
+                "item=" + item +
+                ", chars=" + text.length() +
+                ", cached=" + cached +
+                '}';
+    }
+}
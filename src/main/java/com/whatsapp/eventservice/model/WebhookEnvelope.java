@@ -0,0 +1,163 @@
+package com.whatsapp.eventservice.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raw webhook body plus the routing fields read from it without binding the payload
+ * 
+ * The body is kept as received; the full WhatsAppWebhookPayload is only bound on the
+ * worker, and only when the envelope contains messages. Only the messages listed in
+ * the envelope are processed, so a body can be split between cluster instances.
+ */
+public class WebhookEnvelope {
+    
+    private final byte[] body;
+    private final long receivedAt;
+    private final List<MessageRef> messages = new ArrayList<>();
+    private final List<StatusRef> statuses = new ArrayList<>();
+    
+    public WebhookEnvelope(byte[] body, long receivedAt) {
+        this.body = body;
+        this.receivedAt = receivedAt;
+    }
+    
+    /**
+     * Routing fields of one inbound message
+     */
+    public static class MessageRef {
+        
+        private String phoneNumberId;
+        private String id;
+        private String from;
+        private String type;
+        private String timestamp;
+        
+        // Getters and Setters
+        public String getPhoneNumberId() {
+            return phoneNumberId;
+        }
+        
+        public void setPhoneNumberId(String phoneNumberId) {
+            this.phoneNumberId = phoneNumberId;
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public void setId(String id) {
+            this.id = id;
+        }
+        
+        public String getFrom() {
+            return from;
+        }
+        
+        public void setFrom(String from) {
+            this.from = from;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public void setType(String type) {
+            this.type = type;
+        }
+        
+        public String getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(String timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    /**
+     * Routing fields of one delivery status update; these are all a status needs
+     */
+    public static class StatusRef {
+        
+        private String phoneNumberId;
+        private String id;
+        private String status;
+        private String recipientId;
+        private String timestamp;
+        
+        // Getters and Setters
+        public String getPhoneNumberId() {
+            return phoneNumberId;
+        }
+        
+        public void setPhoneNumberId(String phoneNumberId) {
+            this.phoneNumberId = phoneNumberId;
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public void setId(String id) {
+            this.id = id;
+        }
+        
+        public String getStatus() {
+            return status;
+        }
+        
+        public void setStatus(String status) {
+            this.status = status;
+        }
+        
+        public String getRecipientId() {
+            return recipientId;
+        }
+        
+        public void setRecipientId(String recipientId) {
+            this.recipientId = recipientId;
+        }
+        
+        public String getTimestamp() {
+            return timestamp;
+        }
+        
+        public void setTimestamp(String timestamp) {
+            this.timestamp = timestamp;
+        }
+    }
+    
+    // Getters
+    public byte[] getBody() {
+        return body;
+    }
+    
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+    
+    public List<MessageRef> getMessages() {
+        return messages;
+    }
+    
+    public List<StatusRef> getStatuses() {
+        return statuses;
+    }
+    
+    public boolean isEmpty() {
+        return messages.isEmpty() && statuses.isEmpty();
+    }
+    
+    /**
+     * Envelope over the same body restricted to some of its messages and, optionally, its statuses
+     */
+    public WebhookEnvelope part(List<MessageRef> messages, boolean includeStatuses) {
+        WebhookEnvelope part = new WebhookEnvelope(body, receivedAt);
+        part.messages.addAll(messages);
+        if (includeStatuses) {
+            part.statuses.addAll(statuses);
+        }
+        return part;
+    }
+}
@@ -16,6 +16,7 @@ import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Business repository using JDBC Template
@@ -70,6 +71,24 @@ public class BusinessRepository {
         }
     }
     
+    /**
+     * Find business by ID
+     */
+    public Optional<Business> findById(Long id) {
+        logger.info("🔍 Finding business by ID: {}", id);
+        
+        String sql = "SELECT * FROM businesses WHERE id = ?";
+        
+        try {
+            List<Business> businesses = jdbcTemplate.query(sql, businessRowMapper, id);
+            return businesses.isEmpty() ? Optional.empty() : Optional.of(businesses.get(0));
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding business by ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+    
     /**
      * Save a new business
      */
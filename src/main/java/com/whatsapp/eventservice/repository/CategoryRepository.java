@@ -1,23 +1,55 @@
 package com.whatsapp.eventservice.repository;
 
 import com.whatsapp.eventservice.model.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 /**
- * Category repository using JDBC Template - placeholder for now
+ * Category repository using JDBC Template
  */
 @Repository
 public class CategoryRepository {
     
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRepository.class);
+    
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
-    // For now, just return empty lists since categories are not heavily used
+    private final RowMapper<Category> categoryRowMapper = (rs, rowNum) -> {
+        Category category = new Category();
+        category.setId(rs.getLong("id"));
+        category.setName(rs.getString("name"));
+        category.setDescription(rs.getString("description"));
+        
+        if (rs.getTimestamp("created_at") != null) {
+            category.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        }
+        
+        return category;
+    };
+    
+    /**
+     * Find all categories
+     * 
+     * Throws on database errors, so the events snapshot does not take them for no categories
+     */
     public List<Category> findAll() {
-        return List.of();
+        logger.info("📋 Finding all categories");
+        
+        String sql = "SELECT * FROM categories ORDER BY name ASC";
+        
+        try {
+            return jdbcTemplate.query(sql, categoryRowMapper);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding all categories", e);
+            throw new RuntimeException("Failed to find categories", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.ClusterMember;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Cluster membership repository using JDBC Template
+ * 
+ * Heartbeats and liveness are computed on the database clock, so instances with
+ * skewed clocks still agree on who is alive.
+ */
+@Repository
+public class ClusterMemberRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMemberRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final RowMapper<ClusterMember> memberRowMapper = (rs, rowNum) -> new ClusterMember(
+        rs.getString("instance_id"),
+        rs.getString("base_url"),
+        rs.getTimestamp("heartbeat_at") != null ? rs.getTimestamp("heartbeat_at").toLocalDateTime() : null
+    );
+    
+    /**
+     * Register the instance or renew its heartbeat
+     */
+    public void heartbeat(String instanceId, String baseUrl) {
+        String sql = """
+            INSERT INTO cluster_member (instance_id, base_url, started_at, heartbeat_at)
+            VALUES (?, ?, NOW(3), NOW(3))
+            ON DUPLICATE KEY UPDATE base_url = VALUES(base_url), heartbeat_at = NOW(3)
+            """;
+        
+        try {
+            jdbcTemplate.update(sql, instanceId, baseUrl);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error writing heartbeat for instance: {}", instanceId, e);
+            throw new RuntimeException("Failed to write cluster heartbeat", e);
+        }
+    }
+    
+    /**
+     * Members whose last heartbeat is within the timeout, ordered by instance id
+     * 
+     * Throws rather than returning an empty list, which would read as every other member gone
+     */
+    public List<ClusterMember> findLive(long timeoutMs) {
+        String sql = """
+            SELECT instance_id, base_url, heartbeat_at FROM cluster_member
+            WHERE heartbeat_at >= NOW(3) - INTERVAL ? MICROSECOND
+            ORDER BY instance_id
+            """;
+        
+        try {
+            return jdbcTemplate.query(sql, memberRowMapper, timeoutMs * 1000);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading live cluster members", e);
+            throw new RuntimeException("Failed to read live cluster members", e);
+        }
+    }
+    
+    /**
+     * Remove an instance, on orderly shutdown
+     */
+    public void remove(String instanceId) {
+        try {
+            jdbcTemplate.update("DELETE FROM cluster_member WHERE instance_id = ?", instanceId);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error removing cluster member: {}", instanceId, e);
+        }
+    }
+    
+    /**
+     * Remove members that stopped heartbeating more than the given number of hours ago
+     */
+    public int deleteExpired(int hours) {
+        try {
+            return jdbcTemplate.update("DELETE FROM cluster_member WHERE heartbeat_at < NOW(3) - INTERVAL ? HOUR", hours);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error pruning cluster members", e);
+            return 0;
+        }
+    }
+}
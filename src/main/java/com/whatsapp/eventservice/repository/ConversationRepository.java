@@ -15,7 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -185,6 +187,98 @@ public class ConversationRepository {
         }
     }
     
+    /**
+     * Update only the context summary of a conversation
+     */
+    public boolean updateContextSummary(Long conversationId, String contextSummary) {
+        logger.info("📝 Updating context summary for conversation: {}", conversationId);
+        
+        String sql = "UPDATE conversations SET context_summary = ? WHERE id = ?";
+        
+        try {
+            return jdbcTemplate.update(sql, contextSummary, conversationId) > 0;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error updating context summary for conversation: {}", conversationId, e);
+            throw new RuntimeException("Failed to update context summary", e);
+        }
+    }
+    
+    /**
+     * Close a batch of conversations in one round trip, setting ended_at and, where given,
+     * a final context summary. Conversations that are already closed, or that got a
+     * message since idleSince (e.g. on another instance), are left untouched.
+     * 
+     * @param finalSummaries Final summary per conversation ID; a null summary keeps the stored one
+     * @return Number of conversations closed
+     */
+    public int closeConversations(Map<Long, String> finalSummaries, LocalDateTime idleSince, LocalDateTime endedAt) {
+        logger.info("🔒 Closing {} conversations", finalSummaries.size());
+        
+        String sql = """
+            UPDATE conversations c SET ended_at = ?, context_summary = COALESCE(?, context_summary)
+            WHERE c.id = ? AND c.ended_at IS NULL
+              AND NOT EXISTS (
+                  SELECT 1 FROM messages m WHERE m.conversation_id = c.id AND m.created_at >= ?
+              )
+            """;
+        
+        List<Object[]> batchArgs = new ArrayList<>(finalSummaries.size());
+        for (Map.Entry<Long, String> entry : finalSummaries.entrySet()) {
+            batchArgs.add(new Object[]{endedAt, entry.getValue(), entry.getKey(), idleSince});
+        }
+        
+        try {
+            int closed = 0;
+            for (int rows : jdbcTemplate.batchUpdate(sql, batchArgs)) {
+                // The driver may report SUCCESS_NO_INFO (-2) for rewritten batches
+                closed += rows == Statement.SUCCESS_NO_INFO ? 1 : rows;
+            }
+            return closed;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error closing conversations", e);
+            throw new RuntimeException("Failed to close conversations", e);
+        }
+    }
+    
+    /**
+     * Close open conversations with no message since the given time, at most limit per call
+     * 
+     * Only conversations whose id falls in the given partition are closed. With a lease
+     * name, the update also requires that lease to still be held with the fencing token.
+     * 
+     * @param partitions Number of partitions, 1 for all conversations
+     * @param partition Partition to close, by conversation id modulo partitions
+     * @param leaseName Job lease fencing the update, or null for none
+     * @return Number of conversations closed
+     */
+    public int closeIdleConversations(LocalDateTime idleSince, LocalDateTime endedAt, int limit,
+                                      int partitions, int partition, String leaseName, long fencingToken) {
+        logger.info("🔒 Closing conversations idle since: {} (partition {}/{})", idleSince, partition, partitions);
+        
+        String sql = """
+            UPDATE conversations c SET ended_at = ?
+            WHERE c.ended_at IS NULL AND c.started_at < ? AND MOD(c.id, ?) = ?
+              AND NOT EXISTS (
+                  SELECT 1 FROM messages m WHERE m.conversation_id = c.id AND m.created_at >= ?
+              )
+            """;
+        List<Object> params = new ArrayList<>(List.of(endedAt, idleSince, partitions, partition, idleSince));
+        if (leaseName != null) {
+            sql += "  AND " + JobLeaseRepository.FENCE_CONDITION + "\n";
+            params.add(leaseName);
+            params.add(fencingToken);
+        }
+        sql += "LIMIT ?";
+        params.add(limit);
+        
+        try {
+            return jdbcTemplate.update(sql, params.toArray());
+        } catch (DataAccessException e) {
+            logger.error("❌ Error closing idle conversations", e);
+            throw new RuntimeException("Failed to close idle conversations", e);
+        }
+    }
+    
     /**
      * Delete conversation by ID
      */
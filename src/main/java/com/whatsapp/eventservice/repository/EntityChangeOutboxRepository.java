@@ -0,0 +1,156 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.EntityChange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Entity change outbox repository using JDBC Template
+ */
+@Repository
+@Transactional
+public class EntityChangeOutboxRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangeOutboxRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final RowMapper<EntityChange> changeRowMapper = (rs, rowNum) -> new EntityChange(
+        rs.getLong("id"),
+        EntityChange.EntityType.valueOf(rs.getString("entity_type").toLowerCase()),
+        rs.getLong("entity_id"),
+        EntityChange.ChangeType.valueOf(rs.getString("change_type").toLowerCase()),
+        rs.getLong("version"),
+        rs.getString("source_instance"),
+        rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toLocalDateTime() : null,
+        null
+    );
+    
+    /**
+     * Append a change record; runs inside the caller's transaction
+     */
+    public void append(EntityChange change) {
+        String sql = """
+            INSERT INTO entity_change_outbox (entity_type, entity_id, change_type, version, source_instance, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+        
+        try {
+            jdbcTemplate.update(sql,
+                change.getEntityType().toString(),
+                change.getEntityId(),
+                change.getChangeType().toString(),
+                change.getVersion(),
+                change.getSourceInstance(),
+                change.getOccurredAt()
+            );
+        } catch (DataAccessException e) {
+            logger.error("❌ Error appending change to outbox: {}", change, e);
+            throw new RuntimeException("Failed to append change to outbox", e);
+        }
+    }
+    
+    /**
+     * Append change records in one batch; runs inside the caller's transaction
+     */
+    public void appendAll(List<EntityChange> changes) {
+        String sql = """
+            INSERT INTO entity_change_outbox (entity_type, entity_id, change_type, version, source_instance, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+        
+        try {
+            jdbcTemplate.batchUpdate(sql, changes, changes.size(), (ps, change) -> {
+                ps.setString(1, change.getEntityType().toString());
+                ps.setLong(2, change.getEntityId());
+                ps.setString(3, change.getChangeType().toString());
+                ps.setLong(4, change.getVersion());
+                ps.setString(5, change.getSourceInstance());
+                ps.setObject(6, change.getOccurredAt());
+            });
+        } catch (DataAccessException e) {
+            logger.error("❌ Error appending {} changes to outbox", changes.size(), e);
+            throw new RuntimeException("Failed to append changes to outbox", e);
+        }
+    }
+    
+    /**
+     * Find changes recorded after the given outbox position, oldest first
+     */
+    public List<EntityChange> findAfter(long lastSeenId, int limit) {
+        String sql = "SELECT * FROM entity_change_outbox WHERE id > ? ORDER BY id ASC LIMIT ?";
+        
+        try {
+            return jdbcTemplate.query(sql, changeRowMapper, lastSeenId, limit);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading outbox after position: {}", lastSeenId, e);
+            return List.of();
+        }
+    }
+    
+    /**
+     * Find changes by outbox id, for ids the tail skipped because they were not committed yet
+     */
+    public List<EntityChange> findByIds(Collection<Long> ids) {
+        List<EntityChange> changes = new ArrayList<>();
+        List<Long> remaining = new ArrayList<>(ids);
+        
+        try {
+            for (int from = 0; from < remaining.size(); from += 1000) {
+                List<Long> chunk = remaining.subList(from, Math.min(from + 1000, remaining.size()));
+                String sql = "SELECT * FROM entity_change_outbox WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id ASC";
+                changes.addAll(jdbcTemplate.query(sql, changeRowMapper, chunk.toArray()));
+            }
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading {} outbox records by id", ids.size(), e);
+        }
+        return changes;
+    }
+    
+    /**
+     * Current end of the outbox, or 0 when it is empty
+     */
+    public long findLatestId() {
+        String sql = "SELECT COALESCE(MAX(id), 0) FROM entity_change_outbox";
+        
+        try {
+            Long latest = jdbcTemplate.queryForObject(sql, Long.class);
+            return latest != null ? latest : 0L;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading outbox position", e);
+            return 0L;
+        }
+    }
+    
+    /**
+     * Delete change records older than the given cutoff
+     */
+    public int deleteOlderThan(LocalDateTime cutoff) {
+        logger.info("🧹 Pruning outbox records older than: {}", cutoff);
+        
+        String sql = "DELETE FROM entity_change_outbox WHERE created_at < ?";
+        
+        try {
+            int deleted = jdbcTemplate.update(sql, cutoff);
+            logger.info("✅ Pruned {} outbox records", deleted);
+            return deleted;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error pruning outbox", e);
+            return 0;
+        }
+    }
+}
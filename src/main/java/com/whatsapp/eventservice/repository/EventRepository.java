@@ -10,10 +10,12 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +34,7 @@ public class EventRepository {
     private final RowMapper<Event> eventRowMapper = (rs, rowNum) -> {
         Event event = new Event();
         event.setId(rs.getLong("id"));
+        event.setExternalId(rs.getString("external_id"));
         event.setName(rs.getString("name"));
         event.setDescription(rs.getString("description"));
         event.setCategoryId(rs.getObject("category_id", Long.class));
@@ -103,6 +106,69 @@ public class EventRepository {
         }
     }
     
+    /**
+     * Insert or update a batch of events keyed on external_id, in one transaction
+     * 
+     * @return Number of events written
+     */
+    @Transactional
+    public int upsertBatch(List<Event> events) {
+        logger.info("💾 Upserting batch of {} events", events.size());
+        
+        String sql = """
+            INSERT INTO events (external_id, name, description, category_id, business_id, created_by, 
+                               start_time, end_time, location, city, image_url)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), 
+                                    category_id = VALUES(category_id), business_id = VALUES(business_id), 
+                                    created_by = VALUES(created_by), start_time = VALUES(start_time), 
+                                    end_time = VALUES(end_time), location = VALUES(location), 
+                                    city = VALUES(city), image_url = VALUES(image_url), 
+                                    updated_at = CURRENT_TIMESTAMP
+            """;
+        
+        try {
+            jdbcTemplate.batchUpdate(sql, events, events.size(), (ps, event) -> {
+                ps.setString(1, event.getExternalId());
+                ps.setString(2, event.getName());
+                ps.setString(3, event.getDescription());
+                ps.setObject(4, event.getCategoryId());
+                ps.setObject(5, event.getBusinessId());
+                ps.setObject(6, event.getCreatedBy());
+                ps.setObject(7, event.getStartTime());
+                ps.setObject(8, event.getEndTime());
+                ps.setString(9, event.getLocation());
+                ps.setString(10, event.getCity());
+                ps.setString(11, event.getImageUrl());
+            });
+            
+            return events.size();
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error upserting event batch", e);
+            throw new RuntimeException("Failed to upsert event batch", e);
+        }
+    }
+    
+    /**
+     * Find events by their external IDs, as written by an import
+     */
+    public List<Event> findByExternalIds(List<String> externalIds) {
+        if (externalIds.isEmpty()) {
+            return List.of();
+        }
+        
+        String sql = "SELECT * FROM events WHERE external_id IN ("
+            + String.join(", ", Collections.nCopies(externalIds.size(), "?")) + ")";
+        
+        try {
+            return jdbcTemplate.query(sql, eventRowMapper, externalIds.toArray());
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding {} events by external ID", externalIds.size(), e);
+            throw new RuntimeException("Failed to find events by external ID", e);
+        }
+    }
+    
     /**
      * Find event by ID
      */
@@ -243,6 +309,8 @@ public class EventRepository {
     
     /**
      * Find upcoming events (start time after now)
+     * 
+     * Throws on database errors, so the snapshot built from it can tell a failure from no events
      */
     public List<Event> findUpcomingEvents(LocalDateTime now) {
         logger.info("⏰ Finding upcoming events after: {}", now);
@@ -253,7 +321,7 @@ public class EventRepository {
             return jdbcTemplate.query(sql, eventRowMapper, now);
         } catch (DataAccessException e) {
             logger.error("❌ Error finding upcoming events", e);
-            return List.of();
+            throw new RuntimeException("Failed to find upcoming events", e);
         }
     }
     
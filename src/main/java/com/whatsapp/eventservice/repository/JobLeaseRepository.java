@@ -0,0 +1,109 @@
+package com.whatsapp.eventservice.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Background job lease repository using JDBC Template
+ * 
+ * One row per lease. A lease is taken with a single conditional UPDATE, so of several
+ * instances racing for it exactly one succeeds. Every change of owner increments the
+ * fencing token, and expiry is judged on the database clock like cluster heartbeats.
+ */
+@Repository
+public class JobLeaseRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobLeaseRepository.class);
+    
+    /**
+     * Condition that holds only while a lease is still held with the given fencing token;
+     * takes the lease name and token as parameters
+     */
+    public static final String FENCE_CONDITION = """
+        EXISTS (
+            SELECT 1 FROM job_lease l
+            WHERE l.lease_name = ? AND l.fencing_token = ? AND l.lease_until >= NOW(3)
+        )""";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Take a lease that is free or expired, or extend one this instance already holds
+     * 
+     * @return Fencing token of the lease, or empty if another instance holds it
+     */
+    public Optional<Long> tryAcquire(String leaseName, String instanceId, long leaseMs) {
+        String createSql = """
+            INSERT IGNORE INTO job_lease (lease_name, owner_instance, fencing_token, lease_until)
+            VALUES (?, NULL, 0, NOW(3))
+            """;
+        
+        // The token is assigned before the owner, so it still compares against the old owner
+        String acquireSql = """
+            UPDATE job_lease
+            SET fencing_token = IF(owner_instance <=> ?, fencing_token, fencing_token + 1),
+                owner_instance = ?,
+                lease_until = NOW(3) + INTERVAL ? MICROSECOND
+            WHERE lease_name = ? AND (owner_instance <=> ? OR lease_until < NOW(3))
+            """;
+        
+        try {
+            jdbcTemplate.update(createSql, leaseName);
+            int acquired = jdbcTemplate.update(acquireSql, instanceId, instanceId, leaseMs * 1000, leaseName, instanceId);
+            if (acquired == 0) {
+                return Optional.empty();
+            }
+            
+            List<Long> tokens = jdbcTemplate.queryForList(
+                "SELECT fencing_token FROM job_lease WHERE lease_name = ? AND owner_instance = ?",
+                Long.class, leaseName, instanceId);
+            return tokens.stream().findFirst();
+        } catch (DataAccessException e) {
+            logger.error("❌ Error acquiring job lease: {}", leaseName, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Extend a held lease, as long as nobody took it over in the meantime
+     * 
+     * @return False if the lease is no longer held with this token
+     */
+    public boolean renew(String leaseName, String instanceId, long fencingToken, long leaseMs) {
+        String sql = """
+            UPDATE job_lease SET lease_until = NOW(3) + INTERVAL ? MICROSECOND
+            WHERE lease_name = ? AND owner_instance = ? AND fencing_token = ? AND lease_until >= NOW(3)
+            """;
+        
+        try {
+            return jdbcTemplate.update(sql, leaseMs * 1000, leaseName, instanceId, fencingToken) > 0;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error renewing job lease: {}", leaseName, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Give up a held lease so another instance can take it right away
+     */
+    public void release(String leaseName, String instanceId, long fencingToken) {
+        String sql = """
+            UPDATE job_lease SET owner_instance = NULL, lease_until = NOW(3)
+            WHERE lease_name = ? AND owner_instance = ? AND fencing_token = ?
+            """;
+        
+        try {
+            jdbcTemplate.update(sql, leaseName, instanceId, fencingToken);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error releasing job lease: {}", leaseName, e);
+        }
+    }
+}
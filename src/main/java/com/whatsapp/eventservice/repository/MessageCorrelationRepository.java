@@ -0,0 +1,76 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.MessageCorrelation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Outbound message correlation repository using JDBC Template
+ */
+@Repository
+public class MessageCorrelationRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MessageCorrelationRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final RowMapper<MessageCorrelation> correlationRowMapper = (rs, rowNum) -> new MessageCorrelation(
+        rs.getString("wamid"),
+        rs.getObject("conversation_id") != null ? rs.getLong("conversation_id") : null,
+        rs.getObject("message_id") != null ? rs.getLong("message_id") : null,
+        rs.getString("campaign")
+    );
+    
+    /**
+     * Insert a batch of correlations in one round trip; a wamid that is already stored keeps its row
+     */
+    public void insertAll(List<MessageCorrelation> correlations) {
+        String sql = """
+            INSERT IGNORE INTO message_correlation (wamid, conversation_id, message_id, campaign)
+            VALUES (?, ?, ?, ?)
+            """;
+        
+        List<Object[]> batchArgs = new ArrayList<>(correlations.size());
+        for (MessageCorrelation correlation : correlations) {
+            batchArgs.add(new Object[]{
+                correlation.getWamid(),
+                correlation.getConversationId(),
+                correlation.getMessageId(),
+                correlation.getCampaign()
+            });
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(sql, batchArgs);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error writing {} message correlations", correlations.size(), e);
+            throw new RuntimeException("Failed to write message correlations", e);
+        }
+    }
+    
+    /**
+     * Find the correlation of an outbound message by its wamid
+     */
+    public Optional<MessageCorrelation> findByWamid(String wamid) {
+        String sql = "SELECT * FROM message_correlation WHERE wamid = ?";
+        
+        try {
+            List<MessageCorrelation> correlations = jdbcTemplate.query(sql, correlationRowMapper, wamid);
+            return correlations.isEmpty() ? Optional.empty() : Optional.of(correlations.get(0));
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding message correlation: {}", wamid, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.MessageDelivery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delivery state repository using JDBC Template
+ */
+@Repository
+public class MessageDeliveryRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MessageDeliveryRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Merge a batch of collapsed delivery records into the table in one round trip
+     * 
+     * The row keeps the highest state seen and the first time of each transition, so
+     * batches may be written in any order and a record may be flushed more than once.
+     */
+    public void upsertAll(List<MessageDelivery> deliveries) {
+        // state is assigned before state_rank; MySQL evaluates the assignments left to right
+        String sql = """
+            INSERT INTO message_delivery (wamid, recipient, send_type, campaign, state, state_rank,
+                                          sent_at, delivered_at, read_at, failed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                recipient = COALESCE(recipient, VALUES(recipient)),
+                send_type = COALESCE(send_type, VALUES(send_type)),
+                campaign = COALESCE(campaign, VALUES(campaign)),
+                state = IF(VALUES(state_rank) > state_rank, VALUES(state), state),
+                state_rank = GREATEST(state_rank, VALUES(state_rank)),
+                sent_at = LEAST(COALESCE(sent_at, VALUES(sent_at)), COALESCE(VALUES(sent_at), sent_at)),
+                delivered_at = LEAST(COALESCE(delivered_at, VALUES(delivered_at)), COALESCE(VALUES(delivered_at), delivered_at)),
+                read_at = LEAST(COALESCE(read_at, VALUES(read_at)), COALESCE(VALUES(read_at), read_at)),
+                failed_at = LEAST(COALESCE(failed_at, VALUES(failed_at)), COALESCE(VALUES(failed_at), failed_at))
+            """;
+        
+        List<Object[]> batchArgs = new ArrayList<>(deliveries.size());
+        for (MessageDelivery delivery : deliveries) {
+            batchArgs.add(new Object[]{
+                delivery.getWamid(),
+                delivery.getRecipient(),
+                delivery.getSendType(),
+                delivery.getCampaign(),
+                delivery.getState().toString(),
+                delivery.getState().rank(),
+                delivery.getSentAt(),
+                delivery.getDeliveredAt(),
+                delivery.getReadAt(),
+                delivery.getFailedAt()
+            });
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(sql, batchArgs);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error writing {} delivery states", deliveries.size(), e);
+            throw new RuntimeException("Failed to write delivery states", e);
+        }
+    }
+    
+    /**
+     * Delivery and read counts of messages first seen since the given time, per send type
+     * and campaign; the campaign recorded with the send's correlation takes precedence
+     */
+    public List<Map<String, Object>> findRatesSince(LocalDateTime since) {
+        String sql = """
+            SELECT COALESCE(d.send_type, 'unknown') AS send_type,
+                   COALESCE(c.campaign, d.campaign) AS campaign,
+                   COUNT(*) AS sent,
+                   SUM(d.state IN ('delivered', 'read')) AS delivered,
+                   SUM(d.state = 'read') AS read_count,
+                   SUM(d.state = 'failed') AS failed
+            FROM message_delivery d
+            LEFT JOIN message_correlation c ON c.wamid = d.wamid
+            WHERE d.first_seen_at >= ?
+            GROUP BY COALESCE(d.send_type, 'unknown'), COALESCE(c.campaign, d.campaign)
+            ORDER BY sent DESC
+            """;
+        
+        try {
+            return jdbcTemplate.queryForList(sql, since);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading delivery rates since: {}", since, e);
+            return List.of();
+        }
+    }
+}
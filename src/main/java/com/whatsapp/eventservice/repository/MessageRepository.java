@@ -140,6 +140,26 @@ public class MessageRepository {
         }
     }
     
+    /**
+     * Find the most recent messages of a conversation, returned oldest first
+     */
+    public List<Message> findRecentByConversationId(Long conversationId, int limit) {
+        logger.info("💬 Finding last {} messages for conversation: {}", limit, conversationId);
+        
+        String sql = """
+            SELECT * FROM (
+                SELECT * FROM messages WHERE conversation_id = ? ORDER BY created_at DESC, id DESC LIMIT ?
+            ) recent ORDER BY created_at ASC, id ASC
+            """;
+        
+        try {
+            return jdbcTemplate.query(sql, messageRowMapper, conversationId, limit);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding recent messages for conversation: {}", conversationId, e);
+            return List.of();
+        }
+    }
+    
     /**
      * Find user messages by conversation ID
      */
@@ -17,6 +17,7 @@ import java.sql.Statement;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Offer repository using JDBC Template
@@ -71,6 +72,24 @@ public class OfferRepository {
         }
     }
     
+    /**
+     * Find offer by ID
+     */
+    public Optional<Offer> findById(Long id) {
+        logger.info("🔍 Finding offer by ID: {}", id);
+        
+        String sql = "SELECT * FROM offers WHERE id = ?";
+        
+        try {
+            List<Offer> offers = jdbcTemplate.query(sql, offerRowMapper, id);
+            return offers.isEmpty() ? Optional.empty() : Optional.of(offers.get(0));
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding offer by ID: {}", id, e);
+            return Optional.empty();
+        }
+    }
+    
     /**
      * Save a new offer
      */
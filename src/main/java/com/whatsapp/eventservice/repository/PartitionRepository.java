@@ -0,0 +1,156 @@
+package com.whatsapp.eventservice.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly RANGE partition maintenance using JDBC Template
+ * 
+ * Partitions are named p_yyyyMM and bounded by the first instant of the following
+ * month; p_future holds everything after the last monthly partition.
+ */
+@Repository
+public class PartitionRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PartitionRepository.class);
+    
+    public static final String FUTURE_PARTITION = "p_future";
+    
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z0-9_]+");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Names of a table's partitions in bound order; empty if the table is not partitioned
+     */
+    public List<String> findPartitionNames(String table) {
+        String sql = """
+            SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+            ORDER BY PARTITION_ORDINAL_POSITION
+            """;
+        
+        try {
+            return jdbcTemplate.queryForList(sql, String.class, table);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error listing partitions of table: {}", table, e);
+            return List.of();
+        }
+    }
+    
+    /**
+     * Month of the oldest row by the partitioning time column; empty if the table has no rows
+     */
+    public Optional<YearMonth> findOldestMonth(String table, String timeColumn) {
+        String sql = "SELECT MIN(" + identifier(timeColumn) + ") FROM " + identifier(table);
+        
+        try {
+            Timestamp oldest = jdbcTemplate.queryForObject(sql, Timestamp.class);
+            return Optional.ofNullable(oldest).map(t -> YearMonth.from(t.toLocalDateTime()));
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading oldest row of table: {}", table, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Split p_future so the given month gets its own partition
+     */
+    public void addMonthlyPartition(String table, YearMonth month) {
+        String partition = partitionName(month);
+        logger.info("🧱 Adding partition {} to table: {}", partition, table);
+        
+        String sql = "ALTER TABLE " + identifier(table) + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+            + "PARTITION " + partition + " VALUES LESS THAN (UNIX_TIMESTAMP('" + month.plusMonths(1).atDay(1) + " 00:00:00')), "
+            + "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)";
+        
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error adding partition {} to table: {}", partition, table, e);
+            throw new RuntimeException("Failed to add partition " + partition + " to " + table, e);
+        }
+    }
+    
+    /**
+     * Count the rows held in one partition
+     */
+    public long countRows(String table, String partition) {
+        String sql = "SELECT COUNT(*) FROM " + identifier(table) + " PARTITION (" + identifier(partition) + ")";
+        
+        try {
+            Long count = jdbcTemplate.queryForObject(sql, Long.class);
+            return count != null ? count : 0;
+        } catch (DataAccessException e) {
+            logger.error("❌ Error counting rows of partition {} in table: {}", partition, table, e);
+            throw new RuntimeException("Failed to count rows of partition " + partition, e);
+        }
+    }
+    
+    /**
+     * Read one page of a partition in id order, starting after the given id
+     */
+    public void readPage(String table, String partition, long afterId, int limit, RowCallbackHandler handler) {
+        String sql = "SELECT * FROM " + identifier(table) + " PARTITION (" + identifier(partition) + ")"
+            + " WHERE id > ? ORDER BY id ASC LIMIT ?";
+        
+        try {
+            jdbcTemplate.query(sql, handler, afterId, limit);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading partition {} of table: {}", partition, table, e);
+            throw new RuntimeException("Failed to read partition " + partition, e);
+        }
+    }
+    
+    /**
+     * Drop a partition and the rows it holds
+     */
+    public void dropPartition(String table, String partition) {
+        logger.info("🗑️ Dropping partition {} of table: {}", partition, table);
+        
+        String sql = "ALTER TABLE " + identifier(table) + " DROP PARTITION " + identifier(partition);
+        
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error dropping partition {} of table: {}", partition, table, e);
+            throw new RuntimeException("Failed to drop partition " + partition, e);
+        }
+    }
+    
+    public static String partitionName(YearMonth month) {
+        return "p_" + month.format(PARTITION_MONTH);
+    }
+    
+    /**
+     * Month of a p_yyyyMM partition, or null for p_future and foreign names
+     */
+    public static YearMonth monthOf(String partition) {
+        if (partition == null || !partition.matches("p_\\d{6}")) {
+            return null;
+        }
+        return YearMonth.parse(partition.substring(2), PARTITION_MONTH);
+    }
+    
+    // Table and partition names cannot be bound as parameters
+    private static String identifier(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid identifier: " + name);
+        }
+        return name;
+    }
+}
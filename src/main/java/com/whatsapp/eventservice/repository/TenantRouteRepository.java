@@ -0,0 +1,58 @@
+package com.whatsapp.eventservice.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tenant route repository using JDBC Template
+ * 
+ * Remembers, per user phone number, the business phone number id the user last wrote
+ * to, so replies keep going out through that number across restarts and instances.
+ */
+@Repository
+public class TenantRouteRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TenantRouteRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Phone number id a user last wrote to
+     */
+    public Optional<String> findPhoneNumberId(String phoneNumber) {
+        try {
+            List<String> ids = jdbcTemplate.queryForList(
+                "SELECT phone_number_id FROM tenant_route WHERE phone_number = ?", String.class, phoneNumber);
+            return ids.stream().findFirst();
+        } catch (DataAccessException e) {
+            logger.error("❌ Error reading tenant route for: {}", phoneNumber, e);
+            return Optional.empty();
+        }
+    }
+    
+    /**
+     * Record the phone number id a user wrote to
+     */
+    public void save(String phoneNumber, String phoneNumberId) {
+        String sql = """
+            INSERT INTO tenant_route (phone_number, phone_number_id, updated_at)
+            VALUES (?, ?, CURRENT_TIMESTAMP)
+            ON DUPLICATE KEY UPDATE phone_number_id = VALUES(phone_number_id), updated_at = CURRENT_TIMESTAMP
+            """;
+        
+        try {
+            jdbcTemplate.update(sql, phoneNumber, phoneNumberId);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error saving tenant route for: {}", phoneNumber, e);
+            throw new RuntimeException("Failed to save tenant route", e);
+        }
+    }
+}
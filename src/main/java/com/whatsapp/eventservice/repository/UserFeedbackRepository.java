@@ -0,0 +1,110 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.SuggestedItem;
+import com.whatsapp.eventservice.model.UserFeedback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * UserFeedback repository using JDBC Template
+ */
+@Repository
+@Transactional
+public class UserFeedbackRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserFeedbackRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final RowMapper<UserFeedback> feedbackRowMapper = (rs, rowNum) -> {
+        UserFeedback feedback = new UserFeedback();
+        feedback.setId(rs.getLong("id"));
+        feedback.setUserId(rs.getLong("user_id"));
+        feedback.setSuggestionId(rs.getLong("suggestion_id"));
+        
+        String suggestionType = rs.getString("suggestion_type");
+        if (suggestionType != null) {
+            feedback.setSuggestionType(SuggestedItem.ItemType.valueOf(suggestionType.toLowerCase()));
+        }
+        
+        String feedbackType = rs.getString("feedback_type");
+        if (feedbackType != null) {
+            feedback.setFeedbackType(UserFeedback.FeedbackType.valueOf(feedbackType.toLowerCase()));
+        }
+        
+        feedback.setFeedbackText(rs.getString("feedback_text"));
+        
+        if (rs.getTimestamp("created_at") != null) {
+            feedback.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        }
+        
+        return feedback;
+    };
+    
+    /**
+     * Save a new feedback record
+     */
+    public UserFeedback save(UserFeedback feedback) {
+        logger.info("💾 Saving feedback from user: {} on {} {}",
+                   feedback.getUserId(), feedback.getSuggestionType(), feedback.getSuggestionId());
+        
+        String sql = """
+            INSERT INTO user_feedback (suggestion_type, suggestion_id, user_id, feedback_type, feedback_text, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+        
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, feedback.getSuggestionType().toString());
+                ps.setLong(2, feedback.getSuggestionId());
+                ps.setLong(3, feedback.getUserId());
+                ps.setString(4, feedback.getFeedbackType().toString());
+                ps.setString(5, feedback.getFeedbackText());
+                ps.setObject(6, feedback.getCreatedAt());
+                return ps;
+            }, keyHolder);
+            
+            Long generatedId = keyHolder.getKey().longValue();
+            feedback.setId(generatedId);
+            
+            logger.info("✅ Feedback saved successfully with ID: {}", generatedId);
+            return feedback;
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error saving feedback", e);
+            throw new RuntimeException("Failed to save feedback", e);
+        }
+    }
+    
+    /**
+     * Find feedback by user ID, newest first
+     */
+    public List<UserFeedback> findByUserId(Long userId, int limit) {
+        logger.info("👤 Finding feedback for user: {}", userId);
+        
+        String sql = "SELECT * FROM user_feedback WHERE user_id = ? ORDER BY created_at DESC LIMIT ?";
+        
+        try {
+            return jdbcTemplate.query(sql, feedbackRowMapper, userId, limit);
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding feedback for user: {}", userId, e);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.whatsapp.eventservice.repository;
+
+import com.whatsapp.eventservice.model.UserInterestProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * UserInterest repository using JDBC Template
+ * 
+ * Only category-level interests are read here; tag and location rows are ignored.
+ */
+@Repository
+@Transactional
+public class UserInterestRepository {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserInterestRepository.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Load the category interest profile for a user
+     */
+    public UserInterestProfile findProfileByUserId(Long userId) {
+        logger.info("🔍 Loading interest profile for user: {}", userId);
+        
+        String sql = """
+            SELECT category_id, MAX(interest_weight) AS weight
+            FROM user_interest
+            WHERE user_id = ? AND category_id IS NOT NULL AND tag_id IS NULL AND location IS NULL
+            GROUP BY category_id
+            """;
+        
+        try {
+            // Fill primitive arrays directly instead of materialising a List<Map>
+            ProfileRowHandler handler = new ProfileRowHandler();
+            jdbcTemplate.query(sql, handler, userId);
+            
+            return UserInterestProfile.of(userId,
+                Arrays.copyOf(handler.categoryIds, handler.count),
+                Arrays.copyOf(handler.weights, handler.count));
+                
+        } catch (DataAccessException e) {
+            logger.error("❌ Error loading interest profile for user: {}", userId, e);
+            return UserInterestProfile.empty(userId);
+        }
+    }
+    
+    /**
+     * Adjust the category weight for a user by delta, inserting the row if it does not exist yet.
+     * The increment is applied in SQL, as one upsert on the (user_id, category_scope) unique
+     * key, so concurrent updates neither overwrite each other nor insert duplicate rows.
+     */
+    public void incrementCategoryWeight(Long userId, Long categoryId, float delta) {
+        logger.info("✏️ Adjusting interest weight for user: {}, category: {} by {}", userId, categoryId, delta);
+        
+        String sql = """
+            INSERT INTO user_interest (user_id, category_id, interest_weight, last_updated)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                interest_weight = LEAST(GREATEST(interest_weight + ?, ?), ?),
+                last_updated = VALUES(last_updated)
+            """;
+        
+        try {
+            float initial = UserInterestProfile.clamp(UserInterestProfile.NEUTRAL_WEIGHT + delta);
+            jdbcTemplate.update(sql, userId, categoryId, initial, LocalDateTime.now(),
+                delta, UserInterestProfile.MIN_WEIGHT, UserInterestProfile.MAX_WEIGHT);
+            
+        } catch (DataAccessException e) {
+            logger.error("❌ Error updating interest weight", e);
+            throw new RuntimeException("Failed to update user interest", e);
+        }
+    }
+    
+    /**
+     * Accumulates (category_id, weight) rows into growable primitive arrays
+     */
+    private static final class ProfileRowHandler implements RowCallbackHandler {
+        
+        private long[] categoryIds = new long[8];
+        private float[] weights = new float[8];
+        private int count;
+        
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (count == categoryIds.length) {
+                categoryIds = Arrays.copyOf(categoryIds, count * 2);
+                weights = Arrays.copyOf(weights, count * 2);
+            }
+            categoryIds[count] = rs.getLong("category_id");
+            weights[count] = rs.getFloat("weight");
+            count++;
+        }
+    }
+}
@@ -15,7 +15,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -119,6 +124,28 @@ public class UserRepository {
         }
     }
     
+    /**
+     * Phone numbers of the given users, by user ID; unknown IDs are left out
+     */
+    public Map<Long, String> findPhoneNumbersByIds(Collection<Long> ids) {
+        Map<Long, String> phoneNumbers = new HashMap<>();
+        List<Long> remaining = new ArrayList<>(ids);
+        
+        try {
+            for (int from = 0; from < remaining.size(); from += 1000) {
+                List<Long> chunk = remaining.subList(from, Math.min(from + 1000, remaining.size()));
+                String sql = "SELECT id, phone_number FROM users WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                jdbcTemplate.query(sql, rs -> {
+                    phoneNumbers.put(rs.getLong("id"), rs.getString("phone_number"));
+                }, chunk.toArray());
+            }
+        } catch (DataAccessException e) {
+            logger.error("❌ Error finding phone numbers of {} users", ids.size(), e);
+        }
+        return phoneNumbers;
+    }
+    
     /**
      * Find all users
      */
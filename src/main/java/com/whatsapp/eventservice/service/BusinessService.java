@@ -1,6 +1,7 @@
 package com.whatsapp.eventservice.service;
 
 import com.whatsapp.eventservice.model.Business;
+import com.whatsapp.eventservice.model.EntityChange;
 import com.whatsapp.eventservice.repository.BusinessRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +24,9 @@ public class BusinessService {
     @Autowired
     private BusinessRepository businessRepository;
     
+    @Autowired
+    private EntityChangePublisher entityChangePublisher;
+    
     /**
      * Get all businesses - matches OpenAPI spec
      */
@@ -35,6 +39,18 @@ public class BusinessService {
         return businesses;
     }
     
+    /**
+     * Get business by ID
+     * 
+     * @param id Business ID
+     * @return Business entity or null if not found
+     */
+    public Business getBusinessById(Long id) {
+        logger.info("🔍 Getting business by ID: {}", id);
+        
+        return businessRepository.findById(id).orElse(null);
+    }
+    
     /**
      * Create a new business - matches OpenAPI spec
      */
@@ -45,6 +61,8 @@ public class BusinessService {
         business.setUpdatedAt(LocalDateTime.now());
         
         Business createdBusiness = businessRepository.save(business);
+        entityChangePublisher.publish(EntityChange.EntityType.business, createdBusiness.getId(),
+                                      EntityChange.ChangeType.created, createdBusiness);
         
         logger.info("✅ Business created successfully with ID: {}", createdBusiness.getId());
         return createdBusiness;
@@ -0,0 +1,268 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.Business;
+import com.whatsapp.eventservice.model.Event;
+import com.whatsapp.eventservice.model.Offer;
+import com.whatsapp.eventservice.model.SuggestedItem;
+import com.whatsapp.eventservice.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes button and list-row taps to their handlers
+ * 
+ * A tap carries everything needed to answer it in its id. Ids for an item are
+ * entity:itemId:verb, e.g. evt:123:more, with evt, biz and ofr for events, businesses
+ * and offers; ids without a colon, such as help, are global actions. Handlers are
+ * registered once at startup in a table keyed by entity and verb, so a tap is one
+ * parse and one map lookup, and the item is read from the upcoming events snapshot
+ * or the database rather than going back through LLM intent parsing.
+ */
+@Service
+public class ButtonActionRouter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ButtonActionRouter.class);
+    
+    public static final String MORE = "more";
+    public static final String LIKE = "like";
+    public static final String SKIP = "skip";
+    public static final String GOING = "going";
+    
+    private static final String UNAVAILABLE_REPLY = "Sorry, that suggestion is no longer available. Ask me again and I'll find you something new!";
+    
+    /**
+     * Handler for an action on an item
+     */
+    @FunctionalInterface
+    interface ItemHandler {
+        String handle(User user, Long itemId);
+    }
+    
+    /**
+     * Handler for a global action
+     */
+    @FunctionalInterface
+    interface GlobalHandler {
+        String handle(User user);
+    }
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private BusinessService businessService;
+    
+    @Autowired
+    private OfferService offerService;
+    
+    @Autowired
+    private UpcomingEventsSnapshot upcomingEventsSnapshot;
+    
+    @Autowired
+    private ConversationOrchestrationService orchestrationService;
+    
+    @Autowired
+    private UserService userService;
+    
+    // Built once at startup and only read afterwards
+    private final Map<String, ItemHandler> itemHandlers = new HashMap<>();
+    private final Map<String, GlobalHandler> globalHandlers = new HashMap<>();
+    
+    @PostConstruct
+    public void buildDispatchTable() {
+        itemHandlers.put(key(SuggestedItem.ItemType.event, MORE), (user, id) -> describeEvent(id));
+        itemHandlers.put(key(SuggestedItem.ItemType.event, LIKE), (user, id) -> feedback(user, SuggestedItem.ItemType.event, id, "interested",
+            "Great! I'll prioritize events like this one for you. Tap \"More\" on any event to see its details."));
+        itemHandlers.put(key(SuggestedItem.ItemType.event, SKIP), (user, id) -> feedback(user, SuggestedItem.ItemType.event, id, "not_useful",
+            "No problem! I'll show you fewer events like this one. What would you prefer to see?"));
+        itemHandlers.put(key(SuggestedItem.ItemType.event, GOING), (user, id) -> feedback(user, SuggestedItem.ItemType.event, id, "attending",
+            "Have a great time! 🎉 I'll suggest similar events in the future."));
+        
+        itemHandlers.put(key(SuggestedItem.ItemType.business, MORE), (user, id) -> describeBusiness(id));
+        itemHandlers.put(key(SuggestedItem.ItemType.business, LIKE), (user, id) -> feedback(user, SuggestedItem.ItemType.business, id, "interested",
+            "Great! I'll suggest more places like this one."));
+        itemHandlers.put(key(SuggestedItem.ItemType.business, SKIP), (user, id) -> feedback(user, SuggestedItem.ItemType.business, id, "not_useful",
+            "Got it, I'll show you fewer places like this one."));
+        
+        itemHandlers.put(key(SuggestedItem.ItemType.offer, MORE), (user, id) -> describeOffer(id));
+        itemHandlers.put(key(SuggestedItem.ItemType.offer, LIKE), (user, id) -> feedback(user, SuggestedItem.ItemType.offer, id, "interested",
+            "Great! I'll let you know about more deals like this one."));
+        itemHandlers.put(key(SuggestedItem.ItemType.offer, SKIP), (user, id) -> feedback(user, SuggestedItem.ItemType.offer, id, "not_useful",
+            "Got it, I'll show you fewer deals like this one."));
+        
+        globalHandlers.put("interested", user -> {
+            userService.saveUserPreference(user.getId(), "interest_level", "high", "user");
+            return "Great! I'll prioritize similar events for you. What type of events are you most interested in?";
+        });
+        globalHandlers.put("not_interested", user -> {
+            userService.saveUserPreference(user.getId(), "interest_level", "low", "user");
+            return "No problem! I'll adjust my recommendations. What events would you prefer to see?";
+        });
+        globalHandlers.put("more_info", user ->
+            "For more information about events, you can ask me specific questions like 'Tell me more about concerts this weekend' or 'What's happening at the downtown venue?'");
+        globalHandlers.put("change_preferences", user ->
+            "You can tell me your preferences like 'I like music events' or 'Show me family-friendly activities'. What would you like to see?");
+        globalHandlers.put("browse_events", user ->
+            "You can browse events by asking me questions like:\n• 'What music events are this weekend?'\n• 'Show me family-friendly activities'\n• 'Any free events today?'");
+        globalHandlers.put("set_preferences", user ->
+            "You can set your preferences by telling me what you like:\n• 'I like music events'\n• 'Show me family-friendly activities'\n• 'I prefer free events'");
+        
+        logger.info("🔘 Button action table built with {} item and {} global actions", itemHandlers.size(), globalHandlers.size());
+    }
+    
+    /**
+     * Id of a button or list row for an action on an item, e.g. evt:123:more
+     */
+    public static String actionId(SuggestedItem.ItemType type, Long itemId, String verb) {
+        return code(type) + ":" + itemId + ":" + verb;
+    }
+    
+    /**
+     * Answer a tap
+     * 
+     * @param user User who tapped
+     * @param actionId Button or list-row id
+     * @return Response message, or null if no handler matches the id
+     */
+    public String route(User user, String actionId) {
+        int first = actionId.indexOf(':');
+        if (first < 0) {
+            GlobalHandler handler = globalHandlers.get(actionId);
+            return handler != null ? handler.handle(user) : null;
+        }
+        
+        int second = actionId.indexOf(':', first + 1);
+        SuggestedItem.ItemType type = typeOf(actionId.substring(0, first));
+        // Rows sent as type:itemId before verbs were encoded open the item's details
+        String verb = second < 0 ? MORE : actionId.substring(second + 1);
+        ItemHandler handler = type != null ? itemHandlers.get(key(type, verb)) : null;
+        if (handler == null) {
+            logger.warn("⚠️ No handler for button action {}", actionId);
+            return null;
+        }
+        
+        Long itemId;
+        try {
+            itemId = Long.valueOf(actionId.substring(first + 1, second < 0 ? actionId.length() : second));
+        } catch (NumberFormatException e) {
+            logger.warn("⚠️ Malformed item id in button action {}", actionId);
+            return null;
+        }
+        return handler.handle(user, itemId);
+    }
+    
+    private String feedback(User user, SuggestedItem.ItemType type, Long itemId, String feedbackType, String reply) {
+        orchestrationService.processUserFeedback(user.getId(), type.name(), itemId, feedbackType);
+        return reply;
+    }
+    
+    private String describeEvent(Long eventId) {
+        Event event = upcomingEventsSnapshot.findById(eventId).orElseGet(() -> eventService.getEventById(eventId));
+        if (event == null) {
+            return UNAVAILABLE_REPLY;
+        }
+        
+        StringBuilder response = new StringBuilder();
+        response.append("🎉 ").append(event.getName()).append("\n");
+        if (event.getStartTime() != null) {
+            response.append("📅 ").append(event.getStartTime().toString().substring(0, 16)).append("\n");
+        }
+        if (event.getLocation() != null) {
+            response.append("📍 ").append(event.getLocation());
+            if (event.getCity() != null) {
+                response.append(", ").append(event.getCity());
+            }
+            response.append("\n");
+        }
+        appendDescription(response, event.getDescription());
+        return response.toString().trim();
+    }
+    
+    private String describeBusiness(Long businessId) {
+        Business business = businessService.getBusinessById(businessId);
+        if (business == null) {
+            return UNAVAILABLE_REPLY;
+        }
+        
+        StringBuilder response = new StringBuilder();
+        response.append("🏢 ").append(business.getName()).append("\n");
+        if (business.getAddress() != null) {
+            response.append("📍 ").append(business.getAddress());
+            if (business.getCity() != null) {
+                response.append(", ").append(business.getCity());
+            }
+            response.append("\n");
+        }
+        if (business.getPhoneNumber() != null) {
+            response.append("📞 ").append(business.getPhoneNumber()).append("\n");
+        }
+        if (business.getWebsiteUrl() != null) {
+            response.append("🔗 ").append(business.getWebsiteUrl()).append("\n");
+        }
+        appendDescription(response, business.getDescription());
+        return response.toString().trim();
+    }
+    
+    private String describeOffer(Long offerId) {
+        Offer offer = offerService.getOfferById(offerId);
+        if (offer == null) {
+            return UNAVAILABLE_REPLY;
+        }
+        
+        StringBuilder response = new StringBuilder();
+        response.append("🏷️ ").append(offer.getTitle()).append("\n");
+        if (offer.getDiscountCode() != null) {
+            response.append("🎟️ Code: ").append(offer.getDiscountCode()).append("\n");
+        }
+        if (offer.getEndDate() != null) {
+            response.append("⏳ Valid until ").append(offer.getEndDate()).append("\n");
+        }
+        appendDescription(response, offer.getDescription());
+        return response.toString().trim();
+    }
+    
+    private void appendDescription(StringBuilder response, String description) {
+        if (description != null && !description.isEmpty()) {
+            response.append("📝 ").append(description).append("\n");
+        }
+    }
+    
+    private static String key(SuggestedItem.ItemType type, String verb) {
+        return type.name() + ":" + verb;
+    }
+    
+    private static String code(SuggestedItem.ItemType type) {
+        switch (type) {
+            case event:
+                return "evt";
+            case business:
+                return "biz";
+            case offer:
+                return "ofr";
+            default:
+                return type.name();
+        }
+    }
+    
+    private static SuggestedItem.ItemType typeOf(String code) {
+        switch (code) {
+            case "evt":
+            case "event":
+                return SuggestedItem.ItemType.event;
+            case "biz":
+            case "business":
+                return SuggestedItem.ItemType.business;
+            case "ofr":
+            case "offer":
+                return SuggestedItem.ItemType.offer;
+            default:
+                return null;
+        }
+    }
+}
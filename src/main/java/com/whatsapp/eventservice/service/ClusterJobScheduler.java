@@ -0,0 +1,300 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ClusterConfig;
+import com.whatsapp.eventservice.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs cluster-wide background jobs on exactly one instance
+ * 
+ * The @Scheduled methods still fire on every instance; they hand their work to this
+ * scheduler, which runs it only where the job's lease in the job_lease table is held.
+ * An instance that wins a lease keeps it and renews it from its own thread, so a job
+ * stays with one leader until that instance stops or stalls past the lease, and then
+ * the next instance to fire takes it over. Each change of owner increments the
+ * lease's fencing token; jobs check the lease between batches, and writes can carry
+ * the token so a leader that lost its lease mid-run cannot write anymore. Partitioned
+ * jobs take one lease per partition, and each instance holds at most its fair share
+ * of the live members. Outside cluster mode every job simply runs locally.
+ */
+@Service
+public class ClusterJobScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobScheduler.class);
+    
+    @Autowired
+    private ClusterConfig clusterConfig;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Lease name -> lease held by this instance
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    
+    private ScheduledExecutorService renewer;
+    
+    /**
+     * A job lease held by this instance for one run
+     */
+    public static final class Lease {
+        
+        private final String jobName;
+        private final int partition;
+        private final int partitions;
+        private final String leaseName;
+        private final long fencingToken;
+        private volatile boolean held = true;
+        
+        private Lease(String jobName, int partition, int partitions, String leaseName, long fencingToken) {
+            this.jobName = jobName;
+            this.partition = partition;
+            this.partitions = partitions;
+            this.leaseName = leaseName;
+            this.fencingToken = fencingToken;
+        }
+        
+        public String getJobName() {
+            return jobName;
+        }
+        
+        public int getPartition() {
+            return partition;
+        }
+        
+        public int getPartitions() {
+            return partitions;
+        }
+        
+        /**
+         * Name of the lease row to fence writes on; null outside cluster mode
+         */
+        public String getLeaseName() {
+            return leaseName;
+        }
+        
+        public long getFencingToken() {
+            return fencingToken;
+        }
+        
+        /**
+         * False once the lease was lost; the job should stop at the next batch
+         */
+        public boolean isHeld() {
+            return held;
+        }
+    }
+    
+    @PostConstruct
+    public void startRenewer() {
+        long periodMs = Math.max(1000, clusterConfig.getJobLeaseMs() / 3);
+        renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewer.scheduleWithFixedDelay(this::renewLeases, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        meterRegistry.gauge("jobs.leases", Tags.empty(), held, Map::size);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+        for (Lease lease : new ArrayList<>(held.values())) {
+            release(lease);
+        }
+    }
+    
+    /**
+     * Run a job if this instance holds, or can take, its lease
+     * 
+     * @return False if another instance is the job's leader
+     */
+    public boolean runExclusive(String jobName, Consumer<Lease> job) {
+        Lease lease = acquire(jobName, 0, 1, jobName);
+        if (lease == null) {
+            logger.debug("⏭️ Skipping job {}, leased by another instance", jobName);
+            return false;
+        }
+        
+        run(lease, job);
+        return true;
+    }
+    
+    /**
+     * Run the partitions of a job this instance holds, taking free ones up to its fair share
+     * 
+     * @return Number of partitions run here
+     */
+    public int runPartitioned(String jobName, int partitions, Consumer<Lease> job) {
+        List<Lease> leases = acquireShare(jobName, partitions);
+        for (Lease lease : leases) {
+            if (lease.isHeld()) {
+                run(lease, job);
+            }
+        }
+        return leases.size();
+    }
+    
+    /**
+     * Leases held by this instance, for the status endpoint
+     */
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (Lease lease : held.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("lease", lease.leaseName);
+            entry.put("fencing_token", lease.fencingToken);
+            status.add(entry);
+        }
+        return status;
+    }
+    
+    private List<Lease> acquireShare(String jobName, int partitions) {
+        List<Lease> leases = new ArrayList<>();
+        if (!clusterConfig.isEnabled()) {
+            for (int partition = 0; partition < partitions; partition++) {
+                leases.add(acquire(jobName, partition, partitions, null));
+            }
+            return leases;
+        }
+        
+        int members = Math.max(1, clusterMembership.getMemberCount());
+        int share = (partitions + members - 1) / members;
+        
+        // Keep the partitions already held, so ownership is stable between runs; give back any beyond the share
+        boolean[] taken = new boolean[partitions];
+        for (int partition = 0; partition < partitions; partition++) {
+            Lease current = held.get(leaseName(jobName, partition));
+            if (current == null) {
+                continue;
+            }
+            if (leases.size() >= share) {
+                release(current);
+                continue;
+            }
+            Lease lease = acquire(jobName, partition, partitions, current.leaseName);
+            if (lease != null) {
+                leases.add(lease);
+                taken[partition] = true;
+            }
+        }
+        
+        // Start from an instance-specific offset so instances do not all race for partition 0
+        int offset = Math.floorMod(clusterMembership.getInstanceId().hashCode(), partitions);
+        for (int i = 0; i < partitions && leases.size() < share; i++) {
+            int partition = (offset + i) % partitions;
+            if (!taken[partition]) {
+                Lease lease = acquire(jobName, partition, partitions, leaseName(jobName, partition));
+                if (lease != null) {
+                    leases.add(lease);
+                }
+            }
+        }
+        return leases;
+    }
+    
+    /**
+     * Take or extend a lease; without a lease name (cluster mode off) the lease is local
+     */
+    private Lease acquire(String jobName, int partition, int partitions, String leaseName) {
+        if (!clusterConfig.isEnabled()) {
+            return new Lease(jobName, partition, partitions, null, 0);
+        }
+        
+        Optional<Long> fencingToken = jobLeaseRepository.tryAcquire(
+            leaseName, clusterMembership.getInstanceId(), clusterConfig.getJobLeaseMs());
+        Lease current = held.get(leaseName);
+        
+        if (fencingToken.isEmpty()) {
+            if (current != null) {
+                lost(current);
+            }
+            return null;
+        }
+        
+        if (current != null && current.isHeld() && current.fencingToken == fencingToken.get()) {
+            return current;
+        }
+        
+        Lease lease = new Lease(jobName, partition, partitions, leaseName, fencingToken.get());
+        Lease previous = held.put(leaseName, lease);
+        if (previous != null) {
+            previous.held = false;
+        }
+        logger.info("👑 Took lease {} with fencing token {}", leaseName, lease.fencingToken);
+        return lease;
+    }
+    
+    private void run(Lease lease, Consumer<Lease> job) {
+        long started = System.currentTimeMillis();
+        try {
+            job.accept(lease);
+        } catch (Exception e) {
+            logger.error("❌ Job {} failed on partition {}", lease.jobName, lease.partition, e);
+        } finally {
+            meterRegistry.timer("jobs.run", "job", lease.jobName)
+                .record(System.currentTimeMillis() - started, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Extend every held lease; runs on its own thread so a long job cannot starve it
+     */
+    private void renewLeases() {
+        for (Lease lease : held.values()) {
+            try {
+                boolean renewed = jobLeaseRepository.renew(
+                    lease.leaseName, clusterMembership.getInstanceId(), lease.fencingToken, clusterConfig.getJobLeaseMs());
+                if (!renewed) {
+                    lost(lease);
+                }
+            } catch (Exception e) {
+                logger.error("❌ Error renewing lease {}", lease.leaseName, e);
+            }
+        }
+    }
+    
+    private void lost(Lease lease) {
+        lease.held = false;
+        if (held.remove(lease.leaseName, lease)) {
+            logger.warn("⚠️ Lost lease {} (fencing token {})", lease.leaseName, lease.fencingToken);
+            meterRegistry.counter("jobs.lease_lost", "job", lease.jobName).increment();
+        }
+    }
+    
+    private void release(Lease lease) {
+        lease.held = false;
+        if (held.remove(lease.leaseName, lease)) {
+            jobLeaseRepository.release(lease.leaseName, clusterMembership.getInstanceId(), lease.fencingToken);
+            logger.info("🤝 Released lease {}", lease.leaseName);
+        }
+    }
+    
+    private static String leaseName(String jobName, int partition) {
+        return jobName + "#" + partition;
+    }
+}
@@ -0,0 +1,235 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ClusterConfig;
+import com.whatsapp.eventservice.model.ClusterMember;
+import com.whatsapp.eventservice.model.ClusterRingChange;
+import com.whatsapp.eventservice.repository.ClusterMemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Cluster membership and user affinity across instances
+ * 
+ * Instances find each other through the cluster_member table only: each one renews a
+ * heartbeat row on a fixed delay and reads back the members whose heartbeat is within
+ * the timeout. Users are owned by consistent hashing of their phone number onto a ring
+ * of the live members, each placed at several virtual nodes, so a member joining or
+ * leaving moves only its share of users. The owner handles all of a user's messages,
+ * which keeps per-user state and caches on one instance; a ring change is published so
+ * the state of users that moved away can be dropped. Disabled, every user is local.
+ */
+@Service
+public class ClusterMembership {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMembership.class);
+    
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    });
+    
+    @Autowired
+    private ClusterConfig clusterConfig;
+    
+    @Autowired
+    private ClusterMemberRepository clusterMemberRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    private final String instanceId = UUID.randomUUID().toString();
+    private ClusterMember self;
+    private volatile Ring ring;
+    
+    /**
+     * Immutable hash ring over a set of members
+     */
+    private static final class Ring {
+        
+        private final List<ClusterMember> members;
+        private final NavigableMap<Long, ClusterMember> nodes;
+        
+        private Ring(List<ClusterMember> members, int virtualNodes) {
+            this.members = List.copyOf(members);
+            this.nodes = new TreeMap<>();
+            for (ClusterMember member : members) {
+                for (int i = 0; i < virtualNodes; i++) {
+                    nodes.put(hash(member.getInstanceId() + "#" + i), member);
+                }
+            }
+        }
+        
+        ClusterMember ownerOf(String key) {
+            Map.Entry<Long, ClusterMember> node = nodes.ceilingEntry(hash(key));
+            return node != null ? node.getValue() : nodes.firstEntry().getValue();
+        }
+    }
+    
+    @PostConstruct
+    public void initMembership() {
+        self = new ClusterMember(instanceId, advertisedUrl(), LocalDateTime.now());
+        ring = new Ring(List.of(self), clusterConfig.getVirtualNodes());
+        meterRegistry.gauge("cluster.members", Tags.empty(), this, membership -> membership.ring.members.size());
+        if (clusterConfig.isEnabled()) {
+            logger.info("🕸️ Cluster mode enabled, instance {} at {}", instanceId, self.getBaseUrl());
+        }
+    }
+    
+    @PreDestroy
+    public void leave() {
+        if (clusterConfig.isEnabled()) {
+            clusterMemberRepository.remove(instanceId);
+        }
+    }
+    
+    /**
+     * Renew this instance's heartbeat and rebuild the ring when membership changed
+     */
+    @Scheduled(fixedDelayString = "${cluster.heartbeat-interval-ms:2000}")
+    public void heartbeat() {
+        if (!clusterConfig.isEnabled()) {
+            return;
+        }
+        
+        try {
+            clusterMemberRepository.heartbeat(instanceId, self.getBaseUrl());
+        } catch (Exception e) {
+            // Keep the current ring; the others will drop this instance if this persists
+            logger.warn("⚠️ Cluster heartbeat failed: {}", e.getMessage());
+            return;
+        }
+        
+        List<ClusterMember> live;
+        try {
+            live = new ArrayList<>(clusterMemberRepository.findLive(clusterConfig.getMemberTimeoutMs()));
+        } catch (Exception e) {
+            // Same as a failed heartbeat: a ring of just this instance would claim every user
+            logger.warn("⚠️ Could not read cluster members, keeping the current ring: {}", e.getMessage());
+            return;
+        }
+        if (live.stream().noneMatch(member -> member.getInstanceId().equals(instanceId))) {
+            live.add(self);
+        }
+        
+        if (!sameMembers(ring.members, live)) {
+            ring = new Ring(live, clusterConfig.getVirtualNodes());
+            logger.info("🕸️ Cluster membership changed, now {} members: {}", live.size(),
+                       live.stream().map(ClusterMember::getInstanceId).toList());
+            applicationEventPublisher.publishEvent(new ClusterRingChange(live));
+        }
+    }
+    
+    /**
+     * Drop rows of instances that disappeared without deregistering
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void pruneMembers() {
+        if (clusterConfig.isEnabled()) {
+            clusterMemberRepository.deleteExpired(24);
+        }
+    }
+    
+    public boolean isEnabled() {
+        return clusterConfig.isEnabled();
+    }
+    
+    /**
+     * Member owning a user
+     * 
+     * @param phoneNumber User's phone number
+     */
+    public ClusterMember ownerOf(String phoneNumber) {
+        if (!clusterConfig.isEnabled() || phoneNumber == null) {
+            return self;
+        }
+        return ring.ownerOf(phoneNumber);
+    }
+    
+    /**
+     * Number of live members, this instance included
+     */
+    public int getMemberCount() {
+        return ring.members.size();
+    }
+    
+    public boolean isLocal(ClusterMember member) {
+        return instanceId.equals(member.getInstanceId());
+    }
+    
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    /**
+     * Membership as this instance sees it, for the status endpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", clusterConfig.isEnabled());
+        status.put("instance_id", instanceId);
+        status.put("base_url", self.getBaseUrl());
+        status.put("members", ring.members.stream().map(ClusterMember::getInstanceId).toList());
+        return status;
+    }
+    
+    private String advertisedUrl() {
+        if (clusterConfig.getAdvertisedUrl() != null && !clusterConfig.getAdvertisedUrl().isBlank()) {
+            return clusterConfig.getAdvertisedUrl().replaceAll("/+$", "");
+        }
+        try {
+            return "http://" + InetAddress.getLocalHost().getHostAddress() + ":" + clusterConfig.getPort();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot determine the cluster address; set cluster.advertised-url", e);
+        }
+    }
+    
+    private static boolean sameMembers(List<ClusterMember> current, List<ClusterMember> live) {
+        if (current.size() != live.size()) {
+            return false;
+        }
+        for (ClusterMember member : live) {
+            if (current.stream().noneMatch(existing -> existing.getInstanceId().equals(member.getInstanceId())
+                    && existing.getBaseUrl().equals(member.getBaseUrl()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long hash(String key) {
+        byte[] digest = MD5.get().digest(key.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,27 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.SpeechConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Speech recognizer that runs a local model binary, whisper.cpp by default, on the CPU
+ */
+@Service
+@ConditionalOnProperty(prefix = "speech", name = "model", havingValue = "command", matchIfMissing = true)
+public class CommandSpeechToTextModel implements SpeechToTextModel {
+    
+    @Autowired
+    private SpeechConfig speechConfig;
+    
+    @Override
+    public String transcribe(Path wav) throws IOException, InterruptedException {
+        String output = LocalCommand.run(speechConfig.getModelCommand(), Map.of("input", wav.toString()), speechConfig.getTimeoutSeconds());
+        return output.replaceAll("\\s+", " ").trim();
+    }
+}
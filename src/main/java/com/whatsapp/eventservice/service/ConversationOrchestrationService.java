@@ -3,6 +3,8 @@ package com.whatsapp.eventservice.service;
 import com.whatsapp.eventservice.model.*;
 import com.whatsapp.eventservice.repository.ConversationRepository;
 import com.whatsapp.eventservice.repository.MessageRepository;
+import com.whatsapp.eventservice.repository.UserFeedbackRepository;
+import com.whatsapp.eventservice.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,10 +61,37 @@ public class ConversationOrchestrationService {
     @Autowired
     private ConversationRepository conversationRepository;
     
+    @Autowired
+    private UserFeedbackRepository userFeedbackRepository;
+    
+    @Autowired
+    private UserInterestProfileCache userInterestProfileCache;
+    
+    @Autowired
+    private ConversationStateStore conversationStateStore;
+    
+    @Autowired
+    private ConversationReaper conversationReaper;
+    
+    @Autowired
+    private ResponseCache responseCache;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
     /**
      * Process a user message through the complete workflow
      */
     public Map<String, Object> processUserMessage(Long userId, String content, String messageType) {
+        return processUserMessage(userId, content, messageType, null);
+    }
+    
+    /**
+     * Process a user message through the complete workflow
+     * 
+     * @param user The sender when the caller already loaded it, for the greeting; null to load it if needed
+     */
+    public Map<String, Object> processUserMessage(Long userId, String content, String messageType, User user) {
         logger.info("🔄 Starting message processing workflow for user: {}", userId);
         
         try {
@@ -71,6 +100,10 @@ public class ConversationOrchestrationService {
             // Step 2: API creates conversation if new and logs the message
             Conversation conversation = getOrCreateConversation(userId);
             logger.info("📞 Conversation: {} for user: {}", conversation.getId(), userId);
+            conversationReaper.touch(conversation.getId());
+            
+            // Load the conversation state before saving, so a cold load does not already hold this message
+            conversationStateStore.getState(conversation.getId());
             
             // Store the user message in the conversation
             Message userMessage = new Message(
@@ -84,16 +117,17 @@ public class ConversationOrchestrationService {
             // Step 3: API sends message to LLM for intent parsing and query generation
             Map<String, Object> parsedQuery = processMessageWithLLM(content, conversation.getId());
             logger.info("🤖 LLM parsed query: {}", parsedQuery);
+            conversationStateStore.recordTurn(userMessage);
             
             // Step 5: API queries database for events, businesses, and offers based on parsed query
-            List<SuggestedItem> suggestedItems = queryDatabaseForSuggestions(parsedQuery);
+            List<SuggestedItem> suggestedItems = queryDatabaseForSuggestions(parsedQuery, userId);
             logger.info("🔍 Found {} suggested items", suggestedItems.size());
             
             // Step 6: API stores suggested items in suggested_item table
             storeSuggestedItems(suggestedItems, conversation.getId());
             
             // Step 7: API sends suggestions to LLM to generate response text
-            String responseText = generateResponseWithLLM(suggestedItems, parsedQuery, content);
+            String responseText = generateResponseWithLLM(suggestedItems, parsedQuery, content, userId, user);
             
             // Store the system response message
             Message systemMessage = new Message(
@@ -103,6 +137,7 @@ public class ConversationOrchestrationService {
                 Message.MessageType.text
             );
             messageRepository.save(systemMessage);
+            conversationStateStore.recordTurn(systemMessage);
             
             // Step 8: Return response text to the user
             Map<String, Object> response = new HashMap<>();
@@ -146,10 +181,13 @@ public class ConversationOrchestrationService {
         logger.info("🤖 Processing message with LLM");
         
         try {
+            // Compact context (summary, recent turns, last search) instead of the full history
+            String conversationContext = conversationStateStore.promptContext(conversationId);
+            
             // Try GPT4All first, fallback to AIQueryProcessor
             Map<String, Object> parsedQuery;
             try {
-                parsedQuery = gpt4AllIntegration.processQuery(content);
+                parsedQuery = gpt4AllIntegration.processQuery(content, conversationContext);
                 logger.info("✅ GPT4All processed query successfully");
             } catch (Exception e) {
                 logger.warn("⚠️ GPT4All failed, falling back to AIQueryProcessor: {}", e.getMessage());
@@ -172,7 +210,7 @@ public class ConversationOrchestrationService {
     /**
      * Step 5: Query database for events, businesses, and offers
      */
-    private List<SuggestedItem> queryDatabaseForSuggestions(Map<String, Object> parsedQuery) {
+    private List<SuggestedItem> queryDatabaseForSuggestions(Map<String, Object> parsedQuery, Long userId) {
         logger.info("🔍 Querying database for suggestions based on: {}", parsedQuery);
         
         List<SuggestedItem> suggestedItems = new ArrayList<>();
@@ -186,6 +224,7 @@ public class ConversationOrchestrationService {
             if (searchTypes.contains("events")) {
                 List<Event> events = eventService.searchEventsByCriteria(parsedQuery);
                 logger.info("📅 Found {} events", events.size());
+                events = userInterestProfileCache.rankByInterest(userId, events, Event::getCategoryId);
                 for (Event event : events) {
                     SuggestedItem item = new SuggestedItem(
                         SuggestedItem.ItemType.event,
@@ -201,6 +240,7 @@ public class ConversationOrchestrationService {
             if (searchTypes.contains("businesses")) {
                 List<Business> businesses = businessService.getAllBusinesses();
                 logger.info("🏢 Found {} businesses", businesses.size());
+                businesses = userInterestProfileCache.rankByInterest(userId, businesses, Business::getCategoryId);
                 
                 // Filter businesses based on parsed query if needed
                 businesses = filterBusinessesByCriteria(businesses, parsedQuery);
@@ -238,6 +278,7 @@ public class ConversationOrchestrationService {
                 
                 // Search events
                 List<Event> events = eventService.searchEventsByCriteria(parsedQuery);
+                events = userInterestProfileCache.rankByInterest(userId, events, Event::getCategoryId);
                 for (Event event : events) {
                     SuggestedItem item = new SuggestedItem(
                         SuggestedItem.ItemType.event,
@@ -251,6 +292,7 @@ public class ConversationOrchestrationService {
                 // Search businesses if no events found
                 if (events.isEmpty()) {
                     List<Business> businesses = businessService.getAllBusinesses();
+                    businesses = userInterestProfileCache.rankByInterest(userId, businesses, Business::getCategoryId);
                     businesses = filterBusinessesByCriteria(businesses, parsedQuery);
                     for (Business business : businesses) {
                         SuggestedItem item = new SuggestedItem(
@@ -405,10 +447,26 @@ public class ConversationOrchestrationService {
         // suggestedItemRepository.saveAll(suggestedItems);
     }
     
+    /**
+     * Sender for callers that did not pass one in, looked up once per reply
+     */
+    private User loadUser(Long userId) {
+        return userId != null ? userRepository.findById(userId).orElse(null) : null;
+    }
+    
     /**
      * Step 7: Generate response with LLM
      */
-    private String generateResponseWithLLM(List<SuggestedItem> suggestedItems, Map<String, Object> parsedQuery, String originalMessage) {
+    private String generateResponseWithLLM(List<SuggestedItem> suggestedItems, Map<String, Object> parsedQuery,
+                                           String originalMessage, Long userId, User user) {
+        // The same suggestions for the same search phrase the same way, so reuse the earlier generation
+        String cacheKey = responseCache.keyFor(parsedQuery, suggestedItems);
+        Optional<String> cached = responseCache.get(cacheKey);
+        if (cached.isPresent()) {
+            logger.info("♻️ Reusing cached response for {} suggestions", suggestedItems.size());
+            return responseCache.personalize(cached.get(), user != null ? user : loadUser(userId));
+        }
+        
         logger.info("🤖 Generating response with LLM for {} suggestions", suggestedItems.size());
         
         try {
@@ -416,6 +474,8 @@ public class ConversationOrchestrationService {
             String responseText;
             try {
                 responseText = gpt4AllIntegration.generateResponse(originalMessage, suggestedItems, parsedQuery);
+                responseCache.put(cacheKey, suggestedItems, responseText);
+                responseText = responseCache.personalize(responseText, user != null ? user : loadUser(userId));
                 logger.info("✅ GPT4All generated response successfully");
             } catch (Exception e) {
                 logger.warn("⚠️ GPT4All failed, generating fallback response: {}", e.getMessage());
@@ -478,7 +538,14 @@ public class ConversationOrchestrationService {
      * Enhance parsed query with conversation context
      */
     private void enhanceQueryWithContext(Map<String, Object> parsedQuery, Long conversationId) {
-        // Add conversation context if needed
+        // Follow-ups keep the criteria of the previous search they do not restate
+        List<String> carried = conversationStateStore.applyPreviousCriteria(conversationId, parsedQuery);
+        if (!carried.isEmpty()) {
+            logger.info("🧵 Carried over {} from previous search in conversation: {}", carried, conversationId);
+            parsedQuery.put("context_applied", carried);
+        }
+        conversationStateStore.rememberCriteria(conversationId, parsedQuery);
+        
         parsedQuery.put("conversation_id", conversationId);
         parsedQuery.put("timestamp", LocalDateTime.now());
     }
@@ -487,20 +554,41 @@ public class ConversationOrchestrationService {
      * Process user feedback on suggested items
      */
     public Map<String, Object> processUserFeedback(Long userId, Long suggestionId, String feedbackType) {
-        logger.info("👍 Processing feedback from user: {} for suggestion: {}, type: {}", 
-                   userId, suggestionId, feedbackType);
+        return processUserFeedback(userId, SuggestedItem.ItemType.event.toString(), suggestionId, feedbackType);
+    }
+    
+    /**
+     * Process user feedback on a suggested event, business or offer
+     * 
+     * Stores the feedback in user_feedback and nudges the user's interest weight for the
+     * item's category, keeping the in-memory profile used for ranking in step.
+     */
+    public Map<String, Object> processUserFeedback(Long userId, String suggestionType, Long suggestionId, String feedbackType) {
+        logger.info("👍 Processing feedback from user: {} for {} suggestion: {}, type: {}", 
+                   userId, suggestionType, suggestionId, feedbackType);
         
         try {
+            SuggestedItem.ItemType itemType = SuggestedItem.ItemType.valueOf(suggestionType.toLowerCase());
+            UserFeedback.FeedbackType type = UserFeedback.FeedbackType.valueOf(feedbackType.toLowerCase());
+            
             // Store user feedback
-            // TODO: Implement actual feedback storage
-            // userFeedbackRepository.save(new UserFeedback(userId, suggestionId, feedbackType));
+            UserFeedback feedback = userFeedbackRepository.save(new UserFeedback(userId, itemType, suggestionId, type));
             
             // Update user interests based on feedback
-            // TODO: Implement user interest updates
+            Long categoryId = resolveCategoryId(itemType, suggestionId);
+            boolean interestsUpdated = false;
+            if (categoryId != null && type.weightDelta() != 0f) {
+                userInterestProfileCache.applyDelta(userId, categoryId, type.weightDelta());
+                interestsUpdated = true;
+            } else {
+                logger.info("ℹ️ No category for {} {}, skipping interest update", itemType, suggestionId);
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Thank you for your feedback!");
             response.put("feedback_stored", true);
+            response.put("feedback_id", feedback.getId());
+            response.put("interests_updated", interestsUpdated);
             
             logger.info("✅ Feedback processed successfully");
             return response;
@@ -511,6 +599,37 @@ public class ConversationOrchestrationService {
         }
     }
     
+    /**
+     * Resolve the category of a suggested item; offers inherit from their event or business
+     */
+    private Long resolveCategoryId(SuggestedItem.ItemType itemType, Long itemId) {
+        switch (itemType) {
+            case event: {
+                Event event = eventService.getEventById(itemId);
+                return event != null ? event.getCategoryId() : null;
+            }
+            case business: {
+                Business business = businessService.getBusinessById(itemId);
+                return business != null ? business.getCategoryId() : null;
+            }
+            case offer: {
+                Offer offer = offerService.getOfferById(itemId);
+                if (offer == null) {
+                    return null;
+                }
+                if (offer.getEventId() != null) {
+                    return resolveCategoryId(SuggestedItem.ItemType.event, offer.getEventId());
+                }
+                if (offer.getBusinessId() != null) {
+                    return resolveCategoryId(SuggestedItem.ItemType.business, offer.getBusinessId());
+                }
+                return null;
+            }
+            default:
+                return null;
+        }
+    }
+    
     /**
      * Get conversation context for a user
      */
@@ -0,0 +1,186 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ConversationConfig;
+import com.whatsapp.eventservice.repository.ConversationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Closes conversations after a period of inactivity
+ * 
+ * Active conversations are tracked on a hashed timer wheel: every message moves the
+ * conversation to the slot of its new idle deadline, and each tick only visits the
+ * slot that is due instead of polling every open conversation. Expired conversations
+ * get their final summary, are closed with one batched UPDATE, and their in-memory
+ * state is evicted. A slower sweep closes idle conversations this instance never
+ * saw, e.g. those left open across a restart; in cluster mode each instance sweeps
+ * only the partitions it holds leases for.
+ */
+@Service
+public class ConversationReaper {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConversationReaper.class);
+    
+    private static final int WHEEL_SLOTS = 512;
+    
+    @Autowired
+    private ConversationConfig conversationConfig;
+    
+    @Autowired
+    private ConversationRepository conversationRepository;
+    
+    @Autowired
+    private ConversationStateStore conversationStateStore;
+    
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+    
+    private final List<Set<Long>> slots = new ArrayList<>(WHEEL_SLOTS);
+    private final Map<Long, Long> deadlineTicks = new HashMap<>();
+    private long lastProcessedTick = -1;
+    
+    public ConversationReaper() {
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            slots.add(new HashSet<>());
+        }
+    }
+    
+    /**
+     * Record activity on a conversation, pushing back its idle deadline
+     */
+    public void touch(Long conversationId) {
+        long idleTimeoutMs = conversationConfig.getIdleTimeoutMinutes() * 60_000L;
+        long deadline = tickOf(System.currentTimeMillis() + idleTimeoutMs) + 1;
+        
+        synchronized (slots) {
+            Long previous = deadlineTicks.put(conversationId, deadline);
+            // The entry in the previous slot goes stale and is dropped when that slot is visited
+            if (previous == null || previous != deadline) {
+                slots.get(slotOf(deadline)).add(conversationId);
+            }
+        }
+    }
+    
+    /**
+     * Stop tracking conversations, e.g. of users now owned by another instance
+     */
+    public void untrack(Collection<Long> conversationIds) {
+        synchronized (slots) {
+            // Their slot entries go stale and are dropped when those slots are visited
+            deadlineTicks.keySet().removeAll(conversationIds);
+        }
+    }
+    
+    /**
+     * Advance the wheel to the current tick and close the conversations that expired
+     */
+    @Scheduled(fixedDelayString = "${conversation.reaper-tick-ms:30000}")
+    public void advance() {
+        long nowTick = tickOf(System.currentTimeMillis());
+        List<Long> expired = new ArrayList<>();
+        
+        synchronized (slots) {
+            // After a long pause, one pass over every slot is enough
+            long fromTick = lastProcessedTick < 0 ? nowTick : Math.max(lastProcessedTick + 1, nowTick - WHEEL_SLOTS + 1);
+            for (long tick = fromTick; tick <= nowTick; tick++) {
+                int slot = slotOf(tick);
+                Iterator<Long> entries = slots.get(slot).iterator();
+                while (entries.hasNext()) {
+                    Long conversationId = entries.next();
+                    Long deadline = deadlineTicks.get(conversationId);
+                    if (deadline == null || slotOf(deadline) != slot) {
+                        entries.remove();
+                    } else if (deadline <= nowTick) {
+                        entries.remove();
+                        deadlineTicks.remove(conversationId);
+                        expired.add(conversationId);
+                    }
+                    // Otherwise the deadline is a later revolution of the wheel
+                }
+            }
+            lastProcessedTick = nowTick;
+        }
+        
+        if (!expired.isEmpty()) {
+            closeExpired(expired);
+        }
+    }
+    
+    /**
+     * Close idle conversations that are not tracked on the wheel, in batches
+     */
+    @Scheduled(fixedDelayString = "${conversation.sweep-interval-ms:600000}",
+               initialDelayString = "${conversation.sweep-interval-ms:600000}")
+    public void sweepIdleConversations() {
+        clusterJobScheduler.runPartitioned("conversation-sweep", conversationConfig.getSweepPartitions(), this::sweepPartition);
+    }
+    
+    private void sweepPartition(ClusterJobScheduler.Lease lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime idleSince = now.minusMinutes(conversationConfig.getIdleTimeoutMinutes());
+        int batchSize = conversationConfig.getSweepBatchSize();
+        
+        try {
+            int total = 0;
+            int closed;
+            do {
+                closed = conversationRepository.closeIdleConversations(idleSince, now, batchSize,
+                    lease.getPartitions(), lease.getPartition(), lease.getLeaseName(), lease.getFencingToken());
+                total += closed;
+            } while (closed >= batchSize && lease.isHeld());
+            
+            if (total > 0) {
+                logger.info("🧹 Swept {} idle conversations in partition {}", total, lease.getPartition());
+            }
+        } catch (Exception e) {
+            logger.error("❌ Error sweeping idle conversations", e);
+        }
+    }
+    
+    private void closeExpired(List<Long> conversationIds) {
+        logger.info("⏳ {} conversations expired after {} minutes idle",
+                   conversationIds.size(), conversationConfig.getIdleTimeoutMinutes());
+        
+        int batchSize = conversationConfig.getSweepBatchSize();
+        for (int from = 0; from < conversationIds.size(); from += batchSize) {
+            List<Long> batch = conversationIds.subList(from, Math.min(from + batchSize, conversationIds.size()));
+            
+            Map<Long, String> finalSummaries = new LinkedHashMap<>();
+            for (Long conversationId : batch) {
+                finalSummaries.put(conversationId, conversationStateStore.evictAndSummarize(conversationId));
+            }
+            
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                int closed = conversationRepository.closeConversations(finalSummaries,
+                    now.minusMinutes(conversationConfig.getIdleTimeoutMinutes()), now);
+                logger.info("✅ Closed {} idle conversations", closed);
+            } catch (Exception e) {
+                // Left open; the sweep will close them later
+                logger.error("❌ Error closing {} expired conversations", batch.size(), e);
+            }
+        }
+    }
+    
+    private long tickOf(long epochMillis) {
+        return epochMillis / conversationConfig.getReaperTickMs();
+    }
+    
+    private static int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SLOTS);
+    }
+}
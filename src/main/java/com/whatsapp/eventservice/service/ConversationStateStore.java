@@ -0,0 +1,336 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.Conversation;
+import com.whatsapp.eventservice.model.Message;
+import com.whatsapp.eventservice.repository.ConversationRepository;
+import com.whatsapp.eventservice.repository.MessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory state of active conversations
+ * 
+ * Each conversation keeps its last few turns in a bounded ring, the criteria of its
+ * last search, and its context summary. Turns that fall out of the ring are folded
+ * into context_summary asynchronously by ConversationSummarizer, so prompts carry a
+ * compact context of constant size instead of the full message history.
+ */
+@Service
+public class ConversationStateStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConversationStateStore.class);
+    
+    /** Turns kept verbatim per conversation */
+    private static final int RECENT_TURNS = 6;
+    
+    /** Evicted turns accumulated before a fold into the summary is started */
+    private static final int FOLD_THRESHOLD = 4;
+    
+    private static final int MAX_PROMPT_TURN_CHARS = 160;
+    
+    /** Criteria carried over to follow-up queries that do not restate them */
+    private static final List<String> CARRIED_CRITERIA = List.of("category", "city", "date_range");
+    
+    @Autowired
+    private ConversationRepository conversationRepository;
+    
+    @Autowired
+    private MessageRepository messageRepository;
+    
+    @Autowired
+    private ConversationSummarizer conversationSummarizer;
+    
+    private final Map<Long, ConversationState> states = new ConcurrentHashMap<>();
+    
+    /**
+     * Get the state of a conversation, loading its summary and last turns on a miss
+     */
+    public ConversationState getState(Long conversationId) {
+        return getState(conversationId, null);
+    }
+    
+    /**
+     * Get the state of a conversation; a load on a miss skips the given message, which is
+     * already saved but about to be recorded as a turn
+     */
+    private ConversationState getState(Long conversationId, Long excludeMessageId) {
+        ConversationState state = states.get(conversationId);
+        if (state != null) {
+            return state;
+        }
+        
+        // Load outside the map so a slow query does not block other conversations
+        ConversationState loaded = new ConversationState(conversationId);
+        Optional<Conversation> conversation = conversationRepository.findById(conversationId);
+        loaded.userId = conversation.map(Conversation::getUserId).orElse(null);
+        loaded.summary = conversation.map(Conversation::getContextSummary).orElse(null);
+        for (Message message : messageRepository.findRecentByConversationId(conversationId, RECENT_TURNS)) {
+            if (excludeMessageId == null || !excludeMessageId.equals(message.getId())) {
+                loaded.recent.addLast(new Turn(message.getSender(), message.getContent()));
+            }
+        }
+        
+        ConversationState existing = states.putIfAbsent(conversationId, loaded);
+        return existing != null ? existing : loaded;
+    }
+    
+    /**
+     * Record a saved message as a turn; turns pushed out of the ring are folded into the
+     * summary in the background
+     */
+    public void recordTurn(Message message) {
+        Long conversationId = message.getConversationId();
+        ConversationState state = getState(conversationId, message.getId());
+        Message.Sender sender = message.getSender();
+        String content = message.getContent();
+        
+        List<Turn> toFold = null;
+        String previousSummary;
+        Map<String, Object> lastCriteria;
+        synchronized (state) {
+            state.recent.addLast(new Turn(sender, content));
+            while (state.recent.size() > RECENT_TURNS) {
+                state.pendingFold.add(state.recent.removeFirst());
+            }
+            
+            if (!state.folding && state.pendingFold.size() >= FOLD_THRESHOLD) {
+                state.folding = true;
+                toFold = new ArrayList<>(state.pendingFold);
+            }
+            previousSummary = state.summary;
+            lastCriteria = state.lastCriteria;
+        }
+        
+        if (toFold != null) {
+            fold(state, previousSummary, toFold, lastCriteria);
+        }
+    }
+    
+    /**
+     * Remember the criteria of the latest search in a conversation
+     */
+    public void rememberCriteria(Long conversationId, Map<String, Object> parsedQuery) {
+        ConversationState state = getState(conversationId);
+        
+        Map<String, Object> criteria = new HashMap<>();
+        for (String key : CARRIED_CRITERIA) {
+            Object value = parsedQuery.get(key);
+            if (value != null) {
+                criteria.put(key, value);
+            }
+        }
+        
+        synchronized (state) {
+            state.lastCriteria = Map.copyOf(criteria);
+        }
+    }
+    
+    /**
+     * Fill criteria the new query left unspecified from the conversation's last search,
+     * so follow-ups like "what about tomorrow?" keep the earlier category and city
+     * 
+     * @return Names of the criteria that were carried over
+     */
+    public List<String> applyPreviousCriteria(Long conversationId, Map<String, Object> parsedQuery) {
+        Map<String, Object> lastCriteria;
+        ConversationState state = getState(conversationId);
+        synchronized (state) {
+            lastCriteria = state.lastCriteria;
+        }
+        
+        List<String> carried = new ArrayList<>();
+        for (String key : CARRIED_CRITERIA) {
+            Object previous = lastCriteria.get(key);
+            if (previous != null && isUnspecified(key, parsedQuery.get(key))) {
+                parsedQuery.put(key, previous);
+                carried.add(key);
+            }
+        }
+        return carried;
+    }
+    
+    /**
+     * Compact context for prompts: the running summary, the recent turns and the last search
+     */
+    public String promptContext(Long conversationId) {
+        ConversationState state = getState(conversationId);
+        
+        StringBuilder context = new StringBuilder();
+        synchronized (state) {
+            if (state.summary != null && !state.summary.isBlank()) {
+                context.append("Summary: ").append(state.summary).append("\n");
+            }
+            for (Turn turn : state.recent) {
+                context.append(turn.sender == Message.Sender.user ? "User: " : "Assistant: ")
+                    .append(truncate(turn.content, MAX_PROMPT_TURN_CHARS))
+                    .append("\n");
+            }
+            if (!state.lastCriteria.isEmpty()) {
+                context.append("Last search: ").append(ConversationSummarizer.describeCriteria(state.lastCriteria)).append("\n");
+            }
+        }
+        return context.toString();
+    }
+    
+    /**
+     * Remove a conversation's state from memory
+     * 
+     * @return The removed state, or null if it was not loaded
+     */
+    public ConversationState evict(Long conversationId) {
+        return states.remove(conversationId);
+    }
+    
+    /**
+     * Remove a conversation's state and fold everything it still holds into a final summary
+     * 
+     * @return The final summary, or null if the conversation was not loaded
+     */
+    public String evictAndSummarize(Long conversationId) {
+        ConversationState state = states.remove(conversationId);
+        if (state == null) {
+            return null;
+        }
+        
+        synchronized (state) {
+            List<Turn> remaining = new ArrayList<>(state.pendingFold);
+            remaining.addAll(state.recent);
+            return ConversationSummarizer.summarize(state.summary, remaining, state.lastCriteria);
+        }
+    }
+    
+    /**
+     * Users with a conversation held in memory
+     */
+    public Set<Long> userIds() {
+        Set<Long> userIds = new HashSet<>();
+        for (ConversationState state : states.values()) {
+            if (state.userId != null) {
+                userIds.add(state.userId);
+            }
+        }
+        return userIds;
+    }
+    
+    /**
+     * Drop the state of every conversation of the given users, without summarizing
+     * 
+     * @return IDs of the conversations dropped
+     */
+    public List<Long> evictUsers(Set<Long> userIds) {
+        List<Long> evicted = new ArrayList<>();
+        states.values().removeIf(state -> {
+            boolean remove = state.userId != null && userIds.contains(state.userId);
+            if (remove) {
+                evicted.add(state.conversationId);
+            }
+            return remove;
+        });
+        return evicted;
+    }
+    
+    /**
+     * Number of conversations currently held in memory
+     */
+    public int size() {
+        return states.size();
+    }
+    
+    private void fold(ConversationState state, String previousSummary, List<Turn> turns, Map<String, Object> lastCriteria) {
+        logger.info("🗜️ Folding {} turns into summary for conversation: {}", turns.size(), state.conversationId);
+        
+        conversationSummarizer.fold(state.conversationId, previousSummary, turns, lastCriteria)
+            .whenComplete((summary, error) -> {
+                synchronized (state) {
+                    state.folding = false;
+                    if (error != null) {
+                        logger.warn("⚠️ Failed to fold summary for conversation {}: {}", state.conversationId, error.getMessage());
+                        return;
+                    }
+                    state.summary = summary;
+                    state.pendingFold.subList(0, Math.min(turns.size(), state.pendingFold.size())).clear();
+                }
+            });
+    }
+    
+    private static boolean isUnspecified(String key, Object value) {
+        if (value == null) {
+            return true;
+        }
+        String text = value.toString();
+        return switch (key) {
+            case "category" -> "general".equalsIgnoreCase(text);
+            case "city" -> "near_me".equalsIgnoreCase(text) || text.isBlank();
+            case "date_range" -> "upcoming".equalsIgnoreCase(text);
+            default -> false;
+        };
+    }
+    
+    static String truncate(String text, int maxChars) {
+        if (text == null) {
+            return "";
+        }
+        String singleLine = text.replace('\n', ' ').trim();
+        return singleLine.length() <= maxChars ? singleLine : singleLine.substring(0, maxChars - 1) + "…";
+    }
+    
+    /**
+     * One message of a conversation as kept in memory
+     */
+    public static final class Turn {
+        
+        private final Message.Sender sender;
+        private final String content;
+        
+        Turn(Message.Sender sender, String content) {
+            this.sender = sender;
+            this.content = content;
+        }
+        
+        public Message.Sender getSender() {
+            return sender;
+        }
+        
+        public String getContent() {
+            return content;
+        }
+    }
+    
+    /**
+     * Mutable per-conversation state; guarded by its own monitor
+     */
+    public static final class ConversationState {
+        
+        private final Long conversationId;
+        private Long userId;
+        private final ArrayDeque<Turn> recent = new ArrayDeque<>(RECENT_TURNS + 1);
+        private final List<Turn> pendingFold = new ArrayList<>();
+        private Map<String, Object> lastCriteria = Map.of();
+        private String summary;
+        private boolean folding;
+        
+        ConversationState(Long conversationId) {
+            this.conversationId = conversationId;
+        }
+        
+        public Long getConversationId() {
+            return conversationId;
+        }
+        
+        public synchronized String getSummary() {
+            return summary;
+        }
+    }
+}
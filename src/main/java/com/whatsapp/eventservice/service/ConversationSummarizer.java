@@ -0,0 +1,109 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.Message;
+import com.whatsapp.eventservice.repository.ConversationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Folds older conversation turns into the conversation's context_summary
+ * 
+ * The summary is extractive and bounded: it keeps the most recent user requests,
+ * one line each, plus the criteria of the last search, and drops the oldest lines
+ * once it exceeds MAX_SUMMARY_CHARS. Assistant turns are not kept; they are
+ * suggestion lists that can be rebuilt from the criteria.
+ */
+@Service
+public class ConversationSummarizer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConversationSummarizer.class);
+    
+    private static final int MAX_SUMMARY_CHARS = 600;
+    private static final int MAX_REQUEST_CHARS = 100;
+    
+    private static final String REQUEST_PREFIX = "Asked: ";
+    private static final String CRITERIA_PREFIX = "Last search: ";
+    
+    @Autowired
+    private ConversationRepository conversationRepository;
+    
+    /**
+     * Fold turns into a summary and store it on the conversation
+     * 
+     * @return The new summary
+     */
+    @Async
+    public CompletableFuture<String> fold(Long conversationId, String previousSummary,
+                                          List<ConversationStateStore.Turn> turns, Map<String, Object> lastCriteria) {
+        String summary = summarize(previousSummary, turns, lastCriteria);
+        conversationRepository.updateContextSummary(conversationId, summary);
+        
+        logger.info("✅ Context summary updated for conversation: {} ({} chars)", conversationId, summary.length());
+        return CompletableFuture.completedFuture(summary);
+    }
+    
+    /**
+     * Merge turns into an existing summary, keeping it under MAX_SUMMARY_CHARS
+     */
+    static String summarize(String previousSummary, List<ConversationStateStore.Turn> turns, Map<String, Object> lastCriteria) {
+        Deque<String> lines = new ArrayDeque<>();
+        if (previousSummary != null) {
+            for (String line : previousSummary.split("\n")) {
+                if (line.startsWith(REQUEST_PREFIX)) {
+                    lines.addLast(line);
+                }
+            }
+        }
+        
+        for (ConversationStateStore.Turn turn : turns) {
+            if (turn.getSender() == Message.Sender.user && turn.getContent() != null && !turn.getContent().isBlank()) {
+                lines.addLast(REQUEST_PREFIX + ConversationStateStore.truncate(turn.getContent(), MAX_REQUEST_CHARS));
+            }
+        }
+        
+        String criteriaLine = lastCriteria != null && !lastCriteria.isEmpty()
+            ? CRITERIA_PREFIX + describeCriteria(lastCriteria)
+            : null;
+        
+        int budget = MAX_SUMMARY_CHARS - (criteriaLine != null ? criteriaLine.length() + 1 : 0);
+        int length = lines.stream().mapToInt(line -> line.length() + 1).sum();
+        while (length > budget && !lines.isEmpty()) {
+            length -= lines.removeFirst().length() + 1;
+        }
+        
+        StringBuilder summary = new StringBuilder();
+        for (String line : lines) {
+            summary.append(line).append("\n");
+        }
+        if (criteriaLine != null) {
+            summary.append(criteriaLine).append("\n");
+        }
+        return summary.toString().trim();
+    }
+    
+    /**
+     * One-line description of search criteria, e.g. "category=music, city=Boston"
+     */
+    static String describeCriteria(Map<String, Object> criteria) {
+        StringBuilder description = new StringBuilder();
+        for (String key : List.of("category", "city", "date_range")) {
+            Object value = criteria.get(key);
+            if (value != null) {
+                if (description.length() > 0) {
+                    description.append(", ");
+                }
+                description.append(key).append("=").append(value);
+            }
+        }
+        return description.toString();
+    }
+}
@@ -0,0 +1,188 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.DeliveryTrackingConfig;
+import com.whatsapp.eventservice.model.MessageDelivery;
+import com.whatsapp.eventservice.repository.MessageDeliveryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses delivery status callbacks in memory and writes them to message_delivery in batches
+ * 
+ * Sends and status callbacks for the same wamid are merged into one pending record that
+ * keeps only the highest state, so the sent, delivered and read callbacks of a message
+ * usually reach the database as a single row write. Callbacks never touch the database
+ * themselves; the pending records are flushed on a fixed delay with one batched upsert
+ * per batch-size records.
+ */
+@Service
+public class DeliveryTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryTracker.class);
+    
+    @Autowired
+    private DeliveryTrackingConfig deliveryTrackingConfig;
+    
+    @Autowired
+    private MessageDeliveryRepository messageDeliveryRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Map<String, MessageDelivery> pending = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("delivery.pending", Tags.empty(), pending, Map::size);
+    }
+    
+    /**
+     * Record an outbound message accepted by the Cloud API
+     * 
+     * @param wamid Message id returned by the API
+     * @param recipient Recipient phone number
+     * @param sendType Message type of the send (text, interactive, template, ...)
+     * @param campaign Template name for template sends, which is how broadcasts go out; null otherwise
+     */
+    public void recordSent(String wamid, String recipient, String sendType, String campaign) {
+        if (!deliveryTrackingConfig.isEnabled() || wamid == null) {
+            return;
+        }
+        
+        MessageDelivery delivery = new MessageDelivery(wamid);
+        delivery.setRecipient(recipient);
+        delivery.setSendType(sendType);
+        delivery.setCampaign(campaign);
+        delivery.advance(MessageDelivery.State.sent, LocalDateTime.now());
+        pending.merge(wamid, delivery, MessageDelivery::merge);
+    }
+    
+    /**
+     * Record a status callback
+     * 
+     * @param wamid Message id the status refers to
+     * @param status Status name (sent, delivered, read, failed)
+     * @param recipientId Recipient of the message
+     * @param timestamp Epoch seconds as sent by WhatsApp; receipt time if missing
+     */
+    public void recordStatus(String wamid, String status, String recipientId, String timestamp) {
+        MessageDelivery.State state = MessageDelivery.State.fromStatus(status);
+        if (!deliveryTrackingConfig.isEnabled() || wamid == null || state == null) {
+            return;
+        }
+        
+        MessageDelivery delivery = new MessageDelivery(wamid);
+        delivery.setRecipient(recipientId);
+        delivery.advance(state, toDateTime(timestamp));
+        pending.merge(wamid, delivery, MessageDelivery::merge);
+        meterRegistry.counter("delivery.status", "state", state.name()).increment();
+    }
+    
+    /**
+     * Write pending records to the database in batches
+     */
+    @Scheduled(fixedDelayString = "${delivery-tracking.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        int batchSize = deliveryTrackingConfig.getBatchSize();
+        List<MessageDelivery> batch = new ArrayList<>(batchSize);
+        int written = 0;
+        
+        // Callbacks arriving during the drain start a new pending record and go out next flush
+        Iterator<String> wamids = pending.keySet().iterator();
+        while (wamids.hasNext()) {
+            MessageDelivery delivery = pending.remove(wamids.next());
+            if (delivery != null) {
+                batch.add(delivery);
+            }
+            if (batch.size() >= batchSize || (!wamids.hasNext() && !batch.isEmpty())) {
+                if (!write(batch)) {
+                    return;
+                }
+                written += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        
+        logger.debug("📬 Flushed {} delivery states", written);
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private boolean write(List<MessageDelivery> batch) {
+        try {
+            messageDeliveryRepository.upsertAll(batch);
+            return true;
+        } catch (Exception e) {
+            // Put the batch back for the next flush, unless the backlog is already at its limit
+            if (pending.size() + batch.size() <= deliveryTrackingConfig.getMaxPending()) {
+                for (MessageDelivery delivery : batch) {
+                    pending.merge(delivery.getWamid(), delivery, MessageDelivery::merge);
+                }
+            } else {
+                logger.warn("⚠️ Delivery backlog full, dropping {} delivery states", batch.size());
+                meterRegistry.counter("delivery.dropped").increment(batch.size());
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Delivery and read rates of outbound messages over the last days, per send type and campaign
+     */
+    public List<Map<String, Object>> getRates(int days) {
+        List<Map<String, Object>> rates = new ArrayList<>();
+        for (Map<String, Object> row : messageDeliveryRepository.findRatesSince(LocalDateTime.now().minusDays(days))) {
+            long sent = ((Number) row.get("sent")).longValue();
+            long delivered = row.get("delivered") != null ? ((Number) row.get("delivered")).longValue() : 0;
+            long read = row.get("read_count") != null ? ((Number) row.get("read_count")).longValue() : 0;
+            long failed = row.get("failed") != null ? ((Number) row.get("failed")).longValue() : 0;
+            
+            Map<String, Object> rate = new LinkedHashMap<>();
+            rate.put("send_type", row.get("send_type"));
+            rate.put("campaign", row.get("campaign"));
+            rate.put("sent", sent);
+            rate.put("delivered", delivered);
+            rate.put("read", read);
+            rate.put("failed", failed);
+            rate.put("delivery_rate", sent > 0 ? (double) delivered / sent : 0.0);
+            rate.put("read_rate", sent > 0 ? (double) read / sent : 0.0);
+            rates.add(rate);
+        }
+        return rates;
+    }
+    
+    private static LocalDateTime toDateTime(String epochSeconds) {
+        if (epochSeconds != null) {
+            try {
+                return LocalDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(epochSeconds)), ZoneId.systemDefault());
+            } catch (NumberFormatException e) {
+                // Fall through to receipt time
+            }
+        }
+        return LocalDateTime.now();
+    }
+}
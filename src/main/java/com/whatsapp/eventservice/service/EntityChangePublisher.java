@@ -0,0 +1,186 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ChangeFeedConfig;
+import com.whatsapp.eventservice.model.EntityChange;
+import com.whatsapp.eventservice.repository.EntityChangeOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Domain change feed for events, businesses and offers
+ * 
+ * Writers call publish() inside their transaction. The change is appended to the
+ * outbox table when it is enabled and published on the Spring event bus, where
+ * read models subscribe with @TransactionalEventListener so they only see
+ * committed changes. With the outbox enabled, changes written by other instances
+ * are tailed by polling and republished locally. Outbox ids are assigned at insert
+ * but become visible at commit, so a lower id can show up after a higher one. The
+ * ids the tail steps over are remembered as gaps and looked up by id on each poll
+ * until they show up or the late-commit window passes, so an idle feed costs one
+ * indexed probe.
+ * Versions are a per-instance sequence and are not comparable across instances.
+ */
+@Service
+public class EntityChangePublisher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangePublisher.class);
+    
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    @Autowired
+    private EntityChangeOutboxRepository outboxRepository;
+    
+    @Autowired
+    private ChangeFeedConfig changeFeedConfig;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+    
+    // Seeded from the clock so versions keep increasing across restarts
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+    
+    private volatile long lastSeenOutboxId = -1;
+    
+    // Outbox ids below lastSeenOutboxId not seen yet -> when they were first missed; only the poller touches it
+    private final Map<Long, Long> outboxGaps = new LinkedHashMap<>();
+    
+    /**
+     * Record a change to an entity
+     * 
+     * @param entityType Type of the changed entity
+     * @param entityId ID of the changed entity
+     * @param changeType Kind of change
+     * @param entity Entity state after the change, or null for deletes
+     * @return The published change record
+     */
+    public EntityChange publish(EntityChange.EntityType entityType, Long entityId,
+                                EntityChange.ChangeType changeType, Object entity) {
+        EntityChange change = new EntityChange(entityType, entityId, changeType,
+                                               version.incrementAndGet(), clusterMembership.getInstanceId(), entity);
+        
+        if (changeFeedConfig.isOutboxEnabled()) {
+            outboxRepository.append(change);
+        }
+        
+        logger.info("📣 Publishing {} {} {} (v{})", entityType, entityId, changeType, change.getVersion());
+        applicationEventPublisher.publishEvent(change);
+        return change;
+    }
+    
+    /**
+     * Record a change to each of a batch of entities, with one outbox round trip
+     * 
+     * @param entities Entity state after the change, by entity ID
+     * @return The published change records
+     */
+    public List<EntityChange> publishAll(EntityChange.EntityType entityType, EntityChange.ChangeType changeType,
+                                         Map<Long, ?> entities) {
+        List<EntityChange> changes = new ArrayList<>(entities.size());
+        for (Map.Entry<Long, ?> entity : entities.entrySet()) {
+            changes.add(new EntityChange(entityType, entity.getKey(), changeType,
+                                         version.incrementAndGet(), clusterMembership.getInstanceId(), entity.getValue()));
+        }
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        
+        if (changeFeedConfig.isOutboxEnabled()) {
+            outboxRepository.appendAll(changes);
+        }
+        
+        logger.info("📣 Publishing {} {} changes of type {}", changes.size(), changeType, entityType);
+        for (EntityChange change : changes) {
+            applicationEventPublisher.publishEvent(change);
+        }
+        return changes;
+    }
+    
+    /**
+     * Tail the outbox and republish changes made by other instances
+     */
+    @Scheduled(fixedDelayString = "${change-feed.poll-interval-ms:1000}")
+    public void pollOutbox() {
+        if (!changeFeedConfig.isOutboxEnabled()) {
+            return;
+        }
+        
+        long now = System.currentTimeMillis();
+        // Start from the current end; read models load their initial state from the tables
+        if (lastSeenOutboxId < 0) {
+            long latest = outboxRepository.findLatestId();
+            // Ids just below the end may belong to transactions still in flight
+            lastSeenOutboxId = Math.max(0, latest - changeFeedConfig.getMaxOutboxGaps());
+            for (EntityChange change : outboxRepository.findAfter(lastSeenOutboxId, changeFeedConfig.getMaxOutboxGaps())) {
+                recordGaps(change.getOutboxId(), now);
+                lastSeenOutboxId = change.getOutboxId();
+            }
+            recordGaps(latest + 1, now);
+            lastSeenOutboxId = latest;
+            logger.info("📬 Tailing entity change outbox from position: {}", lastSeenOutboxId);
+            return;
+        }
+        
+        if (!outboxGaps.isEmpty()) {
+            // A gap older than the window was a rolled-back insert, not a slow commit
+            outboxGaps.values().removeIf(missedAt -> now - missedAt > changeFeedConfig.getLateCommitWindowMs());
+            if (!outboxGaps.isEmpty()) {
+                for (EntityChange change : outboxRepository.findByIds(outboxGaps.keySet())) {
+                    outboxGaps.remove(change.getOutboxId());
+                    logger.debug("📬 Picked up late outbox record: {}", change.getOutboxId());
+                    deliver(change);
+                }
+            }
+        }
+        
+        List<EntityChange> changes;
+        do {
+            changes = outboxRepository.findAfter(lastSeenOutboxId, changeFeedConfig.getBatchSize());
+            for (EntityChange change : changes) {
+                recordGaps(change.getOutboxId(), now);
+                deliver(change);
+                lastSeenOutboxId = change.getOutboxId();
+            }
+        } while (changes.size() >= changeFeedConfig.getBatchSize());
+    }
+    
+    /**
+     * Remember the ids between the last one seen and the given one as possibly committing late
+     */
+    private void recordGaps(long outboxId, long now) {
+        for (long id = lastSeenOutboxId + 1; id < outboxId && outboxGaps.size() < changeFeedConfig.getMaxOutboxGaps(); id++) {
+            outboxGaps.put(id, now);
+        }
+    }
+    
+    private void deliver(EntityChange change) {
+        if (!clusterMembership.getInstanceId().equals(change.getSourceInstance())) {
+            applicationEventPublisher.publishEvent(change);
+        }
+    }
+    
+    /**
+     * Prune outbox records past the retention window
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void pruneOutbox() {
+        if (changeFeedConfig.isOutboxEnabled()) {
+            clusterJobScheduler.runExclusive("outbox-prune", lease ->
+                outboxRepository.deleteOlderThan(LocalDateTime.now().minusDays(changeFeedConfig.getRetentionDays())));
+        }
+    }
+}
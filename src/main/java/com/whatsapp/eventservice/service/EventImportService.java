@@ -0,0 +1,328 @@
+package com.whatsapp.eventservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.eventservice.model.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bulk import of partner event feeds
+ * 
+ * Feeds are read line by line as NDJSON (one JSON object per line) or CSV with a
+ * header row, so memory use is bounded by the batch size rather than the feed size.
+ * Valid rows are upserted on external_id in JDBC batches; invalid rows are skipped
+ * and reported with their line number. Each batch publishes a change per event in the
+ * same transaction, so the snapshot, the response cache and other instances see it.
+ */
+@Service
+public class EventImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventImportService.class);
+    
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_EXTERNAL_ID_LENGTH = 128;
+    
+    public enum Format {
+        ndjson, csv
+    }
+    
+    @Autowired
+    private EventService eventService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Import events from a feed
+     * 
+     * @param input Feed body; read to the end but not closed
+     * @param format Feed format
+     * @return Import report with row counts and row-level errors
+     */
+    public Map<String, Object> importEvents(InputStream input, Format format) throws IOException {
+        logger.info("📦 Starting {} event import", format);
+        long startedAt = System.currentTimeMillis();
+        
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        
+        String[] csvHeader = null;
+        String line;
+        int lineNumber = 0;
+        
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            if (format == Format.csv && csvHeader == null) {
+                csvHeader = parseCsvLine(line);
+                if (csvHeader == null) {
+                    throw new IllegalArgumentException("Malformed CSV header");
+                }
+                for (int i = 0; i < csvHeader.length; i++) {
+                    csvHeader[i] = csvHeader[i].trim().toLowerCase();
+                }
+                continue;
+            }
+            
+            run.totalRows++;
+            try {
+                Event event = format == Format.csv ? parseCsvRow(csvHeader, line) : parseJsonRow(line);
+                run.add(lineNumber, event);
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, null, e.getMessage());
+                continue;
+            }
+            
+            if (run.batch.size() >= BATCH_SIZE) {
+                run.flush();
+            }
+        }
+        run.flush();
+        
+        Map<String, Object> report = new HashMap<>();
+        report.put("format", format.toString());
+        report.put("total_rows", run.totalRows);
+        report.put("imported", run.imported);
+        report.put("failed", run.failed);
+        report.put("errors", run.errors);
+        report.put("errors_truncated", run.failed > run.errors.size());
+        report.put("duration_ms", System.currentTimeMillis() - startedAt);
+        
+        logger.info("✅ Event import finished - {} rows, {} imported, {} failed",
+                   run.totalRows, run.imported, run.failed);
+        return report;
+    }
+    
+    private Event parseJsonRow(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        
+        return toEvent(field -> {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        });
+    }
+    
+    private Event parseCsvRow(String[] header, String line) {
+        String[] values = parseCsvLine(line);
+        if (values == null) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " columns but found " + values.length);
+        }
+        
+        return toEvent(field -> {
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].equals(field)) {
+                    return values[i].isEmpty() ? null : values[i];
+                }
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * Build and validate an event from named feed fields
+     */
+    private Event toEvent(Function<String, String> fields) {
+        String externalId = trimToNull(fields.apply("external_id"));
+        String name = trimToNull(fields.apply("name"));
+        
+        if (externalId == null) {
+            throw new IllegalArgumentException("external_id is required");
+        }
+        if (externalId.length() > MAX_EXTERNAL_ID_LENGTH) {
+            throw new IllegalArgumentException("external_id is longer than " + MAX_EXTERNAL_ID_LENGTH + " characters");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("name is required");
+        }
+        
+        Event event = new Event();
+        event.setExternalId(externalId);
+        event.setName(name);
+        event.setDescription(fields.apply("description"));
+        event.setCategoryId(parseId(fields, "category_id"));
+        event.setBusinessId(parseId(fields, "business_id"));
+        event.setCreatedBy(parseId(fields, "created_by"));
+        event.setStartTime(parseDateTime(fields, "start_time"));
+        event.setEndTime(parseDateTime(fields, "end_time"));
+        event.setLocation(trimToNull(fields.apply("location")));
+        event.setCity(trimToNull(fields.apply("city")));
+        event.setImageUrl(trimToNull(fields.apply("image_url")));
+        
+        if (event.getStartTime() == null) {
+            throw new IllegalArgumentException("start_time is required");
+        }
+        if (event.getEndTime() != null && event.getEndTime().isBefore(event.getStartTime())) {
+            throw new IllegalArgumentException("end_time is before start_time");
+        }
+        // Mirrors chk_event_creator: an event belongs to a business or a user, not both
+        if ((event.getBusinessId() == null) == (event.getCreatedBy() == null)) {
+            throw new IllegalArgumentException("Exactly one of business_id or created_by is required");
+        }
+        
+        return event;
+    }
+    
+    private static Long parseId(Function<String, String> fields, String field) {
+        String value = trimToNull(fields.apply(field));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+    
+    private static LocalDateTime parseDateTime(Function<String, String> fields, String field) {
+        String value = trimToNull(fields.apply(field));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " is not an ISO-8601 date-time: " + value);
+        }
+    }
+    
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+    
+    /**
+     * Split one CSV line into fields, honouring double-quoted fields and "" escapes.
+     * Returns null when a quoted field is not terminated on the same line.
+     */
+    private static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else if (c != '\r') {
+                current.append(c);
+            }
+        }
+        
+        if (quoted) {
+            return null;
+        }
+        values.add(current.toString());
+        return values.toArray(new String[0]);
+    }
+    
+    /**
+     * Mutable state of one import: the pending batch and the running totals
+     */
+    private final class ImportRun {
+        
+        private final List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<Integer> batchLines = new ArrayList<>(BATCH_SIZE);
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        
+        private int totalRows;
+        private int imported;
+        private int failed;
+        
+        void add(int lineNumber, Event event) {
+            batch.add(event);
+            batchLines.add(lineNumber);
+        }
+        
+        void reject(int lineNumber, String externalId, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                Map<String, Object> rowError = new LinkedHashMap<>();
+                rowError.put("line", lineNumber);
+                if (externalId != null) {
+                    rowError.put("external_id", externalId);
+                }
+                rowError.put("error", error);
+                errors.add(rowError);
+            }
+        }
+        
+        /**
+         * Write the pending batch; if the batch fails, retry its rows one by one
+         * so a single bad row (e.g. an unknown category_id) only rejects itself
+         */
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            
+            try {
+                imported += eventService.upsertImportedBatch(batch);
+            } catch (RuntimeException batchFailure) {
+                logger.warn("⚠️ Batch upsert failed, retrying {} rows individually", batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    Event event = batch.get(i);
+                    try {
+                        imported += eventService.upsertImportedBatch(List.of(event));
+                    } catch (RuntimeException rowFailure) {
+                        Throwable cause = rowFailure.getCause() != null ? rowFailure.getCause() : rowFailure;
+                        reject(batchLines.get(i), event.getExternalId(), cause.getMessage());
+                    }
+                }
+            }
+            
+            batch.clear();
+            batchLines.clear();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.whatsapp.eventservice.service;
 
+import com.whatsapp.eventservice.model.EntityChange;
 import com.whatsapp.eventservice.model.Event;
 import com.whatsapp.eventservice.repository.EventRepository;
 import org.slf4j.Logger;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -29,6 +31,12 @@ public class EventService {
     @Autowired
     private EventRepository eventRepository;
     
+    @Autowired
+    private UpcomingEventsSnapshot upcomingEventsSnapshot;
+    
+    @Autowired
+    private EntityChangePublisher entityChangePublisher;
+    
     /**
      * Search events based on criteria
      * 
@@ -45,19 +53,8 @@ public class EventService {
                                   String dateRange, String priceRange, String ageRestriction, int limit) {
         logger.info("🔍 Searching events - City: {}, Category: {}, DateRange: {}", city, category, dateRange);
         
-        // This would typically use a custom repository method with dynamic queries
-        // For now, use basic repository methods
-        
-        List<Event> events;
-        
-        // Use findAll since the repository methods may not match the new schema
-        events = eventRepository.findAll();
-        
-        // Apply additional filters
-        events = events.stream()
-                .filter(event -> filterByDateRange(event, dateRange))
-                .limit(limit)
-                .toList();
+        // Served from the in-memory snapshot; date ranges resolve to day-bucket slices
+        List<Event> events = upcomingEventsSnapshot.find(city, category, dateRange, limit);
         
         logger.info("✅ Found {} events matching criteria", events.size());
         return events;
@@ -66,14 +63,22 @@ public class EventService {
     /**
      * Search events using natural language criteria
      * 
+     * Only city, category and date_range filter the results, the same criteria the
+     * previous SQL search honored; other keys of the parsed query are ignored. At most
+     * "limit" events are returned, 20 by default.
+     * 
      * @param criteria Search criteria map
      * @return List of matching events
      */
     public List<Event> searchEventsByCriteria(Map<String, Object> criteria) {
         logger.info("🔍 Searching events by criteria: {}", criteria);
         
-        // Use the new JDBC repository method for searching
-        return eventRepository.searchByCriteria(criteria);
+        String city = (String) criteria.get("city");
+        String category = (String) criteria.get("category");
+        String dateRange = (String) criteria.getOrDefault("date_range", "upcoming");
+        int limit = criteria.get("limit") instanceof Number number ? number.intValue() : 20;
+        
+        return upcomingEventsSnapshot.find(city, category, dateRange, limit);
     }
     
     /**
@@ -105,20 +110,8 @@ public class EventService {
     public List<Event> getUpcomingEvents(String city, int limit) {
         logger.info("📅 Getting upcoming events in city: {}", city);
         
-        LocalDateTime now = LocalDateTime.now();
-        List<Event> events = eventRepository.findUpcomingEvents(now);
-        
-        // Filter by city if specified
-        if (city != null && !city.trim().isEmpty()) {
-            events = events.stream()
-                    .filter(event -> city.equalsIgnoreCase(event.getCity()))
-                    .limit(limit)
-                    .toList();
-        } else {
-            events = events.stream()
-                    .limit(limit)
-                    .toList();
-        }
+        String cityFilter = city != null && !city.trim().isEmpty() ? city.trim() : null;
+        List<Event> events = upcomingEventsSnapshot.find(cityFilter, null, "upcoming", limit);
         
         logger.info("✅ Found {} upcoming events", events.size());
         return events;
@@ -158,11 +151,31 @@ public class EventService {
         event.setUpdatedAt(LocalDateTime.now());
         
         Event createdEvent = eventRepository.save(event);
+        entityChangePublisher.publish(EntityChange.EntityType.event, createdEvent.getId(),
+                                      EntityChange.ChangeType.created, createdEvent);
         
         logger.info("✅ Event created successfully with ID: {}", createdEvent.getId());
         return createdEvent;
     }
     
+    /**
+     * Upsert a batch of imported events and publish a change for each, in one transaction
+     * 
+     * @param events Events keyed on external_id
+     * @return Number of events written
+     */
+    public int upsertImportedBatch(List<Event> events) {
+        int written = eventRepository.upsertBatch(events);
+        
+        // Read back the rows for their IDs and timestamps; changes carry the stored state
+        Map<Long, Event> stored = new LinkedHashMap<>();
+        for (Event event : eventRepository.findByExternalIds(events.stream().map(Event::getExternalId).toList())) {
+            stored.put(event.getId(), event);
+        }
+        entityChangePublisher.publishAll(EntityChange.EntityType.event, EntityChange.ChangeType.updated, stored);
+        return written;
+    }
+    
     /**
      * Get all events - matches OpenAPI spec
      */
@@ -227,6 +240,10 @@ public class EventService {
         
         event.setUpdatedAt(LocalDateTime.now());
         event = eventRepository.update(event);
+        if (event != null) {
+            entityChangePublisher.publish(EntityChange.EntityType.event, event.getId(),
+                                          EntityChange.ChangeType.updated, event);
+        }
         
         logger.info("✅ Event updated successfully");
         return event;
@@ -244,6 +261,8 @@ public class EventService {
         boolean deleted = eventRepository.deleteById(id);
         
         if (deleted) {
+            entityChangePublisher.publish(EntityChange.EntityType.event, id,
+                                          EntityChange.ChangeType.deleted, null);
             logger.info("✅ Event deleted successfully");
         } else {
             logger.warn("⚠️ Event not found for deletion with ID: {}", id);
@@ -265,7 +284,7 @@ public class EventService {
         long totalEvents = eventRepository.count();
         
         stats.put("total_events", totalEvents);
-        stats.put("upcoming_events", totalEvents); // Simplified for now
+        stats.put("upcoming_events", upcomingEventsSnapshot.size());
         stats.put("timestamp", LocalDateTime.now());
         
         logger.info("✅ Event statistics retrieved");
@@ -289,44 +308,4 @@ public class EventService {
         logger.info("✅ Found {} event categories", categories.size());
         return categories;
     }
-    
-    // Helper methods for filtering
-    
-    private boolean filterByDateRange(Event event, String dateRange) {
-        if (dateRange == null || dateRange.isEmpty()) {
-            return true;
-        }
-        
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime eventTime = event.getStartTime();
-        
-        if (eventTime == null) {
-            return true;
-        }
-        
-        switch (dateRange.toLowerCase()) {
-            case "today":
-                return eventTime.toLocalDate().equals(now.toLocalDate());
-            case "tomorrow":
-                return eventTime.toLocalDate().equals(now.plusDays(1).toLocalDate());
-            case "weekend":
-                return isWeekend(eventTime);
-            case "this_week":
-                return eventTime.isAfter(now) && eventTime.isBefore(now.plusWeeks(1));
-            case "next_week":
-                return eventTime.isAfter(now.plusWeeks(1)) && eventTime.isBefore(now.plusWeeks(2));
-            case "this_month":
-                return eventTime.isAfter(now) && eventTime.isBefore(now.plusMonths(1));
-            case "upcoming":
-                return eventTime.isAfter(now);
-            default:
-                return true;
-        }
-    }
-    
-    
-    private boolean isWeekend(LocalDateTime dateTime) {
-        int dayOfWeek = dateTime.getDayOfWeek().getValue();
-        return dayOfWeek == 6 || dayOfWeek == 7; // Saturday or Sunday
-    }
 }
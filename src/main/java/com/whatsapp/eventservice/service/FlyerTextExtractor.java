@@ -0,0 +1,185 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.OcrConfig;
+import com.whatsapp.eventservice.model.MediaItem;
+import com.whatsapp.eventservice.model.Message;
+import com.whatsapp.eventservice.model.MessageCorrelation;
+import com.whatsapp.eventservice.model.SuggestedItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the text off event flyer photos and turns it into an event search
+ * 
+ * OCR runs on a dedicated pool sized to the CPUs, separate from the media download
+ * threads and the request and async pools, with a bounded queue and lowered thread
+ * priority so a burst of photos cannot starve conversational traffic. The recognizer is
+ * the local OCR command from ocr.command. The extracted text, with the caption if any,
+ * then goes through the same orchestration path as a typed message, on the async
+ * executor rather than the OCR pool, since that part waits on the LLM.
+ */
+@Service
+public class FlyerTextExtractor implements MediaExtractor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FlyerTextExtractor.class);
+    
+    private static final String BUSY_REPLY = "I'm reading a lot of images right now and couldn't get to yours. Could you type the event or the kind of event you're looking for?";
+    private static final String FETCH_FAILED_REPLY = "I couldn't download your image. Could you send it again, or type the event or the kind of event you're looking for?";
+    private static final String UNREADABLE_REPLY = "I couldn't read any event details in that image. Could you type the event name or what you're looking for?";
+    
+    @Autowired
+    private OcrConfig ocrConfig;
+    
+    @Autowired
+    private ConversationOrchestrationService orchestrationService;
+    
+    @Autowired
+    private WhatsAppMessageService whatsAppMessageService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor conversationExecutor;
+    
+    private ThreadPoolExecutor workers;
+    
+    @PostConstruct
+    public void startWorkers() {
+        int threads = ocrConfig.getWorkerThreads() > 0
+            ? ocrConfig.getWorkerThreads()
+            : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(ocrConfig.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ocr-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        meterRegistry.gauge("media.ocr.queue", Tags.empty(), workers, executor -> executor.getQueue().size());
+        logger.info("🔎 Flyer OCR pool started with {} workers", threads);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+    
+    @Override
+    public boolean supports(MediaItem item) {
+        return ocrConfig.isEnabled() && item.getKind() == MediaItem.Kind.image && item.getUserId() != null;
+    }
+    
+    @Override
+    public void enqueue(MediaItem item) {
+        long queuedAt = System.currentTimeMillis();
+        try {
+            workers.execute(() -> extract(item, queuedAt));
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ OCR queue full, skipping {}", item);
+            meterRegistry.counter("media.ocr.rejected").increment();
+            whatsAppMessageService.sendTextMessage(item.getFrom(), BUSY_REPLY);
+        }
+    }
+    
+    @Override
+    public void failed(MediaItem item) {
+        whatsAppMessageService.sendTextMessage(item.getFrom(), FETCH_FAILED_REPLY);
+    }
+    
+    private void extract(MediaItem item, long queuedAt) {
+        long started = System.currentTimeMillis();
+        meterRegistry.timer("media.ocr.queue_wait").record(started - queuedAt, TimeUnit.MILLISECONDS);
+        
+        String text;
+        try {
+            text = recognize(item.getPath());
+        } catch (Exception e) {
+            long latencyMs = System.currentTimeMillis() - started;
+            meterRegistry.timer("media.ocr", "outcome", "error").record(latencyMs, TimeUnit.MILLISECONDS);
+            logger.error("❌ OCR failed for {} after {} ms", item, latencyMs, e);
+            whatsAppMessageService.sendTextMessage(item.getFrom(), UNREADABLE_REPLY);
+            return;
+        }
+        
+        long latencyMs = System.currentTimeMillis() - started;
+        String query = flyerQuery(item.getCaption(), text, ocrConfig.getMaxTextChars());
+        boolean readable = query.length() >= ocrConfig.getMinTextChars();
+        meterRegistry.timer("media.ocr", "outcome", readable ? "text" : "no_text").record(latencyMs, TimeUnit.MILLISECONDS);
+        logger.info("🔎 OCR of {} took {} ms after {} ms queued, {} chars of text",
+                   item.getMediaId(), latencyMs, started - queuedAt, text.length());
+        
+        if (!readable) {
+            whatsAppMessageService.sendTextMessage(item.getFrom(), UNREADABLE_REPLY);
+            return;
+        }
+        
+        // The search waits on the LLM; keep it off the CPU pool
+        conversationExecutor.execute(() -> search(item, query));
+    }
+    
+    private void search(MediaItem item, String query) {
+        try {
+            Map<String, Object> result = orchestrationService.processUserMessage(
+                item.getUserId(), query, Message.MessageType.image.name());
+            Message systemMessage = (Message) result.get("system_message");
+            
+            MessageCorrelation correlation = new MessageCorrelation();
+            correlation.setConversationId(systemMessage.getConversationId());
+            correlation.setMessageId(systemMessage.getId());
+            @SuppressWarnings("unchecked")
+            List<SuggestedItem> suggestedItems = (List<SuggestedItem>) result.getOrDefault("suggested_items", List.of());
+            whatsAppMessageService.sendSuggestions(item.getFrom(), systemMessage.getContent(), suggestedItems, correlation);
+            
+        } catch (Exception e) {
+            logger.error("❌ Error searching events from flyer {}", item, e);
+            whatsAppMessageService.sendTextMessage(item.getFrom(),
+                "Sorry, I encountered an error processing your image. Please try again later.");
+        }
+    }
+    
+    /**
+     * Run the OCR command on an image and return the text it prints
+     */
+    private String recognize(Path image) throws IOException, InterruptedException {
+        return LocalCommand.run(ocrConfig.getCommand(), Map.of("input", image.toString()), ocrConfig.getTimeoutSeconds());
+    }
+    
+    /**
+     * Query text for a flyer: the caption, then the recognized text with OCR noise removed,
+     * cut at a word boundary to the given length
+     */
+    static String flyerQuery(String caption, String recognized, int maxChars) {
+        String text = recognized.replaceAll("[^\\p{L}\\p{N}\\p{P}\\p{Sc}\\s]", " ").replaceAll("\\s+", " ").trim();
+        if (caption != null && !caption.isBlank()) {
+            text = caption.trim() + "\n" + text;
+        }
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', maxChars);
+        return text.substring(0, cut > 0 ? cut : maxChars);
+    }
+}
@@ -1,5 +1,6 @@
 package com.whatsapp.eventservice.service;
 
+import com.whatsapp.eventservice.config.GPT4AllConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -18,26 +19,55 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class GPT4AllIntegration {
     
-    private static final String GPT4ALL_API_URL = System.getenv().getOrDefault("GPT4ALL_API_URL", "http://localhost:8000");
-    private static final int TIMEOUT_SECONDS = 30;
+    static final String EVENT_QUERY_PROMPT = "event-query";
+    static final String RESPONSE_PROMPT = "response";
     
     @Autowired
     private AIQueryProcessor fallbackProcessor;
     
+    @Autowired
+    private GPT4AllConfig gpt4AllConfig;
+    
+    @Autowired
+    private PromptTemplates promptTemplates;
+    
+    @Autowired
+    private LlmRouter llmRouter;
+    
+    @Autowired
+    private PromptCoalescer promptCoalescer;
+    
+    @Autowired
+    private ResponseCache responseCache;
+    
     /**
      * Enhanced query processing using GPT4All - alias for orchestration service
      */
     public Map<String, Object> processQuery(String userQuery) {
-        return processQueryWithGPT4All(userQuery);
+        return processQueryWithGPT4All(userQuery, null);
+    }
+    
+    /**
+     * Query processing with a compact conversation context for follow-up questions
+     */
+    public Map<String, Object> processQuery(String userQuery, String conversationContext) {
+        return processQueryWithGPT4All(userQuery, conversationContext);
     }
     
     /**
      * Enhanced query processing using GPT4All
      */
     public Map<String, Object> processQueryWithGPT4All(String userQuery) {
+        return processQueryWithGPT4All(userQuery, null);
+    }
+    
+    /**
+     * Enhanced query processing using GPT4All, with optional conversation context
+     */
+    public Map<String, Object> processQueryWithGPT4All(String userQuery, String conversationContext) {
         try {
             // Try GPT4All first
-            Map<String, Object> result = callGPT4AllAPI(userQuery);
+            Map<String, Object> result = callGPT4AllAPI(userQuery, conversationContext);
             if (result != null && !result.isEmpty()) {
                 System.out.println("✅ GPT4All processing successful");
                 return result;
@@ -54,16 +84,10 @@ public class GPT4AllIntegration {
     /**
      * Call GPT4All API for query processing
      */
-    private Map<String, Object> callGPT4AllAPI(String userQuery) throws Exception {
-        String prompt = createPromptForEventQuery(userQuery);
+    private Map<String, Object> callGPT4AllAPI(String userQuery, String conversationContext) throws Exception {
+        String prompt = createPromptForEventQuery(userQuery, conversationContext);
         
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("prompt", prompt);
-        requestBody.put("max_tokens", 200);
-        requestBody.put("temperature", 0.3);
-        requestBody.put("top_p", 0.9);
-        
-        String response = makeHttpRequest(GPT4ALL_API_URL + "/generate", requestBody);
+        String response = generate(EVENT_QUERY_PROMPT, prompt);
         
         if (response != null && !response.isEmpty()) {
             return parseGPT4AllResponse(response);
@@ -75,40 +99,32 @@ public class GPT4AllIntegration {
     /**
      * Create a structured prompt for event query processing
      */
-    private String createPromptForEventQuery(String userQuery) {
-        return String.format("""
-            You are an AI assistant that helps users find local events, businesses, and offers. Parse the following user query and extract relevant information for search.
-            
-            User Query: "%s"
-            
-            Please extract and return ONLY a JSON object with the following structure:
-            {
-                "intent": "search_events|search_businesses|search_offers|search_general",
-                "search_types": ["events", "businesses", "offers"],
-                "category": "music|sports|family|art|food|education|entertainment|outdoor|general",
-                "subcategory": "specific subcategory if mentioned",
-                "date_range": "today|tomorrow|weekend|this_week|next_week|this_month|specific_date",
-                "city": "city name if mentioned",
-                "location": "specific location or venue if mentioned",
-                "price_range": "free|low|medium|high",
-                "age_restriction": "all_ages|teens_and_up|adults_only",
-                "keywords": ["list", "of", "relevant", "keywords"]
-            }
-            
-            Guidelines:
-            - Determine search_types based on what the user is asking for:
-              * "events" for concerts, shows, festivals, workshops, etc.
-              * "businesses" for restaurants, stores, venues, services, etc.
-              * "offers" for deals, discounts, promotions, etc.
-              * Can include multiple types if user's intent is unclear
-            - If no specific category is mentioned, use "general"
-            - If no date is mentioned, use "upcoming"
-            - If no city is mentioned, use "near_me"
-            - Extract only information explicitly mentioned or clearly implied
-            - Return valid JSON only, no additional text
-            
-            Response:
-            """, userQuery);
+    private String createPromptForEventQuery(String userQuery, String conversationContext) {
+        Map<String, String> values = new HashMap<>();
+        values.put("context", conversationContext == null ? "" : conversationContext);
+        values.put("query", userQuery);
+        return promptTemplates.render(EVENT_QUERY_PROMPT, values);
+    }
+    
+    /**
+     * Send a prompt to the backend pool that serves the operation; identical concurrent prompts share one call
+     */
+    private String generate(String operation, String prompt) throws Exception {
+        Map<String, Object> requestBody = createRequestBody(operation, prompt);
+        return promptCoalescer.execute(operation, requestBody, () ->
+            llmRouter.execute(promptTemplates.pool(operation), baseUrl -> makeHttpRequest(baseUrl + "/generate", requestBody)));
+    }
+    
+    /**
+     * Generation settings for an operation; the prompt carries everything else
+     */
+    private Map<String, Object> createRequestBody(String operation, String prompt) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("prompt", prompt);
+        requestBody.put("max_tokens", promptTemplates.maxTokens(operation));
+        requestBody.put("temperature", promptTemplates.temperature(operation));
+        requestBody.put("top_p", gpt4AllConfig.getTopP());
+        return requestBody;
     }
     
     /**
@@ -299,8 +315,8 @@ public class GPT4AllIntegration {
         connection.setRequestMethod("POST");
         connection.setRequestProperty("Content-Type", "application/json");
         connection.setDoOutput(true);
-        connection.setConnectTimeout(TIMEOUT_SECONDS * 1000);
-        connection.setReadTimeout(TIMEOUT_SECONDS * 1000);
+        connection.setConnectTimeout(gpt4AllConfig.getTimeout());
+        connection.setReadTimeout(gpt4AllConfig.getTimeout());
         
         // Convert request body to JSON
         String jsonPayload = convertToJson(requestBody);
@@ -379,19 +395,7 @@ public class GPT4AllIntegration {
      * Check if GPT4All service is available
      */
     public boolean isGPT4AllAvailable() {
-        try {
-            URL url = new URL(GPT4ALL_API_URL + "/health");
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            
-            int responseCode = connection.getResponseCode();
-            return responseCode >= 200 && responseCode < 300;
-            
-        } catch (Exception e) {
-            return false;
-        }
+        return llmRouter.hasHealthyBackend();
     }
     
     /**
@@ -401,13 +405,7 @@ public class GPT4AllIntegration {
         try {
             String prompt = createResponsePrompt(originalMessage, suggestedItems, parsedQuery);
             
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("prompt", prompt);
-            requestBody.put("max_tokens", 300);
-            requestBody.put("temperature", 0.7);
-            requestBody.put("top_p", 0.9);
-            
-            String response = makeHttpRequest(GPT4ALL_API_URL + "/generate", requestBody);
+            String response = generate(RESPONSE_PROMPT, prompt);
             
             if (response != null && !response.isEmpty()) {
                 return parseGeneratedResponse(response);
@@ -425,28 +423,15 @@ public class GPT4AllIntegration {
      * Create prompt for response generation
      */
     private String createResponsePrompt(String originalMessage, List<?> suggestedItems, Map<String, Object> parsedQuery) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("You are a helpful assistant that recommends events, businesses, and offers to users. ");
-        prompt.append("Generate a friendly, conversational response to the user's message.\n\n");
-        prompt.append("User's original message: \"").append(originalMessage).append("\"\n\n");
-        
-        if (!suggestedItems.isEmpty()) {
-            prompt.append("Here are the suggested items to recommend:\n");
-            for (int i = 0; i < suggestedItems.size(); i++) {
-                Object item = suggestedItems.get(i);
-                prompt.append(i + 1).append(". ").append(item.toString()).append("\n");
-            }
-            prompt.append("\n");
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < suggestedItems.size(); i++) {
+            items.append(i + 1).append(". ").append(suggestedItems.get(i)).append("\n");
         }
         
-        prompt.append("Generate a helpful, engaging response that:\n");
-        prompt.append("1. Acknowledges the user's request\n");
-        prompt.append("2. Presents the suggestions in an appealing way\n");
-        prompt.append("3. Encourages further interaction\n");
-        prompt.append("4. Keeps the tone friendly and conversational\n\n");
-        prompt.append("Response: ");
-        
-        return prompt.toString();
+        Map<String, String> values = new HashMap<>();
+        values.put("message", originalMessage);
+        values.put("items", items.length() > 0 ? items.toString() : "(no matching items)\n");
+        return promptTemplates.render(RESPONSE_PROMPT, values);
     }
     
     /**
@@ -468,14 +453,18 @@ public class GPT4AllIntegration {
             return response.trim();
         }
     }
-
+    
     /**
      * Get GPT4All service status
      */
     public Map<String, Object> getServiceStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("available", isGPT4AllAvailable());
-        status.put("api_url", GPT4ALL_API_URL);
+        status.put("api_url", gpt4AllConfig.getApiUrl());
+        status.put("backends", llmRouter.getBackendStatus());
+        status.put("coalescing", promptCoalescer.getStatus());
+        status.put("response_cache", responseCache.getStatus());
+        status.put("prompt_static_tokens", promptTemplates.staticTokenCounts());
         status.put("fallback_enabled", true);
         
         return status;
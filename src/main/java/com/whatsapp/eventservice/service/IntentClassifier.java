@@ -0,0 +1,253 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.IntentClassifierConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Fast-path intent classifier that runs before the LLM pipeline
+ * 
+ * A multinomial naive Bayes model over hashed unigram and bigram features, trained at
+ * startup from intent-training.tsv on the classpath plus an optional file of labeled
+ * logged queries. Classifying a message is a few hundred array reads, so greetings,
+ * thanks, help requests, button-like replies and one-word category lookups can be
+ * answered from templates. Anything the model is unsure about is reported as query
+ * and goes through the LLM as before. Words the model has not seen push the score
+ * toward the classes with little training text, so greeting, thanks and help are only
+ * trusted for short messages made almost entirely of known words; a search that
+ * opens with "good morning" or "thanks" is a query.
+ */
+@Service
+public class IntentClassifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(IntentClassifier.class);
+    
+    private static final String SEED_RESOURCE = "intent-training.tsv";
+    private static final int FEATURE_BUCKETS = 1 << 12;
+    private static final double SMOOTHING = 0.01;
+    
+    public enum Intent {
+        greeting, thanks, help, button, category_lookup, query
+    }
+    
+    /**
+     * Predicted intent and its posterior probability
+     */
+    public static class Prediction {
+        
+        private final Intent intent;
+        private final double confidence;
+        
+        private Prediction(Intent intent, double confidence) {
+            this.intent = intent;
+            this.confidence = confidence;
+        }
+        
+        public Intent getIntent() {
+            return intent;
+        }
+        
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+    
+    @Autowired
+    private IntentClassifierConfig intentClassifierConfig;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final double[][] featureCounts = new double[Intent.values().length][FEATURE_BUCKETS];
+    private final double[] featureTotals = new double[Intent.values().length];
+    private final int[] documentCounts = new int[Intent.values().length];
+    private int documents;
+    
+    // Every word seen in training, to tell small talk from searches that start like it
+    private final Set<String> vocabulary = new HashSet<>();
+    
+    // Log-probabilities, filled once training is done
+    private double[][] featureLogProbs;
+    private double[] priorLogProbs;
+    
+    @PostConstruct
+    public void train() {
+        try (InputStream seed = getClass().getClassLoader().getResourceAsStream(SEED_RESOURCE)) {
+            if (seed == null) {
+                logger.warn("⚠️ {} not found, fast-path intents disabled", SEED_RESOURCE);
+                return;
+            }
+            load(seed);
+            
+            String trainingFile = intentClassifierConfig.getTrainingFile();
+            if (trainingFile != null && !trainingFile.isBlank()) {
+                Path path = Paths.get(trainingFile);
+                if (Files.isReadable(path)) {
+                    try (InputStream logged = Files.newInputStream(path)) {
+                        load(logged);
+                    }
+                } else {
+                    logger.warn("⚠️ Intent training file not readable: {}", trainingFile);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("❌ Error loading intent training data", e);
+            return;
+        }
+        
+        finishTraining();
+        logger.info("🏷️ Intent classifier trained on {} examples", documents);
+    }
+    
+    /**
+     * Classify a message; returns query whenever the model is not confident enough
+     */
+    public Prediction classify(String text) {
+        if (!intentClassifierConfig.isEnabled() || featureLogProbs == null || text == null || text.isBlank()) {
+            return new Prediction(Intent.query, 0.0);
+        }
+        
+        List<String> tokens = tokens(text);
+        int[] features = features(tokens);
+        double[] scores = new double[Intent.values().length];
+        for (int c = 0; c < scores.length; c++) {
+            double score = priorLogProbs[c];
+            for (int feature : features) {
+                score += featureLogProbs[c][feature];
+            }
+            scores[c] = score;
+        }
+        
+        // Softmax over log scores for a posterior
+        int best = 0;
+        for (int c = 1; c < scores.length; c++) {
+            if (scores[c] > scores[best]) {
+                best = c;
+            }
+        }
+        double normalizer = 0;
+        for (double score : scores) {
+            normalizer += Math.exp(score - scores[best]);
+        }
+        double confidence = 1.0 / normalizer;
+        
+        Intent intent = Intent.values()[best];
+        if (confidence < intentClassifierConfig.getConfidenceThreshold()
+                || (isSmallTalk(intent) && !looksLikeSmallTalk(tokens))) {
+            intent = Intent.query;
+        }
+        meterRegistry.counter("intent.classified", "intent", intent.name()).increment();
+        return new Prediction(intent, confidence);
+    }
+    
+    private static boolean isSmallTalk(Intent intent) {
+        return intent == Intent.greeting || intent == Intent.thanks || intent == Intent.help;
+    }
+    
+    /**
+     * Short, and almost all words were seen in training
+     */
+    private boolean looksLikeSmallTalk(List<String> tokens) {
+        if (tokens.isEmpty() || tokens.size() > intentClassifierConfig.getMaxSmallTalkWords()) {
+            return false;
+        }
+        long known = tokens.stream().filter(vocabulary::contains).count();
+        return known >= tokens.size() * intentClassifierConfig.getMinKnownWordRatio();
+    }
+    
+    private void load(InputStream input) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                try {
+                    addExample(Intent.valueOf(line.substring(0, tab).trim()), line.substring(tab + 1));
+                } catch (IllegalArgumentException e) {
+                    logger.warn("⚠️ Unknown intent label in training data: {}", line.substring(0, tab));
+                }
+            }
+        }
+    }
+    
+    private void addExample(Intent intent, String text) {
+        int c = intent.ordinal();
+        List<String> tokens = tokens(text);
+        vocabulary.addAll(tokens);
+        for (int feature : features(tokens)) {
+            featureCounts[c][feature]++;
+            featureTotals[c]++;
+        }
+        documentCounts[c]++;
+        documents++;
+    }
+    
+    private void finishTraining() {
+        int classes = Intent.values().length;
+        double[][] logProbs = new double[classes][FEATURE_BUCKETS];
+        double[] priors = new double[classes];
+        for (int c = 0; c < classes; c++) {
+            priors[c] = Math.log((documentCounts[c] + SMOOTHING) / (documents + SMOOTHING * classes));
+            double denominator = featureTotals[c] + SMOOTHING * FEATURE_BUCKETS;
+            for (int f = 0; f < FEATURE_BUCKETS; f++) {
+                logProbs[c][f] = Math.log((featureCounts[c][f] + SMOOTHING) / denominator);
+            }
+        }
+        priorLogProbs = priors;
+        featureLogProbs = logProbs;
+    }
+    
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}']+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * Hashed unigrams, bigrams and a message-length bucket
+     */
+    static int[] features(List<String> tokens) {
+        int[] features = new int[tokens.size() * 2 + 1];
+        int n = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            features[n++] = bucket("u:" + tokens.get(i));
+            if (i > 0) {
+                features[n++] = bucket("b:" + tokens.get(i - 1) + " " + tokens.get(i));
+            }
+        }
+        features[n++] = bucket("len:" + Math.min(tokens.size(), 6));
+        return Arrays.copyOf(features, n);
+    }
+    
+    private static int bucket(String feature) {
+        return Math.floorMod(feature.hashCode() * 0x9E3779B1, FEATURE_BUCKETS);
+    }
+}
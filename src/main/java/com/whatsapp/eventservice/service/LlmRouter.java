@@ -0,0 +1,359 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.GPT4AllConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes LLM calls across a pool of inference backends
+ * 
+ * Each backend tracks its in-flight requests, an EWMA of its latency and a window of
+ * recent latencies. A call goes to the better of two randomly picked healthy backends
+ * in its pool (power of two choices on in-flight x latency). If the answer has not
+ * arrived by the backend's p95, the same call is hedged to a second backend and the
+ * first successful answer wins. Attempts run on a bounded pool sized to what the
+ * backends can serve at once; when it is full, the call runs on the caller's thread
+ * and is not hedged. A backend is taken out of rotation after consecutive failures
+ * and put back when its health check passes.
+ */
+@Service
+public class LlmRouter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LlmRouter.class);
+    
+    public static final String DEFAULT_POOL = "default";
+    
+    private static final double EWMA_ALPHA = 0.2;
+    private static final int LATENCY_WINDOW = 128;
+    private static final int MIN_SAMPLES_FOR_P95 = 20;
+    
+    @Autowired
+    private GPT4AllConfig gpt4AllConfig;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final List<Backend> backends = new ArrayList<>();
+    
+    private ThreadPoolExecutor hedgeExecutor;
+    
+    /**
+     * A call against one backend's base URL
+     */
+    @FunctionalInterface
+    public interface BackendCall {
+        String call(String baseUrl) throws Exception;
+    }
+    
+    @PostConstruct
+    public void initBackends() {
+        if (gpt4AllConfig.getBackends().isEmpty()) {
+            backends.add(new Backend(DEFAULT_POOL, gpt4AllConfig.getApiUrl(), DEFAULT_POOL));
+        } else {
+            for (GPT4AllConfig.Backend backend : gpt4AllConfig.getBackends()) {
+                String name = backend.getName() != null ? backend.getName() : backend.getUrl();
+                backends.add(new Backend(name, backend.getUrl(), backend.getPool()));
+            }
+        }
+        
+        for (Backend backend : backends) {
+            meterRegistry.gauge("llm.in_flight", Tags.of("backend", backend.name), backend, b -> b.inFlight.get());
+        }
+        
+        // No queue: an attempt either gets a thread now or is not run on the pool at all
+        int threads = Math.max(2, backends.size() * gpt4AllConfig.getConcurrencyPerBackend());
+        AtomicInteger threadCount = new AtomicInteger();
+        hedgeExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "llm-hedge-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        hedgeExecutor.allowCoreThreadTimeOut(true);
+        meterRegistry.gauge("llm.hedge.active", Tags.empty(), hedgeExecutor, ThreadPoolExecutor::getActiveCount);
+        logger.info("🧠 LLM router initialized with {} backends", backends.size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+    
+    /**
+     * Run a call on the pool's best backend, hedging to a second one when it is slow
+     */
+    public String execute(String pool, BackendCall call) throws Exception {
+        List<Backend> candidates = candidates(pool);
+        Backend primary = pick(candidates, null);
+        
+        if (!gpt4AllConfig.isHedgingEnabled() || candidates.size() < 2) {
+            return invoke(primary, call);
+        }
+        
+        CompletionService<String> completion = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<String>> attempts = new ArrayList<>(2);
+        try {
+            attempts.add(completion.submit(() -> invoke(primary, call)));
+        } catch (RejectedExecutionException e) {
+            // Every hedging thread is busy, many with losers still blocked in reads
+            meterRegistry.counter("llm.hedge.skipped", "pool", pool).increment();
+            return invoke(primary, call);
+        }
+        
+        try {
+            Future<String> first = completion.poll(primary.hedgeDelayMs(), TimeUnit.MILLISECONDS);
+            if (first != null) {
+                try {
+                    return first.get();
+                } catch (ExecutionException e) {
+                    // Failed fast; the second backend is a retry rather than a hedge
+                    logger.warn("⚠️ LLM backend {} failed, retrying on another backend", primary.name);
+                }
+            } else {
+                meterRegistry.counter("llm.hedged", "pool", pool).increment();
+            }
+            
+            Backend secondary = pick(candidates, primary);
+            try {
+                attempts.add(completion.submit(() -> invoke(secondary, call)));
+            } catch (RejectedExecutionException e) {
+                meterRegistry.counter("llm.hedge.skipped", "pool", pool).increment();
+                if (first != null) {
+                    // The primary already failed, so retry here rather than not at all
+                    return invoke(secondary, call);
+                }
+                // No thread for a hedge; keep waiting for the primary
+                try {
+                    return completion.take().get();
+                } catch (ExecutionException failure) {
+                    throw failure.getCause() instanceof Exception cause ? cause : failure;
+                }
+            }
+            
+            Exception lastFailure = null;
+            for (int pending = first != null ? 1 : 2; pending > 0; pending--) {
+                try {
+                    return completion.take().get();
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            throw lastFailure;
+        } finally {
+            // A blocking HTTP read ignores the interrupt, so the loser finishes in the background and its answer is dropped
+            for (Future<String> attempt : attempts) {
+                attempt.cancel(true);
+            }
+        }
+    }
+    
+    /**
+     * Whether any backend is currently in rotation
+     */
+    public boolean hasHealthyBackend() {
+        return backends.stream().anyMatch(backend -> backend.healthy);
+    }
+    
+    /**
+     * Probe every backend's /health endpoint and update its rotation state
+     */
+    @Scheduled(fixedDelayString = "${ai.gpt4all.health-check-interval-ms:10000}")
+    public void checkHealth() {
+        for (Backend backend : backends) {
+            boolean healthy = probe(backend);
+            if (healthy != backend.healthy) {
+                logger.info(healthy ? "✅ LLM backend {} is back in rotation" : "❌ LLM backend {} failed its health check",
+                           backend.name);
+            }
+            backend.healthy = healthy;
+            if (healthy) {
+                backend.consecutiveFailures.set(0);
+            }
+        }
+    }
+    
+    /**
+     * Per-backend routing state, for the status endpoint
+     */
+    public List<Map<String, Object>> getBackendStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (Backend backend : backends) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", backend.name);
+            entry.put("url", backend.url);
+            entry.put("pool", backend.pool);
+            entry.put("healthy", backend.healthy);
+            entry.put("in_flight", backend.inFlight.get());
+            entry.put("ewma_latency_ms", Math.round(backend.ewmaLatencyMs));
+            entry.put("p95_latency_ms", backend.p95LatencyMs());
+            status.add(entry);
+        }
+        return status;
+    }
+    
+    private String invoke(Backend backend, BackendCall call) throws Exception {
+        backend.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            String result = call.call(backend.url);
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            backend.recordSuccess(latencyMs);
+            meterRegistry.timer("llm.request", "backend", backend.name, "outcome", "success").record(latencyMs, TimeUnit.MILLISECONDS);
+            return result;
+        } catch (Exception e) {
+            meterRegistry.timer("llm.request", "backend", backend.name, "outcome", "error")
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (backend.consecutiveFailures.incrementAndGet() >= gpt4AllConfig.getUnhealthyAfterFailures() && backend.healthy) {
+                backend.healthy = false;
+                logger.warn("❌ LLM backend {} taken out of rotation after {} failures", backend.name,
+                           backend.consecutiveFailures.get());
+            }
+            throw e;
+        } finally {
+            backend.inFlight.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Healthy backends of a pool; the whole pool if none is healthy, every backend if the pool is unknown
+     */
+    private List<Backend> candidates(String pool) {
+        List<Backend> inPool = new ArrayList<>();
+        for (Backend backend : backends) {
+            if (backend.pool.equals(pool)) {
+                inPool.add(backend);
+            }
+        }
+        if (inPool.isEmpty()) {
+            inPool.addAll(backends);
+        }
+        
+        List<Backend> healthy = new ArrayList<>();
+        for (Backend backend : inPool) {
+            if (backend.healthy) {
+                healthy.add(backend);
+            }
+        }
+        return healthy.isEmpty() ? inPool : healthy;
+    }
+    
+    /**
+     * Power of two choices: the less loaded of two random candidates
+     */
+    private static Backend pick(List<Backend> candidates, Backend exclude) {
+        List<Backend> choices = new ArrayList<>(candidates);
+        if (exclude != null && choices.size() > 1) {
+            choices.remove(exclude);
+        }
+        if (choices.size() == 1) {
+            return choices.get(0);
+        }
+        
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(choices.size());
+        int second = random.nextInt(choices.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Backend a = choices.get(first);
+        Backend b = choices.get(second);
+        return a.load() <= b.load() ? a : b;
+    }
+    
+    private boolean probe(Backend backend) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(backend.url + "/health").openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(5000);
+            connection.setReadTimeout(5000);
+            
+            int responseCode = connection.getResponseCode();
+            return responseCode >= 200 && responseCode < 300;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private class Backend {
+        
+        private final String name;
+        private final String url;
+        private final String pool;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final long[] latencies = new long[LATENCY_WINDOW];
+        private int samples;
+        private volatile double ewmaLatencyMs;
+        private volatile boolean healthy = true;
+        
+        private Backend(String name, String url, String pool) {
+            this.name = name;
+            this.url = url;
+            this.pool = pool != null ? pool : DEFAULT_POOL;
+        }
+        
+        private synchronized void recordSuccess(long latencyMs) {
+            latencies[samples % LATENCY_WINDOW] = latencyMs;
+            samples++;
+            ewmaLatencyMs = ewmaLatencyMs == 0 ? latencyMs : EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * ewmaLatencyMs;
+            consecutiveFailures.set(0);
+            healthy = true;
+        }
+        
+        private synchronized long p95LatencyMs() {
+            int count = Math.min(samples, LATENCY_WINDOW);
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+        
+        /**
+         * Wait this long before hedging; the p95 once there are enough samples, twice the EWMA before that
+         */
+        private long hedgeDelayMs() {
+            long delay;
+            synchronized (this) {
+                if (samples >= MIN_SAMPLES_FOR_P95) {
+                    delay = p95LatencyMs();
+                } else if (ewmaLatencyMs > 0) {
+                    delay = Math.round(ewmaLatencyMs * 2);
+                } else {
+                    delay = gpt4AllConfig.getTimeout() / 2;
+                }
+            }
+            return Math.max(gpt4AllConfig.getHedgeMinDelayMs(), delay);
+        }
+        
+        private double load() {
+            return (inFlight.get() + 1) * Math.max(ewmaLatencyMs, 1.0);
+        }
+    }
+}
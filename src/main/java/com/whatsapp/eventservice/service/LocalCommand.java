@@ -0,0 +1,65 @@
+package com.whatsapp.eventservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a configured local tool (OCR, audio decoding, speech recognition) with a timeout
+ * 
+ * Standard output goes to a temporary file rather than a pipe, so a tool that hangs can
+ * be killed on timeout without a reader thread, and a chatty one cannot block on a full pipe.
+ */
+final class LocalCommand {
+    
+    private static final int MAX_OUTPUT_BYTES = 64 * 1024;
+    
+    private LocalCommand() {
+    }
+    
+    /**
+     * Run the command with {placeholders} substituted and return what it printed
+     * 
+     * @param command Command line from configuration
+     * @param substitutions Placeholder name to value, e.g. input to a file path
+     * @throws IOException If the command fails, exits non-zero or times out
+     */
+    static String run(List<String> command, Map<String, String> substitutions, int timeoutSeconds)
+            throws IOException, InterruptedException {
+        List<String> resolved = new ArrayList<>(command.size());
+        for (String part : command) {
+            for (Map.Entry<String, String> substitution : substitutions.entrySet()) {
+                part = part.replace("{" + substitution.getKey() + "}", substitution.getValue());
+            }
+            resolved.add(part);
+        }
+        
+        Path output = Files.createTempFile("command-", ".out");
+        try {
+            Process process = new ProcessBuilder(resolved)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .redirectOutput(output.toFile())
+                .start();
+            
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException(resolved.get(0) + " timed out after " + timeoutSeconds + " s");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(resolved.get(0) + " exited with status " + process.exitValue());
+            }
+            
+            try (InputStream in = Files.newInputStream(output)) {
+                return new String(in.readNBytes(MAX_OUTPUT_BYTES), StandardCharsets.UTF_8);
+            }
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.MediaItem;
+
+/**
+ * Downstream consumer of stored media, such as text or speech extraction
+ * 
+ * Extractors are handed each stored item they support and run the work on their own
+ * threads; enqueue must return without doing the extraction itself. Items that could
+ * not be fetched are handed to failed instead, so the user still gets an answer.
+ */
+public interface MediaExtractor {
+    
+    /**
+     * Whether this extractor handles the item, by kind or mime type
+     */
+    boolean supports(MediaItem item);
+    
+    /**
+     * Queue a stored item for extraction
+     */
+    void enqueue(MediaItem item);
+    
+    /**
+     * An item this extractor supports could not be downloaded or looked up
+     */
+    void failed(MediaItem item);
+}
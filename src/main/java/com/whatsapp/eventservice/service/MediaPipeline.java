@@ -0,0 +1,166 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.MediaConfig;
+import com.whatsapp.eventservice.model.MediaItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous pipeline for inbound media: download, hash, store, hand off to extractors
+ * 
+ * Message handling only queues the item and returns. A fixed pool of download threads
+ * with a bounded queue fetches the media through the Graph API and streams it into the
+ * content-addressed MediaStore; when the declared sha256 is already stored, the download
+ * is skipped. Stored items are then queued on every MediaExtractor that supports them;
+ * when the download fails, those extractors are told so they can answer the user.
+ * When the queue is full, new media is rejected rather than piling up.
+ */
+@Service
+public class MediaPipeline {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MediaPipeline.class);
+    
+    @Autowired
+    private MediaConfig mediaConfig;
+    
+    @Autowired
+    private MediaStore mediaStore;
+    
+    @Autowired
+    private WhatsAppMessageService whatsAppMessageService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired(required = false)
+    private List<MediaExtractor> extractors = List.of();
+    
+    private ThreadPoolExecutor downloads;
+    
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        downloads = new ThreadPoolExecutor(
+            mediaConfig.getDownloadThreads(), mediaConfig.getDownloadThreads(), 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(mediaConfig.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "media-download-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        meterRegistry.gauge("media.queue", Tags.empty(), downloads, executor -> executor.getQueue().size());
+        logger.info("📦 Media pipeline started with {} download threads and {} extractors",
+                   mediaConfig.getDownloadThreads(), extractors.size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        downloads.shutdownNow();
+    }
+    
+    /**
+     * Queue a media item; returns immediately
+     * 
+     * @return False if the pipeline is disabled or its queue is full
+     */
+    public boolean submit(MediaItem item) {
+        if (!mediaConfig.isEnabled() || item.getMediaId() == null) {
+            return false;
+        }
+        
+        try {
+            downloads.execute(() -> process(item));
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Media queue full, dropping {}", item);
+            meterRegistry.counter("media.processed", "outcome", "rejected").increment();
+            return false;
+        }
+    }
+    
+    private void process(MediaItem item) {
+        long start = System.currentTimeMillis();
+        String outcome;
+        
+        try {
+            String declaredHash = MediaStore.normalizeHash(item.getDeclaredSha256());
+            Optional<Path> existing = mediaStore.find(declaredHash);
+            if (existing.isPresent()) {
+                item.setContentHash(declaredHash);
+                item.setPath(existing.get());
+                item.setSize(Files.size(existing.get()));
+                outcome = "deduplicated";
+            } else {
+                MediaStore.Stored stored = download(item);
+                if (declaredHash != null && !declaredHash.equals(stored.getContentHash())) {
+                    // Stored under the hash of what was received; the declared one is only a hint
+                    logger.warn("⚠️ Media {} hash differs from the declared sha256", item.getMediaId());
+                }
+                item.setContentHash(stored.getContentHash());
+                item.setPath(stored.getPath());
+                item.setSize(stored.getSize());
+                outcome = stored.isDeduplicated() ? "deduplicated" : "stored";
+            }
+        } catch (Exception e) {
+            logger.error("❌ Error fetching media {}", item, e);
+            meterRegistry.counter("media.processed", "outcome", "failed").increment();
+            // The user was told a reply is coming
+            for (MediaExtractor extractor : extractors) {
+                if (extractor.supports(item)) {
+                    extractor.failed(item);
+                }
+            }
+            return;
+        }
+        
+        meterRegistry.counter("media.processed", "outcome", outcome).increment();
+        logger.info("📦 Media {} {} as {} ({} bytes, {} ms)", item.getMediaId(), outcome,
+                   item.getContentHash(), item.getSize(), System.currentTimeMillis() - start);
+        
+        for (MediaExtractor extractor : extractors) {
+            if (extractor.supports(item)) {
+                extractor.enqueue(item);
+            }
+        }
+    }
+    
+    private MediaStore.Stored download(MediaItem item) throws IOException {
+        long maxBytes = mediaConfig.getMaxFileSizeMb() * 1024 * 1024;
+        
+        Map<String, Object> info = whatsAppMessageService.getMediaInfo(item.getMediaId(), item.getFrom());
+        if (info == null || !(info.get("url") instanceof String url)) {
+            throw new IOException("No download URL for media " + item.getMediaId());
+        }
+        if (info.get("file_size") instanceof Number fileSize && fileSize.longValue() > maxBytes) {
+            throw new IOException("Media " + item.getMediaId() + " is " + fileSize + " bytes, over the limit");
+        }
+        if (item.getMimeType() == null && info.get("mime_type") instanceof String mimeType) {
+            item.setMimeType(mimeType);
+        }
+        
+        return whatsAppMessageService.downloadMedia(url, item.getFrom(), response -> {
+            if (response.getRawStatusCode() / 100 != 2) {
+                throw new IOException("Media download failed with status " + response.getRawStatusCode());
+            }
+            return mediaStore.store(response.getBody(), maxBytes);
+        });
+    }
+}
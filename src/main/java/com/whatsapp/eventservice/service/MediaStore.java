@@ -0,0 +1,189 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.MediaConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Content-addressed store for inbound media on the local filesystem
+ * 
+ * Content is stored once under its SHA-256 as lowercase hex, fanned out over two
+ * directory levels (ab/cd/abcd...). Writes stream through a FileChannel into a
+ * temporary file and are moved into place atomically, so a path in the store always
+ * holds complete content and identical media sent by many users is kept once.
+ */
+@Service
+public class MediaStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MediaStore.class);
+    
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    
+    @Autowired
+    private MediaConfig mediaConfig;
+    
+    private Path root;
+    private Path tmpDir;
+    
+    /**
+     * Result of storing a stream
+     */
+    public static class Stored {
+        
+        private final String contentHash;
+        private final Path path;
+        private final long size;
+        private final boolean deduplicated;
+        
+        private Stored(String contentHash, Path path, long size, boolean deduplicated) {
+            this.contentHash = contentHash;
+            this.path = path;
+            this.size = size;
+            this.deduplicated = deduplicated;
+        }
+        
+        public String getContentHash() {
+            return contentHash;
+        }
+        
+        public Path getPath() {
+            return path;
+        }
+        
+        public long getSize() {
+            return size;
+        }
+        
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+    
+    @PostConstruct
+    public void initStorage() throws IOException {
+        root = Paths.get(mediaConfig.getStorageDir()).toAbsolutePath();
+        tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        logger.info("🗄️ Media store at {}", root);
+    }
+    
+    /**
+     * Path of the content with the given hash, if it is already stored
+     */
+    public Optional<Path> find(String contentHash) {
+        if (contentHash == null) {
+            return Optional.empty();
+        }
+        Path path = pathFor(contentHash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+    
+    /**
+     * Stream content into the store, hashing it on the way
+     * 
+     * @param content Stream to read; not closed
+     * @param maxBytes Content beyond this size is rejected
+     * @throws IOException If the stream fails or exceeds maxBytes
+     */
+    public Stored store(InputStream content, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(tmpDir, "media-", ".part");
+        long size = 0;
+        
+        try {
+            ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, digest));
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                long transferred;
+                // transferFrom copies through a small internal buffer; the content never sits in heap as a whole
+                while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                    size += transferred;
+                    if (size > maxBytes) {
+                        throw new IOException("Media exceeds " + maxBytes + " bytes");
+                    }
+                }
+                target.force(false);
+            }
+            
+            String contentHash = toHex(digest.digest());
+            Path path = pathFor(contentHash);
+            if (Files.isRegularFile(path)) {
+                Files.delete(temp);
+                return new Stored(contentHash, path, size, true);
+            }
+            
+            Files.createDirectories(path.getParent());
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Stored concurrently by another download of the same content
+                Files.deleteIfExists(temp);
+                return new Stored(contentHash, path, size, true);
+            }
+            return new Stored(contentHash, path, size, false);
+            
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+    
+    /**
+     * Normalize a declared SHA-256 to lowercase hex; WhatsApp sends it base64-encoded,
+     * but hex is accepted as well. Returns null if the value is not a SHA-256.
+     */
+    public static String normalizeHash(String declared) {
+        if (declared == null || declared.isBlank()) {
+            return null;
+        }
+        String value = declared.trim();
+        if (value.length() == 64 && value.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return value.toLowerCase();
+        }
+        try {
+            byte[] bytes = Base64.getDecoder().decode(value);
+            return bytes.length == 32 ? toHex(bytes) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    private Path pathFor(String contentHash) {
+        return root.resolve(contentHash.substring(0, 2)).resolve(contentHash.substring(2, 4)).resolve(contentHash);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
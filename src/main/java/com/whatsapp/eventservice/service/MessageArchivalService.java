@@ -0,0 +1,251 @@
+package com.whatsapp.eventservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.eventservice.config.ArchivalConfig;
+import com.whatsapp.eventservice.repository.PartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps message-history tables partitioned by month and moves cold months to archive files
+ * 
+ * Each run makes sure the coming months have their own partitions, so new rows never
+ * pile up in p_future; the first run also splits off every month since the oldest row. Partitions older than hot-months are streamed page by page into
+ * gzipped NDJSON files under archive-dir and then dropped, which removes a month of
+ * rows without a long-running DELETE. A partition is only dropped once its archive
+ * file is complete and holds as many rows as the partition.
+ */
+@Service
+public class MessageArchivalService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchivalService.class);
+    
+    private static final DateTimeFormatter ARCHIVE_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String ARCHIVE_SUFFIX = ".ndjson.gz";
+    
+    @Autowired
+    private ArchivalConfig archivalConfig;
+    
+    @Autowired
+    private PartitionRepository partitionRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+    
+    /**
+     * Nightly partition maintenance for every configured table, on one instance of the cluster
+     */
+    @Scheduled(cron = "${archival.cron:0 15 2 * * *}")
+    public void runMaintenance() {
+        if (archivalConfig.isEnabled()) {
+            clusterJobScheduler.runExclusive("message-archival", this::maintain);
+        }
+    }
+    
+    private void maintain(ClusterJobScheduler.Lease lease) {
+        YearMonth currentMonth = YearMonth.now();
+        for (ArchivalConfig.Table table : archivalConfig.getTables()) {
+            if (!lease.isHeld()) {
+                logger.warn("⚠️ Archival lease lost, leaving the remaining tables to the new leader");
+                return;
+            }
+            try {
+                maintainTable(table, currentMonth);
+            } catch (Exception e) {
+                // One table failing must not stop the others
+                logger.error("❌ Error maintaining partitions of table: {}", table.getName(), e);
+            }
+        }
+        
+        pruneArchives(currentMonth);
+    }
+    
+    private void maintainTable(ArchivalConfig.Table tableConfig, YearMonth currentMonth) throws IOException {
+        String table = tableConfig.getName();
+        List<String> partitions = partitionRepository.findPartitionNames(table);
+        if (!partitions.contains(PartitionRepository.FUTURE_PARTITION)) {
+            logger.warn("⚠️ Table {} is not partitioned by month, skipping archival", table);
+            return;
+        }
+        
+        ensureFuturePartitions(tableConfig, partitions, currentMonth);
+        // Months split off p_future just now are archived in this run, not the next one
+        partitions = partitionRepository.findPartitionNames(table);
+        
+        YearMonth oldestHotMonth = currentMonth.minusMonths(archivalConfig.getHotMonths());
+        for (String partition : partitions) {
+            YearMonth month = PartitionRepository.monthOf(partition);
+            if (month != null && month.isBefore(oldestHotMonth)) {
+                archivePartition(table, partition, month);
+            }
+        }
+    }
+    
+    /**
+     * Split p_future until the current month and the next future-partitions months exist
+     * 
+     * On the first run, with only p_future, the split starts at the month of the oldest
+     * row, so months already written get their own partitions and can be archived.
+     */
+    private void ensureFuturePartitions(ArchivalConfig.Table tableConfig, List<String> partitions, YearMonth currentMonth) {
+        String table = tableConfig.getName();
+        
+        // REORGANIZE can only split p_future, so start after the last monthly partition
+        YearMonth lastMonth = null;
+        for (String partition : partitions) {
+            YearMonth month = PartitionRepository.monthOf(partition);
+            if (month != null && (lastMonth == null || month.isAfter(lastMonth))) {
+                lastMonth = month;
+            }
+        }
+        if (lastMonth == null) {
+            YearMonth oldestMonth = partitionRepository.findOldestMonth(table, tableConfig.getTimeColumn())
+                .filter(month -> month.isBefore(currentMonth))
+                .orElse(currentMonth);
+            lastMonth = oldestMonth.minusMonths(1);
+        }
+        
+        YearMonth until = currentMonth.plusMonths(archivalConfig.getFuturePartitions());
+        for (YearMonth month = lastMonth.plusMonths(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            partitionRepository.addMonthlyPartition(table, month);
+        }
+    }
+    
+    /**
+     * Stream a partition to its archive file, verify the row count and drop the partition
+     */
+    private void archivePartition(String table, String partition, YearMonth month) throws IOException {
+        long expected = partitionRepository.countRows(table, partition);
+        Path target = archiveFile(table, month);
+        
+        if (expected > 0) {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            
+            long written = writeArchive(table, partition, temp);
+            if (written != expected) {
+                Files.deleteIfExists(temp);
+                logger.error("❌ Archive of {}.{} has {} rows, partition has {}; keeping partition",
+                            table, partition, written, expected);
+                return;
+            }
+            
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("📦 Archived {} rows of {}.{} to {}", written, table, partition, target);
+        }
+        
+        partitionRepository.dropPartition(table, partition);
+    }
+    
+    private long writeArchive(String table, String partition, Path file) throws IOException {
+        int pageSize = archivalConfig.getPageSize();
+        long[] written = {0};
+        long[] lastId = {0};
+        int[] pageRows = {0};
+        
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(file)), StandardCharsets.UTF_8))) {
+            // Keyset pages stay under spring.jdbc.template.max-rows and never hold a month in memory
+            do {
+                pageRows[0] = 0;
+                partitionRepository.readPage(table, partition, lastId[0], pageSize, rs -> {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        Object value = rs.getObject(i);
+                        if (value instanceof Timestamp timestamp) {
+                            value = timestamp.toLocalDateTime().toString();
+                        }
+                        row.put(metaData.getColumnLabel(i), value);
+                    }
+                    
+                    try {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    
+                    lastId[0] = rs.getLong("id");
+                    pageRows[0]++;
+                    written[0]++;
+                });
+            } while (pageRows[0] >= pageSize);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        return written[0];
+    }
+    
+    /**
+     * Delete archive files older than archive-retention-months; 0 keeps them forever
+     */
+    private void pruneArchives(YearMonth currentMonth) {
+        int retentionMonths = archivalConfig.getArchiveRetentionMonths();
+        if (retentionMonths <= 0) {
+            return;
+        }
+        
+        YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+        for (ArchivalConfig.Table table : archivalConfig.getTables()) {
+            Path directory = Paths.get(archivalConfig.getArchiveDir(), table.getName());
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, table.getName() + "-*" + ARCHIVE_SUFFIX)) {
+                for (Path file : files) {
+                    YearMonth month = archiveMonth(table.getName(), file);
+                    if (month != null && month.isBefore(oldestKept)) {
+                        Files.delete(file);
+                        logger.info("🗑️ Deleted expired archive: {}", file);
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("❌ Error pruning archives in: {}", directory, e);
+            }
+        }
+    }
+    
+    private Path archiveFile(String table, YearMonth month) {
+        return Paths.get(archivalConfig.getArchiveDir(), table, table + "-" + month.format(ARCHIVE_MONTH) + ARCHIVE_SUFFIX);
+    }
+    
+    private static YearMonth archiveMonth(String table, Path file) {
+        String name = file.getFileName().toString();
+        String month = name.substring(table.length() + 1, name.length() - ARCHIVE_SUFFIX.length());
+        try {
+            return YearMonth.parse(month, ARCHIVE_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
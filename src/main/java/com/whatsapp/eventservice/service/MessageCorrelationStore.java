@@ -0,0 +1,159 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.DeliveryTrackingConfig;
+import com.whatsapp.eventservice.model.MessageCorrelation;
+import com.whatsapp.eventservice.repository.MessageCorrelationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Index from the wamid of an outbound message to the conversation, message row and
+ * campaign it was sent for
+ * 
+ * Recent sends are kept in a bounded hot window, so status callbacks, which mostly
+ * arrive within minutes of the send, are correlated with a map lookup. Every correlation
+ * is also queued and written to message_correlation in batches; lookups that miss the
+ * hot window fall back to a primary-key read, and analytics join on wamid in the database.
+ */
+@Service
+public class MessageCorrelationStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MessageCorrelationStore.class);
+    
+    @Autowired
+    private DeliveryTrackingConfig deliveryTrackingConfig;
+    
+    @Autowired
+    private MessageCorrelationRepository messageCorrelationRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Queue<MessageCorrelation> unwritten = new ConcurrentLinkedQueue<>();
+    
+    // Insertion-ordered; the eldest send leaves the window first
+    private final LinkedHashMap<String, MessageCorrelation> hotWindow = new LinkedHashMap<>();
+    
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("correlation.unwritten", Tags.empty(), unwritten, Queue::size);
+    }
+    
+    /**
+     * Record the correlation of a message the Cloud API has accepted
+     */
+    public void record(MessageCorrelation correlation) {
+        if (correlation.getWamid() == null) {
+            return;
+        }
+        
+        synchronized (hotWindow) {
+            hotWindow.put(correlation.getWamid(), correlation);
+            while (hotWindow.size() > deliveryTrackingConfig.getCorrelationHotEntries()) {
+                hotWindow.remove(hotWindow.keySet().iterator().next());
+            }
+        }
+        unwritten.add(correlation);
+    }
+    
+    /**
+     * Find what an outbound message was sent for, from the hot window or the database
+     */
+    public Optional<MessageCorrelation> find(String wamid) {
+        if (wamid == null) {
+            return Optional.empty();
+        }
+        
+        MessageCorrelation correlation;
+        synchronized (hotWindow) {
+            correlation = hotWindow.get(wamid);
+        }
+        if (correlation != null) {
+            meterRegistry.counter("correlation.lookup", "source", "memory").increment();
+            return Optional.of(correlation);
+        }
+        
+        meterRegistry.counter("correlation.lookup", "source", "database").increment();
+        return messageCorrelationRepository.findByWamid(wamid);
+    }
+    
+    /**
+     * Hot-window lookup only, for callers that must not block on the database
+     */
+    public Optional<MessageCorrelation> findRecent(String wamid) {
+        synchronized (hotWindow) {
+            return Optional.ofNullable(hotWindow.get(wamid));
+        }
+    }
+    
+    /**
+     * Write queued correlations to the database in batches
+     */
+    @Scheduled(fixedDelayString = "${delivery-tracking.flush-interval-ms:2000}")
+    public void flush() {
+        int batchSize = deliveryTrackingConfig.getBatchSize();
+        List<MessageCorrelation> batch = new ArrayList<>(batchSize);
+        
+        MessageCorrelation correlation;
+        while ((correlation = unwritten.poll()) != null) {
+            batch.add(correlation);
+            if (batch.size() >= batchSize) {
+                if (!write(batch)) {
+                    return;
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private boolean write(List<MessageCorrelation> batch) {
+        try {
+            messageCorrelationRepository.insertAll(batch);
+            return true;
+        } catch (Exception e) {
+            // Retried on the next flush, unless the backlog is already at its limit
+            if (unwritten.size() + batch.size() <= deliveryTrackingConfig.getMaxPending()) {
+                unwritten.addAll(batch);
+            } else {
+                logger.warn("⚠️ Correlation backlog full, dropping {} correlations", batch.size());
+                meterRegistry.counter("correlation.dropped").increment(batch.size());
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Store counters, for the status endpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        synchronized (hotWindow) {
+            status.put("hot_entries", hotWindow.size());
+        }
+        status.put("unwritten", unwritten.size());
+        return status;
+    }
+}
@@ -1,13 +1,20 @@
 package com.whatsapp.eventservice.service;
 
+import com.whatsapp.eventservice.config.IntentClassifierConfig;
+import com.whatsapp.eventservice.model.MediaItem;
 import com.whatsapp.eventservice.model.Message;
+import com.whatsapp.eventservice.model.MessageCorrelation;
+import com.whatsapp.eventservice.model.SuggestedItem;
+import com.whatsapp.eventservice.model.VoiceTranscript;
 import com.whatsapp.eventservice.model.WhatsAppWebhookPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -21,12 +28,32 @@ public class MessageProcessingService {
     
     private static final Logger logger = LoggerFactory.getLogger(MessageProcessingService.class);
     
+    private static final String THANKS_REPLY = "You're welcome! 😊 Ask me anytime about events, places or deals near you.";
+    private static final String GREETING_REPLY = "👋 I can help you find local events, businesses and offers. Try 'What music events are happening this weekend?' or type 'help'.";
+    
+    // Button titles users tend to type instead of tapping, mapped to their button ids
+    private static final Map<String, String> TYPED_BUTTONS = Map.of(
+        "interested", "interested",
+        "yes interested", "interested",
+        "not interested", "not_interested",
+        "no thanks not interested", "not_interested",
+        "more info", "more_info",
+        "more information", "more_info",
+        "tell me more", "more_info",
+        "details", "more_info",
+        "change preferences", "change_preferences",
+        "set preferences", "set_preferences"
+    );
+    
     @Autowired
     private UserService userService;
     
     @Autowired
     private EventService eventService;
     
+    @Autowired
+    private ButtonActionRouter buttonActionRouter;
+    
     @Autowired
     private AIQueryProcessor aiQueryProcessor;
     
@@ -36,6 +63,27 @@ public class MessageProcessingService {
     @Autowired
     private ConversationOrchestrationService orchestrationService;
     
+    @Autowired
+    private IntentClassifier intentClassifier;
+    
+    @Autowired
+    private IntentClassifierConfig intentClassifierConfig;
+    
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+    
+    @Autowired
+    private MessageCorrelationStore messageCorrelationStore;
+    
+    @Autowired
+    private MediaPipeline mediaPipeline;
+    
+    @Autowired
+    private FlyerTextExtractor flyerTextExtractor;
+    
+    @Autowired
+    private VoiceTranscriber voiceTranscriber;
+    
     /**
      * Process incoming WhatsApp message
      * 
@@ -61,12 +109,13 @@ public class MessageProcessingService {
             userService.logUserActivity(user.getId(), "message_received", messageType, null, 
                                       getMessageContent(message), null);
             
-            // Process different message types
-            String response = processMessageByType(user, message, contacts);
+            // Process different message types; correlation is filled in when the reply is a stored message
+            MessageCorrelation correlation = new MessageCorrelation();
+            String response = processMessageByType(user, message, contacts, correlation);
             
             // Send response if available
             if (response != null && !response.isEmpty()) {
-                whatsAppMessageService.sendTextMessage(fromNumber, response);
+                whatsAppMessageService.sendTextMessage(fromNumber, response, correlation);
                 
                 // Save response to conversation history
                 saveConversationHistory(user.getId(), "text", response, false, null);
@@ -88,39 +137,87 @@ public class MessageProcessingService {
     /**
      * Process message status update
      * 
+     * Statuses are collapsed per message by the delivery tracker and written in batches,
+     * so a callback costs a map merge rather than a database write.
+     * 
      * @param status Message status
      */
     public void processMessageStatus(WhatsAppWebhookPayload.MessageStatus status) {
         try {
-            logger.info("📊 Processing message status - ID: {}, Status: {}", 
+            logger.debug("📊 Processing message status - ID: {}, Status: {}", 
                        status.getId(), status.getStatus());
             
-            // Update message status in database
-            // This could be used for delivery confirmation, read receipts, etc.
+            deliveryTracker.recordStatus(status.getId(), status.getStatus(), status.getRecipientId(), status.getTimestamp());
+            
+            if ("failed".equals(status.getStatus())) {
+                // Hot-window lookup only; callbacks never wait on the database
+                messageCorrelationStore.findRecent(status.getId())
+                    .filter(correlation -> correlation.getMessageId() != null)
+                    .ifPresent(correlation ->
+                    logger.warn("⚠️ Delivery failed for message {} in conversation {}",
+                               correlation.getMessageId(), correlation.getConversationId()));
+            }
             
         } catch (Exception e) {
             logger.error("❌ Error processing message status", e);
         }
     }
     
+    /**
+     * Answer a transcribed voice message through the text path
+     * 
+     * Runs on the async executor once the voice message has been downloaded and
+     * transcribed; the reply is sent and saved like the reply to a typed message.
+     * 
+     * @param transcript Transcript of the voice message
+     */
+    @EventListener
+    public void onVoiceTranscript(VoiceTranscript transcript) {
+        MediaItem item = transcript.getItem();
+        try {
+            com.whatsapp.eventservice.model.User user = userService.getOrCreateUser(item.getFrom(), item.getFrom());
+            
+            String response;
+            MessageCorrelation correlation = new MessageCorrelation();
+            if (transcript.getText().isBlank()) {
+                response = "Sorry, I couldn't make out your voice message. Could you say it again or type what you're looking for?";
+            } else {
+                logger.info("🎙️ Voice message {} from user {} transcribed{}", item.getMessageId(), user.getId(),
+                           transcript.isCached() ? " (cached)" : "");
+                saveConversationHistory(user.getId(), "text", transcript.getText(), true, item.getMessageId());
+                response = processTextMessage(user, item.getFrom(), transcript.getText(), correlation);
+            }
+            
+            if (response != null && !response.isEmpty()) {
+                whatsAppMessageService.sendTextMessage(item.getFrom(), response, correlation);
+                saveConversationHistory(user.getId(), "text", response, false, null);
+            }
+            
+        } catch (Exception e) {
+            logger.error("❌ Error answering voice message {}", item, e);
+        }
+    }
+    
     /**
      * Process message by type
      * 
      * @param user User information
      * @param message WhatsApp message
      * @param contacts Contact information
+     * @param correlation Filled in with the conversation and message row of the reply, if stored
      * @return Response message
      */
     private String processMessageByType(com.whatsapp.eventservice.model.User user, 
                                       WhatsAppWebhookPayload.WhatsAppMessage message,
-                                      List<WhatsAppWebhookPayload.WhatsAppContact> contacts) {
+                                      List<WhatsAppWebhookPayload.WhatsAppContact> contacts,
+                                      MessageCorrelation correlation) {
         
         String messageType = message.getType();
         String messageContent = getMessageContent(message);
         
         switch (messageType) {
             case "text":
-                return processTextMessage(user, messageContent);
+                return processTextMessage(user, message.getFrom(), messageContent, correlation);
                 
             case "interactive":
                 return processInteractiveMessage(user, message);
@@ -148,11 +245,17 @@ public class MessageProcessingService {
     /**
      * Process text message using the new orchestration layer
      * 
+     * An orchestrated reply with suggestions is sent here as a single button or list
+     * message, so the user can pick an item with one tap, and null is returned.
+     * 
      * @param user User information
+     * @param from Sender phone number
      * @param messageText Message text
-     * @return Response message
+     * @param correlation Filled in with the conversation and message row of an orchestrated reply
+     * @return Response message, or null if the reply was already sent
      */
-    private String processTextMessage(com.whatsapp.eventservice.model.User user, String messageText) {
+    private String processTextMessage(com.whatsapp.eventservice.model.User user, String from, String messageText,
+                                      MessageCorrelation correlation) {
         try {
             String lowerText = messageText.toLowerCase().trim();
             
@@ -165,15 +268,31 @@ public class MessageProcessingService {
                 return "Welcome! You're now subscribed to local event notifications. Ask me about events like 'What music events are happening this weekend?' or 'Show me family-friendly events in Boston'.";
             }
             
+            // Deterministic intents are answered from templates without the two LLM calls
+            String fastPathReply = replyFromFastPath(user, messageText);
+            if (fastPathReply != null) {
+                return fastPathReply;
+            }
+            
             // Use the new orchestration layer to process the complete workflow
             Map<String, Object> orchestrationResponse = orchestrationService.processUserMessage(
-                user.getId(), messageText, "text"
+                user.getId(), messageText, "text", user
             );
             
             // Extract the system message from the orchestration response
             if (orchestrationResponse.containsKey("system_message")) {
                 Message systemMessage = (Message) orchestrationResponse.get("system_message");
+                correlation.setConversationId(systemMessage.getConversationId());
+                correlation.setMessageId(systemMessage.getId());
                 logger.info("✅ Orchestration workflow completed successfully");
+                
+                @SuppressWarnings("unchecked")
+                List<SuggestedItem> suggestedItems = (List<SuggestedItem>) orchestrationResponse.get("suggested_items");
+                if (suggestedItems != null && !suggestedItems.isEmpty()) {
+                    whatsAppMessageService.sendSuggestions(from, systemMessage.getContent(), suggestedItems, correlation);
+                    saveConversationHistory(user.getId(), "interactive", systemMessage.getContent(), false, null);
+                    return null;
+                }
                 return systemMessage.getContent();
             }
             
@@ -189,6 +308,55 @@ public class MessageProcessingService {
         }
     }
     
+    /**
+     * Answer a message from a template when the intent classifier is confident about it
+     * 
+     * @param user User information
+     * @param messageText Message text
+     * @return Response message, or null if the message needs the orchestration pipeline
+     */
+    private String replyFromFastPath(com.whatsapp.eventservice.model.User user, String messageText) {
+        IntentClassifier.Prediction prediction = intentClassifier.classify(messageText);
+        String normalized = messageText.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}' ]", " ").trim().replaceAll("\\s+", " ");
+        
+        String reply = switch (prediction.getIntent()) {
+            case greeting -> user.getName() != null && !user.getName().isBlank()
+                ? "Hi " + user.getName().trim().split("\\s+")[0] + "! " + GREETING_REPLY
+                : "Hi! " + GREETING_REPLY;
+            case thanks -> THANKS_REPLY;
+            case help -> getHelpMessage();
+            case button -> TYPED_BUTTONS.containsKey(normalized)
+                ? handleButtonAction(user, TYPED_BUTTONS.get(normalized), messageText)
+                : null;
+            case category_lookup -> replyToCategoryLookup(user, messageText, normalized);
+            case query -> null;
+        };
+        
+        if (reply != null) {
+            logger.info("⚡ Fast-path reply for intent {} ({})", prediction.getIntent(),
+                       String.format("%.2f", prediction.getConfidence()));
+        }
+        return reply;
+    }
+    
+    /**
+     * Short category lookups like "jazz" or "family events" go straight to the event search
+     */
+    private String replyToCategoryLookup(com.whatsapp.eventservice.model.User user, String messageText, String normalized) {
+        if (normalized.split(" ").length > intentClassifierConfig.getMaxLookupWords()) {
+            return null;
+        }
+        
+        Map<String, Object> criteria = aiQueryProcessor.parseEventQuery(messageText);
+        Object category = criteria.get("category");
+        if (category == null || "general".equals(category)) {
+            return null;
+        }
+        
+        List<com.whatsapp.eventservice.model.Event> events = eventService.searchEventsByCriteria(criteria);
+        return generateEventResponse(events, criteria, user);
+    }
+    
     /**
      * Process interactive message (button clicks)
      * 
@@ -245,33 +413,16 @@ public class MessageProcessingService {
             return "Thanks for your feedback! Is there anything specific about events you'd like to know?";
         }
         
-        switch (buttonId) {
-            case "interested":
-                userService.saveUserPreference(user.getId(), "interest_level", "high", "user");
-                return "Great! I'll prioritize similar events for you. What type of events are you most interested in?";
-                
-            case "not_interested":
-                userService.saveUserPreference(user.getId(), "interest_level", "low", "user");
-                return "No problem! I'll adjust my recommendations. What events would you prefer to see?";
-                
-            case "more_info":
-                return "For more information about events, you can ask me specific questions like 'Tell me more about concerts this weekend' or 'What's happening at the downtown venue?'";
-                
-            case "change_preferences":
-                return "You can tell me your preferences like 'I like music events' or 'Show me family-friendly activities'. What would you like to see?";
-                
-            case "browse_events":
-                return "You can browse events by asking me questions like:\n• 'What music events are this weekend?'\n• 'Show me family-friendly activities'\n• 'Any free events today?'";
-                
-            case "set_preferences":
-                return "You can set your preferences by telling me what you like:\n• 'I like music events'\n• 'Show me family-friendly activities'\n• 'I prefer free events'";
-                
-            case "help":
-                return getHelpMessage();
-                
-            default:
-                return "Thanks for your feedback! Is there anything specific about events you'd like to know?";
+        if ("help".equals(buttonId)) {
+            return getHelpMessage();
         }
+        
+        // Item actions (evt:123:more) and global actions share one dispatch table
+        String reply = buttonActionRouter.route(user, buttonId);
+        if (reply != null) {
+            return reply;
+        }
+        return "Thanks for your feedback! Is there anything specific about events you'd like to know?";
     }
     
     /**
@@ -285,7 +436,18 @@ public class MessageProcessingService {
                                      WhatsAppWebhookPayload.WhatsAppMessage message) {
         logger.info("🖼️ Processing image message from user {}", user.getId());
         
-        // For now, just acknowledge the image
+        WhatsAppWebhookPayload.MessageImage image = message.getImage();
+        if (image != null) {
+            MediaItem item = mediaItem(MediaItem.Kind.image, image.getId(), user, message);
+            item.setMimeType(image.getMimeType());
+            item.setDeclaredSha256(image.getSha256());
+            item.setCaption(image.getCaption());
+            // Flyer photos are read and answered with an event search once downloaded
+            if (mediaPipeline.submit(item) && flyerTextExtractor.supports(item)) {
+                return "Got your image! I'm reading it for event details and will send matching events shortly.";
+            }
+        }
+        
         return "I received your image! I can currently only process text messages about events. Please send me a text message asking about events you're interested in.";
     }
     
@@ -300,6 +462,16 @@ public class MessageProcessingService {
                                         WhatsAppWebhookPayload.WhatsAppMessage message) {
         logger.info("📄 Processing document message from user {}", user.getId());
         
+        WhatsAppWebhookPayload.MessageDocument document = message.getDocument();
+        if (document != null) {
+            MediaItem item = mediaItem(MediaItem.Kind.document, document.getId(), user, message);
+            item.setMimeType(document.getMimeType());
+            item.setDeclaredSha256(document.getSha256());
+            item.setCaption(document.getCaption());
+            item.setFilename(document.getFilename());
+            mediaPipeline.submit(item);
+        }
+        
         return "I received your document! I can currently only process text messages about events. Please send me a text message asking about events you're interested in.";
     }
     
@@ -314,6 +486,17 @@ public class MessageProcessingService {
                                      WhatsAppWebhookPayload.WhatsAppMessage message) {
         logger.info("🎵 Processing audio message from user {}", user.getId());
         
+        WhatsAppWebhookPayload.MessageAudio audio = message.getAudio();
+        if (audio != null) {
+            MediaItem item = mediaItem(MediaItem.Kind.audio, audio.getId(), user, message);
+            item.setMimeType(audio.getMimeType());
+            item.setDeclaredSha256(audio.getSha256());
+            // Voice messages are transcribed locally and answered like text once downloaded
+            if (mediaPipeline.submit(item) && voiceTranscriber.supports(item)) {
+                return "Got your voice message! I'm listening to it and will reply shortly.";
+            }
+        }
+        
         return "I received your audio message! I can currently only process text messages about events. Please send me a text message asking about events you're interested in.";
     }
     
@@ -328,9 +511,30 @@ public class MessageProcessingService {
                                      WhatsAppWebhookPayload.WhatsAppMessage message) {
         logger.info("🎥 Processing video message from user {}", user.getId());
         
+        WhatsAppWebhookPayload.MessageVideo video = message.getVideo();
+        if (video != null) {
+            MediaItem item = mediaItem(MediaItem.Kind.video, video.getId(), user, message);
+            item.setMimeType(video.getMimeType());
+            item.setDeclaredSha256(video.getSha256());
+            item.setCaption(video.getCaption());
+            mediaPipeline.submit(item);
+        }
+        
         return "I received your video! I can currently only process text messages about events. Please send me a text message asking about events you're interested in.";
     }
     
+    /**
+     * Media item for the pipeline, tied to the message and user it came from
+     */
+    private MediaItem mediaItem(MediaItem.Kind kind, String mediaId, com.whatsapp.eventservice.model.User user,
+                                WhatsAppWebhookPayload.WhatsAppMessage message) {
+        MediaItem item = new MediaItem(kind, mediaId);
+        item.setMessageId(message.getId());
+        item.setFrom(message.getFrom());
+        item.setUserId(user.getId());
+        return item;
+    }
+    
     /**
      * Process location message
      * 
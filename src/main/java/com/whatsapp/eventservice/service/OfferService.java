@@ -1,5 +1,6 @@
 package com.whatsapp.eventservice.service;
 
+import com.whatsapp.eventservice.model.EntityChange;
 import com.whatsapp.eventservice.model.Offer;
 import com.whatsapp.eventservice.repository.OfferRepository;
 import org.slf4j.Logger;
@@ -23,6 +24,9 @@ public class OfferService {
     @Autowired
     private OfferRepository offerRepository;
     
+    @Autowired
+    private EntityChangePublisher entityChangePublisher;
+    
     /**
      * Get all offers - matches OpenAPI spec
      */
@@ -35,6 +39,18 @@ public class OfferService {
         return offers;
     }
     
+    /**
+     * Get offer by ID
+     * 
+     * @param id Offer ID
+     * @return Offer entity or null if not found
+     */
+    public Offer getOfferById(Long id) {
+        logger.info("🔍 Getting offer by ID: {}", id);
+        
+        return offerRepository.findById(id).orElse(null);
+    }
+    
     /**
      * Create a new offer - matches OpenAPI spec
      */
@@ -44,6 +60,8 @@ public class OfferService {
         offer.setCreatedAt(LocalDateTime.now());
         
         Offer createdOffer = offerRepository.save(offer);
+        entityChangePublisher.publish(EntityChange.EntityType.offer, createdOffer.getId(),
+                                      EntityChange.ChangeType.created, createdOffer);
         
         logger.info("✅ Offer created successfully with ID: {}", createdOffer.getId());
         return createdOffer;
@@ -0,0 +1,144 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.GPT4AllConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight for LLM calls: concurrent calls with the same prompt share one request
+ * 
+ * The first caller for a fingerprint runs the call; callers that arrive while it is in
+ * flight wait for the same result, or the same failure, but no longer than a hedged
+ * LLM call can take. Nothing is kept once the call completes, so this only absorbs
+ * bursts of identical messages and is not a cache.
+ */
+@Service
+public class PromptCoalescer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PromptCoalescer.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private GPT4AllConfig gpt4AllConfig;
+    
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    
+    /**
+     * The call one leader runs on behalf of every caller with the same fingerprint
+     */
+    @FunctionalInterface
+    public interface Call {
+        String call() throws Exception;
+    }
+    
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("llm.coalescing.ratio", Tags.empty(), this, PromptCoalescer::getCoalescingRatio);
+        meterRegistry.gauge("llm.coalescing.in_flight", Tags.empty(), inFlight, Map::size);
+    }
+    
+    /**
+     * Run the call, or wait for the identical call that is already in flight
+     * 
+     * @param operation   Prompt operation, part of the fingerprint
+     * @param requestBody Everything sent to the model; calls coalesce only if it is identical
+     */
+    public String execute(String operation, Map<String, Object> requestBody, Call call) throws Exception {
+        String fingerprint = fingerprint(operation, requestBody);
+        calls.incrementAndGet();
+        
+        CompletableFuture<String> leader = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(fingerprint, leader);
+        
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            meterRegistry.counter("llm.coalesced", "operation", operation).increment();
+            logger.debug("🔗 Joined in-flight {} call {}", operation, fingerprint);
+            // A hedged call can take up to the hedge delay plus one timeout
+            long waitMs = 2L * gpt4AllConfig.getTimeout();
+            try {
+                return existing.get(waitMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                meterRegistry.counter("llm.coalesced.timeout", "operation", operation).increment();
+                throw new TimeoutException("In-flight " + operation + " call did not finish within " + waitMs + " ms");
+            }
+        }
+        
+        try {
+            String result = call.call();
+            leader.complete(result);
+            return result;
+        } catch (Exception e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Errors are not caught above; the waiters must still be released
+            if (!leader.isDone()) {
+                leader.completeExceptionally(new IllegalStateException("Leader of " + operation + " call failed"));
+            }
+            inFlight.remove(fingerprint, leader);
+        }
+    }
+    
+    /**
+     * Share of calls since startup that were served by another caller's request
+     */
+    public double getCoalescingRatio() {
+        long total = calls.get();
+        return total == 0 ? 0.0 : (double) coalesced.get() / total;
+    }
+    
+    /**
+     * Coalescing counters, for the status endpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("calls", calls.get());
+        status.put("coalesced", coalesced.get());
+        status.put("coalescing_ratio", getCoalescingRatio());
+        status.put("in_flight", inFlight.size());
+        return status;
+    }
+    
+    private static String fingerprint(String operation, Map<String, Object> requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            // Sorted so the fingerprint does not depend on map iteration order
+            for (Map.Entry<String, Object> entry : new TreeMap<>(requestBody).entrySet()) {
+                digest.update((byte) 0);
+                digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(String.valueOf(entry.getValue()).getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.GPT4AllConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt templates from ai.gpt4all.prompts, compiled once at startup
+ * 
+ * A template is split into literal segments and {{placeholder}} slots, so rendering
+ * is a single append pass. Slot values are fitted to a token budget before they are
+ * inserted: per-slot caps from slot-tokens first, then whatever is left of the
+ * context window after the static text and the operation's max-tokens. Lines are
+ * dropped whole, from the front for tail slots (keep the most recent context) and
+ * from the back otherwise (keep the top-ranked entries).
+ */
+@Service
+public class PromptTemplates {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PromptTemplates.class);
+    
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([a-z_]+)\\s*}}");
+    
+    // Characters per token for words; llama-style tokenizers split most English words into 1-2 tokens
+    private static final double CHARS_PER_TOKEN = 4.0;
+    
+    @Autowired
+    private GPT4AllConfig gpt4AllConfig;
+    
+    private final Map<String, CompiledPrompt> compiled = new LinkedHashMap<>();
+    
+    @PostConstruct
+    public void compileTemplates() {
+        for (Map.Entry<String, GPT4AllConfig.Prompt> entry : gpt4AllConfig.getPrompts().entrySet()) {
+            GPT4AllConfig.Prompt prompt = entry.getValue();
+            if (prompt.getTemplate() == null || prompt.getTemplate().isBlank()) {
+                throw new IllegalStateException("Prompt template is empty: ai.gpt4all.prompts." + entry.getKey());
+            }
+            
+            CompiledPrompt compiledPrompt = compile(entry.getKey(), prompt);
+            compiled.put(entry.getKey(), compiledPrompt);
+            logger.info("📝 Compiled prompt '{}': {} slots, {} static tokens", entry.getKey(),
+                       compiledPrompt.slots.size(), compiledPrompt.staticTokens);
+        }
+    }
+    
+    /**
+     * Render an operation's prompt with slot values fitted to its token budget
+     */
+    public String render(String operation, Map<String, String> values) {
+        CompiledPrompt prompt = get(operation);
+        
+        Map<String, String> fitted = new LinkedHashMap<>();
+        int variableTokens = 0;
+        for (String slot : prompt.slots) {
+            String value = values.getOrDefault(slot, "");
+            Integer cap = prompt.config.getSlotTokens().get(slot);
+            if (cap != null) {
+                value = fit(value, cap, prompt.config.getTailSlots().contains(slot));
+            }
+            fitted.put(slot, value);
+            variableTokens += estimateTokens(value);
+        }
+        
+        // Shrink the tail slots further if the prompt still would not leave room for the answer
+        int overflow = prompt.staticTokens + variableTokens + maxTokens(operation) - gpt4AllConfig.getContextWindow();
+        for (String slot : prompt.config.getTailSlots()) {
+            if (overflow <= 0 || !fitted.containsKey(slot)) {
+                continue;
+            }
+            String value = fitted.get(slot);
+            int tokens = estimateTokens(value);
+            String shrunk = fit(value, Math.max(0, tokens - overflow), true);
+            overflow -= tokens - estimateTokens(shrunk);
+            fitted.put(slot, shrunk);
+        }
+        if (overflow > 0) {
+            logger.warn("⚠️ Prompt '{}' exceeds the context window by ~{} tokens", operation, overflow);
+        }
+        
+        StringBuilder rendered = new StringBuilder(prompt.staticLength + fitted.values().stream().mapToInt(String::length).sum());
+        for (int i = 0; i < prompt.literals.size(); i++) {
+            rendered.append(prompt.literals.get(i));
+            if (i < prompt.slots.size()) {
+                rendered.append(fitted.get(prompt.slots.get(i)));
+            }
+        }
+        return rendered.toString();
+    }
+    
+    /**
+     * Output token limit for an operation, falling back to ai.gpt4all.max-tokens
+     */
+    public int maxTokens(String operation) {
+        Integer maxTokens = get(operation).config.getMaxTokens();
+        return maxTokens != null ? maxTokens : gpt4AllConfig.getMaxTokens();
+    }
+    
+    /**
+     * Backend pool that serves an operation, falling back to the default pool
+     */
+    public String pool(String operation) {
+        String pool = get(operation).config.getPool();
+        return pool != null ? pool : LlmRouter.DEFAULT_POOL;
+    }
+    
+    /**
+     * Sampling temperature for an operation, falling back to ai.gpt4all.temperature
+     */
+    public double temperature(String operation) {
+        Double temperature = get(operation).config.getTemperature();
+        return temperature != null ? temperature : gpt4AllConfig.getTemperature();
+    }
+    
+    /**
+     * Static token count per operation, for the status endpoint
+     */
+    public Map<String, Integer> staticTokenCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        compiled.forEach((operation, prompt) -> counts.put(operation, prompt.staticTokens));
+        return counts;
+    }
+    
+    /**
+     * Estimate the token count of text without a tokenizer
+     * 
+     * Runs of letters and digits count one token per CHARS_PER_TOKEN characters,
+     * every other non-space character counts as a token of its own. This errs on the
+     * high side for prose, which is the safe side for a budget.
+     */
+    public static int estimateTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                wordLength++;
+                continue;
+            }
+            if (wordLength > 0) {
+                tokens += (int) Math.ceil(wordLength / CHARS_PER_TOKEN);
+                wordLength = 0;
+            }
+            if (!Character.isWhitespace(c)) {
+                tokens++;
+            }
+        }
+        if (wordLength > 0) {
+            tokens += (int) Math.ceil(wordLength / CHARS_PER_TOKEN);
+        }
+        return tokens;
+    }
+    
+    /**
+     * Drop whole lines until the text fits the budget; a single line left over budget is cut
+     */
+    static String fit(String text, int budgetTokens, boolean keepTail) {
+        if (text == null || text.isEmpty() || estimateTokens(text) <= budgetTokens) {
+            return text == null ? "" : text;
+        }
+        if (budgetTokens <= 0) {
+            return "";
+        }
+        
+        List<String> lines = new ArrayList<>(List.of(text.split("\n")));
+        if (keepTail) {
+            Collections.reverse(lines);
+        }
+        
+        List<String> kept = new ArrayList<>();
+        int used = 0;
+        for (String line : lines) {
+            int tokens = estimateTokens(line) + 1;
+            if (used + tokens > budgetTokens) {
+                if (kept.isEmpty()) {
+                    kept.add(cut(line, budgetTokens));
+                }
+                break;
+            }
+            kept.add(line);
+            used += tokens;
+        }
+        
+        if (keepTail) {
+            Collections.reverse(kept);
+        }
+        return kept.isEmpty() ? "" : String.join("\n", kept) + (text.endsWith("\n") ? "\n" : "");
+    }
+    
+    private static String cut(String line, int budgetTokens) {
+        int end = (int) Math.min(line.length(), (long) (budgetTokens * CHARS_PER_TOKEN));
+        return end < line.length() ? line.substring(0, Math.max(0, end - 3)) + "..." : line;
+    }
+    
+    private CompiledPrompt get(String operation) {
+        CompiledPrompt prompt = compiled.get(operation);
+        if (prompt == null) {
+            throw new IllegalArgumentException("No prompt template configured for: " + operation);
+        }
+        return prompt;
+    }
+    
+    private static CompiledPrompt compile(String operation, GPT4AllConfig.Prompt config) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        
+        String template = config.getTemplate();
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        int position = 0;
+        while (matcher.find()) {
+            literals.add(template.substring(position, matcher.start()));
+            slots.add(matcher.group(1));
+            position = matcher.end();
+        }
+        literals.add(template.substring(position));
+        
+        if (!slots.isEmpty() && literals.get(0).isBlank()) {
+            logger.warn("⚠️ Prompt '{}' starts with a placeholder; its prefix cannot be reused", operation);
+        }
+        
+        int staticTokens = literals.stream().mapToInt(PromptTemplates::estimateTokens).sum();
+        int staticLength = literals.stream().mapToInt(String::length).sum();
+        return new CompiledPrompt(config, List.copyOf(literals), List.copyOf(slots), staticTokens, staticLength);
+    }
+    
+    private static class CompiledPrompt {
+        
+        private final GPT4AllConfig.Prompt config;
+        private final List<String> literals;
+        private final List<String> slots;
+        private final int staticTokens;
+        private final int staticLength;
+        
+        private CompiledPrompt(GPT4AllConfig.Prompt config, List<String> literals, List<String> slots,
+                               int staticTokens, int staticLength) {
+            this.config = config;
+            this.literals = literals;
+            this.slots = slots;
+            this.staticTokens = staticTokens;
+            this.staticLength = staticLength;
+        }
+    }
+}
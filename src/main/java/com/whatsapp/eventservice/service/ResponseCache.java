@@ -0,0 +1,226 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ResponseCacheConfig;
+import com.whatsapp.eventservice.model.EntityChange;
+import com.whatsapp.eventservice.model.SuggestedItem;
+import com.whatsapp.eventservice.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of LLM-generated reply texts, keyed on what the reply describes
+ * 
+ * The key is the intent, category and date range of the search plus the sorted
+ * suggested items with their current versions, so popular searches that return the
+ * same items reuse one generation. Item versions are assigned locally: every entity
+ * change record, whichever instance wrote it, gives the item a new version from one
+ * sequence, which makes every key naming the item unreachable, and drops the entries
+ * that named it. Versions older than the TTL are forgotten, since no entry built on
+ * the previous version can still be live. Cached texts are user-agnostic; the
+ * greeting is slotted in per user by personalize.
+ */
+@Service
+public class ResponseCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+    
+    @Autowired
+    private ResponseCacheConfig responseCacheConfig;
+    
+    private final Map<String, ItemVersion> itemVersions = new ConcurrentHashMap<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final Map<String, Set<String>> keysByItem = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    // Access-ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    
+    /**
+     * Cache key for a reply about these items, or null if the reply cannot be cached
+     */
+    public String keyFor(Map<String, Object> parsedQuery, List<SuggestedItem> suggestedItems) {
+        if (!responseCacheConfig.isEnabled()) {
+            return null;
+        }
+        
+        List<String> items = new ArrayList<>(suggestedItems.size());
+        for (SuggestedItem item : suggestedItems) {
+            if (item.getType() == null || item.getItemId() == null) {
+                return null;
+            }
+            String itemKey = itemKey(item.getType().name(), item.getItemId());
+            ItemVersion version = itemVersions.get(itemKey);
+            items.add(itemKey + "@" + (version != null ? version.version : 0L));
+        }
+        items.sort(null);
+        
+        return parsedQuery.getOrDefault("intent", "-") + "|" + parsedQuery.getOrDefault("category", "-")
+            + "|" + parsedQuery.getOrDefault("date_range", "-") + "|" + String.join(",", items);
+    }
+    
+    public Optional<String> get(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        
+        CachedResponse cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && cached.expiresAt.isBefore(LocalDateTime.now())) {
+                remove(key);
+                cached = null;
+            }
+        }
+        
+        (cached != null ? hits : misses).incrementAndGet();
+        return cached != null ? Optional.of(cached.text) : Optional.empty();
+    }
+    
+    public void put(String key, List<SuggestedItem> suggestedItems, String text) {
+        if (key == null || text == null || text.isBlank()) {
+            return;
+        }
+        
+        List<String> items = new ArrayList<>(suggestedItems.size());
+        for (SuggestedItem item : suggestedItems) {
+            items.add(itemKey(item.getType().name(), item.getItemId()));
+        }
+        
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, new CachedResponse(text, items, LocalDateTime.now().plusMinutes(responseCacheConfig.getTtlMinutes())));
+            for (String item : items) {
+                keysByItem.computeIfAbsent(item, k -> new HashSet<>()).add(key);
+            }
+            
+            while (entries.size() > responseCacheConfig.getMaxEntries()) {
+                remove(entries.keySet().iterator().next());
+            }
+        }
+    }
+    
+    /**
+     * Slot the user's greeting in front of a reply
+     * 
+     * @param user The already loaded recipient; null leaves the reply as is
+     */
+    public String personalize(String text, User user) {
+        String template = responseCacheConfig.getGreetingTemplate();
+        if (user == null || user.getName() == null || user.getName().isBlank()
+                || template == null || template.isEmpty()) {
+            return text;
+        }
+        
+        String name = user.getName().trim().split("\\s+")[0];
+        return template.replace("{{name}}", name) + text;
+    }
+    
+    /**
+     * Give a changed item a new version and drop the replies that mention it
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChange change) {
+        String item = itemKey(change.getEntityType().name(), change.getEntityId());
+        long now = System.currentTimeMillis();
+        // Change versions are per source instance, so only the fact that it changed is used
+        itemVersions.put(item, new ItemVersion(versionSequence.incrementAndGet(), now));
+        if (itemVersions.size() > responseCacheConfig.getMaxEntries()) {
+            forgetExpiredVersions(now);
+        }
+        
+        int dropped;
+        synchronized (entries) {
+            Set<String> keys = keysByItem.remove(item);
+            dropped = keys != null ? keys.size() : 0;
+            if (keys != null) {
+                keys.forEach(this::remove);
+            }
+        }
+        
+        if (dropped > 0) {
+            logger.debug("🧹 Dropped {} cached responses mentioning {}", dropped, item);
+        }
+    }
+    
+    /**
+     * Cache counters, for the status endpoint
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        synchronized (entries) {
+            status.put("entries", entries.size());
+        }
+        status.put("hits", hits.get());
+        status.put("misses", misses.get());
+        return status;
+    }
+    
+    // Caller holds the entries lock
+    private void remove(String key) {
+        CachedResponse removed = entries.remove(key);
+        if (removed == null) {
+            return;
+        }
+        for (String item : removed.items) {
+            Set<String> keys = keysByItem.get(item);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByItem.remove(item);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Forget versions of items that last changed more than a TTL ago
+     */
+    private void forgetExpiredVersions(long now) {
+        long ttlMs = responseCacheConfig.getTtlMinutes() * 60_000L;
+        itemVersions.values().removeIf(version -> now - version.changedAt > ttlMs);
+    }
+    
+    private static String itemKey(String type, Long id) {
+        return type + ":" + id;
+    }
+    
+    private static class CachedResponse {
+        
+        private final String text;
+        private final List<String> items;
+        private final LocalDateTime expiresAt;
+        
+        private CachedResponse(String text, List<String> items, LocalDateTime expiresAt) {
+            this.text = text;
+            this.items = items;
+            this.expiresAt = expiresAt;
+        }
+    }
+    
+    private static class ItemVersion {
+        
+        private final long version;
+        private final long changedAt;
+        
+        private ItemVersion(long version, long changedAt) {
+            this.version = version;
+            this.changedAt = changedAt;
+        }
+    }
+}
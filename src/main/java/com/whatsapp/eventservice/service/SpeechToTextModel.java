@@ -0,0 +1,17 @@
+package com.whatsapp.eventservice.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Local speech recognizer for decoded voice messages
+ */
+public interface SpeechToTextModel {
+    
+    /**
+     * Transcribe a 16 kHz mono 16-bit WAV file
+     * 
+     * @return The transcript, empty if nothing was recognized
+     */
+    String transcribe(Path wav) throws IOException, InterruptedException;
+}
@@ -0,0 +1,25 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.SpeechConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+
+/**
+ * Speech recognizer that returns the configured speech.stub-transcript, for local
+ * development and environments without a model installed
+ */
+@Service
+@ConditionalOnProperty(prefix = "speech", name = "model", havingValue = "stub")
+public class StubSpeechToTextModel implements SpeechToTextModel {
+    
+    @Autowired
+    private SpeechConfig speechConfig;
+    
+    @Override
+    public String transcribe(Path wav) {
+        return speechConfig.getStubTranscript();
+    }
+}
@@ -0,0 +1,115 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.SuggestedItem;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a reply and its ranked suggestions as one WhatsApp interactive message
+ * 
+ * Up to three suggestions become reply buttons under the reply text; more become a
+ * list message with a section per item type, in rank order, capped at the ten rows
+ * WhatsApp allows. Every button and row id is a ButtonActionRouter action that opens
+ * the item's details, so a tap is answered without another LLM turn. Titles and
+ * descriptions are cut to the API's length limits.
+ */
+@Service
+public class SuggestionReplyRenderer {
+    
+    private static final int MAX_BUTTONS = 3;
+    private static final int MAX_ROWS = 10;
+    private static final int MAX_BODY_CHARS = 1024;
+    private static final int MAX_BUTTON_TITLE_CHARS = 20;
+    private static final int MAX_ROW_TITLE_CHARS = 24;
+    private static final int MAX_ROW_DESCRIPTION_CHARS = 72;
+    
+    private static final String LIST_BUTTON = "View options";
+    
+    /**
+     * Build the interactive object of a message for the reply and its suggestions
+     * 
+     * @param text Reply text, used as the message body
+     * @param items Suggestions in rank order
+     * @return The interactive object, or null if no suggestion can be shown
+     */
+    public Map<String, Object> render(String text, List<SuggestedItem> items) {
+        List<SuggestedItem> selectable = new ArrayList<>();
+        for (SuggestedItem item : items) {
+            if (item.getType() != null && item.getItemId() != null && item.getTitle() != null
+                    && selectable.size() < MAX_ROWS) {
+                selectable.add(item);
+            }
+        }
+        if (selectable.isEmpty()) {
+            return null;
+        }
+        
+        Map<String, Object> interactive = new HashMap<>();
+        interactive.put("body", Map.of("text", truncate(text, MAX_BODY_CHARS)));
+        
+        if (selectable.size() <= MAX_BUTTONS) {
+            List<Map<String, Object>> buttons = new ArrayList<>();
+            for (int i = 0; i < selectable.size(); i++) {
+                SuggestedItem item = selectable.get(i);
+                // Numbered so titles stay unique after truncation, as the API requires
+                String title = truncate((i + 1) + ". " + item.getTitle(), MAX_BUTTON_TITLE_CHARS);
+                buttons.add(Map.of("type", "reply", "reply", Map.of("id", rowId(item), "title", title)));
+            }
+            interactive.put("type", "button");
+            interactive.put("action", Map.of("buttons", buttons));
+            return interactive;
+        }
+        
+        Map<SuggestedItem.ItemType, List<Map<String, String>>> rowsByType = new LinkedHashMap<>();
+        for (SuggestedItem item : selectable) {
+            Map<String, String> row = new HashMap<>();
+            row.put("id", rowId(item));
+            row.put("title", truncate(item.getTitle(), MAX_ROW_TITLE_CHARS));
+            if (item.getDescription() != null && !item.getDescription().isBlank()) {
+                row.put("description", truncate(item.getDescription(), MAX_ROW_DESCRIPTION_CHARS));
+            }
+            rowsByType.computeIfAbsent(item.getType(), type -> new ArrayList<>()).add(row);
+        }
+        
+        List<Map<String, Object>> sections = new ArrayList<>();
+        for (Map.Entry<SuggestedItem.ItemType, List<Map<String, String>>> entry : rowsByType.entrySet()) {
+            sections.add(Map.of("title", sectionTitle(entry.getKey()), "rows", entry.getValue()));
+        }
+        interactive.put("type", "list");
+        interactive.put("action", Map.of("button", LIST_BUTTON, "sections", sections));
+        return interactive;
+    }
+    
+    /**
+     * Button or row id of a suggestion: the action showing its details, e.g. evt:42:more
+     */
+    public static String rowId(SuggestedItem item) {
+        return ButtonActionRouter.actionId(item.getType(), item.getItemId(), ButtonActionRouter.MORE);
+    }
+    
+    private static String sectionTitle(SuggestedItem.ItemType type) {
+        switch (type) {
+            case event:
+                return "Events";
+            case business:
+                return "Places";
+            case offer:
+                return "Offers";
+            default:
+                return type.name();
+        }
+    }
+    
+    private static String truncate(String value, int maxChars) {
+        String text = value.strip();
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        return text.substring(0, maxChars - 1).stripTrailing() + "…";
+    }
+}
@@ -0,0 +1,323 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.WhatsAppConfig;
+import com.whatsapp.eventservice.repository.TenantRouteRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry of the business phone numbers this service answers for
+ * 
+ * Each tenant is one number from whatsapp.tenants with its own access token, worker
+ * pool and send budget (a token bucket), so a promo burst on one number queues and
+ * throttles only on that number. Webhook threads only hand inbound work to the
+ * number's ingest queue; the number's own dispatcher thread feeds it to the workers
+ * and waits while they are saturated, so back-pressure stays with that number, and
+ * only a full ingest queue sheds its messages. Inbound messages run on the pool of the number that
+ * received them, and the registry remembers that number per sender, in memory and in
+ * tenant_route, so every reply to that user, including ones sent later from the media
+ * and async threads or after a restart, goes out through the same number. Without
+ * configured tenants, the top-level phone number and token form a single default
+ * tenant. Senders not seen yet are answered from the first.
+ */
+@Service
+public class TenantRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TenantRegistry.class);
+    
+    @Autowired
+    private WhatsAppConfig whatsAppConfig;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TenantRouteRepository tenantRouteRepository;
+    
+    private final List<Tenant> tenants = new ArrayList<>();
+    private final Map<String, Tenant> tenantsByPhoneNumberId = new HashMap<>();
+    
+    // Sender phone number -> phone number id it last wrote to, least recently used evicted first
+    private Map<String, String> routes;
+    
+    /**
+     * A business phone number and the resources reserved for it
+     */
+    public static final class Tenant {
+        
+        private final String name;
+        private final String phoneNumberId;
+        private final String accessToken;
+        private final ThreadPoolExecutor workers;
+        private final SendBudget sendBudget;
+        private final BlockingQueue<Runnable> ingest;
+        
+        // Free places in the worker pool and its queue; the dispatcher waits for one per task
+        private final Semaphore slots;
+        private Thread dispatcher;
+        
+        private Tenant(String name, String phoneNumberId, String accessToken, ThreadPoolExecutor workers,
+                       SendBudget sendBudget, int ingestCapacity, int slots) {
+            this.name = name;
+            this.phoneNumberId = phoneNumberId;
+            this.accessToken = accessToken;
+            this.workers = workers;
+            this.sendBudget = sendBudget;
+            this.ingest = new LinkedBlockingQueue<>(ingestCapacity);
+            this.slots = new Semaphore(slots);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getPhoneNumberId() {
+            return phoneNumberId;
+        }
+        
+        public String getAccessToken() {
+            return accessToken;
+        }
+    }
+    
+    /**
+     * Token bucket for outbound messages; a caller reserves a permit and waits out the deficit
+     */
+    private static final class SendBudget {
+        
+        private final double permitsPerSecond;
+        private final double burst;
+        private double available;
+        private long refilledAt = System.nanoTime();
+        
+        private SendBudget(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = Math.max(1, burst);
+            this.available = this.burst;
+        }
+        
+        /**
+         * Reserve a permit
+         * 
+         * @return Milliseconds to wait before sending, or -1 if that would exceed maxWaitMs
+         */
+        synchronized long reserve(long maxWaitMs) {
+            long now = System.nanoTime();
+            available = Math.min(burst, available + (now - refilledAt) / 1e9 * permitsPerSecond);
+            refilledAt = now;
+            
+            double waitMs = available >= 1 ? 0 : (1 - available) / permitsPerSecond * 1000;
+            if (waitMs > maxWaitMs) {
+                return -1;
+            }
+            available -= 1;
+            return (long) Math.ceil(waitMs);
+        }
+    }
+    
+    @PostConstruct
+    public void initTenants() {
+        List<WhatsAppConfig.Tenant> configured = whatsAppConfig.getTenants();
+        if (configured.isEmpty()) {
+            WhatsAppConfig.Tenant single = new WhatsAppConfig.Tenant();
+            single.setName("default");
+            single.setPhoneNumberId(whatsAppConfig.getPhoneNumberId());
+            configured = List.of(single);
+        }
+        
+        for (WhatsAppConfig.Tenant config : configured) {
+            String name = config.getName() != null ? config.getName() : config.getPhoneNumberId();
+            String accessToken = config.getAccessToken() != null && !config.getAccessToken().isBlank()
+                ? config.getAccessToken() : whatsAppConfig.getAccessToken();
+            
+            AtomicInteger threadCount = new AtomicInteger();
+            ThreadPoolExecutor workers = new ThreadPoolExecutor(
+                config.getWorkerThreads(), config.getWorkerThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tenant-" + name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            
+            Tenant tenant = new Tenant(name, config.getPhoneNumberId(), accessToken, workers,
+                new SendBudget(config.getMessagesPerSecond(), config.getBurst()),
+                config.getIngestCapacity(), config.getWorkerThreads() + config.getQueueCapacity());
+            tenant.dispatcher = new Thread(() -> dispatch(tenant), "tenant-" + name + "-ingest");
+            tenant.dispatcher.setDaemon(true);
+            tenant.dispatcher.start();
+            tenants.add(tenant);
+            if (tenant.phoneNumberId != null) {
+                tenantsByPhoneNumberId.put(tenant.phoneNumberId, tenant);
+            }
+            meterRegistry.gauge("tenant.queue", Tags.of("tenant", name), workers, executor -> executor.getQueue().size());
+            meterRegistry.gauge("tenant.ingest", Tags.of("tenant", name), tenant.ingest, BlockingQueue::size);
+        }
+        
+        int maxRoutes = whatsAppConfig.getTenantRoutingEntries();
+        routes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxRoutes;
+            }
+        };
+        logger.info("☎️ Tenant registry initialized with {} phone numbers", tenants.size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        for (Tenant tenant : tenants) {
+            tenant.dispatcher.interrupt();
+            tenant.workers.shutdownNow();
+        }
+    }
+    
+    /**
+     * Tenant of the number that received a webhook; unknown numbers map to the first tenant
+     */
+    public Tenant forPhoneNumberId(String phoneNumberId) {
+        Tenant tenant = phoneNumberId != null ? tenantsByPhoneNumberId.get(phoneNumberId) : null;
+        if (tenant == null) {
+            if (phoneNumberId != null && tenants.size() > 1) {
+                logger.warn("⚠️ Webhook for unconfigured phone number id {}, using tenant {}", phoneNumberId, tenants.get(0).name);
+            }
+            return tenants.get(0);
+        }
+        return tenant;
+    }
+    
+    /**
+     * Tenant to send to a user through: the number they last wrote to
+     */
+    public Tenant forRecipient(String recipient) {
+        if (recipient == null || tenants.size() == 1) {
+            return tenants.get(0);
+        }
+        String phoneNumberId;
+        synchronized (routes) {
+            phoneNumberId = routes.get(recipient);
+        }
+        
+        // Not seen since the restart or evicted; the stored route outlives both
+        if (phoneNumberId == null) {
+            phoneNumberId = tenantRouteRepository.findPhoneNumberId(recipient).orElse(null);
+            if (phoneNumberId != null) {
+                synchronized (routes) {
+                    routes.putIfAbsent(recipient, phoneNumberId);
+                }
+            }
+        }
+        return forPhoneNumberId(phoneNumberId);
+    }
+    
+    /**
+     * Queue inbound work for a sender on the number that received it; never runs it or
+     * waits on the calling thread, which is shared by all numbers
+     * 
+     * @return False if the number's ingest queue is full and the work was shed
+     */
+    public boolean execute(Tenant tenant, String sender, Runnable work) {
+        if (sender != null && tenant.phoneNumberId != null && tenants.size() > 1) {
+            String previous;
+            synchronized (routes) {
+                previous = routes.put(sender, tenant.phoneNumberId);
+            }
+            if (!tenant.phoneNumberId.equals(previous)) {
+                try {
+                    tenantRouteRepository.save(sender, tenant.phoneNumberId);
+                } catch (RuntimeException e) {
+                    // The in-memory route still applies on this instance
+                    logger.warn("⚠️ Could not store tenant route for {}: {}", sender, e.getMessage());
+                }
+            }
+        }
+        
+        if (tenant.ingest.offer(work)) {
+            return true;
+        }
+        meterRegistry.counter("tenant.shed", "tenant", tenant.name).increment();
+        return false;
+    }
+    
+    /**
+     * Feed a tenant's ingest queue to its workers, waiting while they are saturated
+     */
+    private void dispatch(Tenant tenant) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Runnable work = tenant.ingest.take();
+                tenant.slots.acquire();
+                try {
+                    tenant.workers.execute(() -> {
+                        try {
+                            work.run();
+                        } finally {
+                            tenant.slots.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Only when shutting down; the slots keep the pool from ever being full
+                    tenant.slots.release();
+                    logger.warn("⚠️ Workers of tenant {} stopped, dropping queued work", tenant.name);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Wait for the tenant's send budget to allow one more message
+     * 
+     * @return False if the wait would exceed whatsapp.send-max-wait-ms
+     */
+    public boolean acquireSendPermit(Tenant tenant) throws InterruptedException {
+        long waitMs = tenant.sendBudget.reserve(whatsAppConfig.getSendMaxWaitMs());
+        if (waitMs < 0) {
+            meterRegistry.counter("tenant.throttled", "tenant", tenant.name).increment();
+            return false;
+        }
+        if (waitMs > 0) {
+            meterRegistry.timer("tenant.send_wait", "tenant", tenant.name).record(waitMs, TimeUnit.MILLISECONDS);
+            Thread.sleep(waitMs);
+        }
+        return true;
+    }
+    
+    /**
+     * Per-tenant queue depth and configuration, for the status endpoint
+     */
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (Tenant tenant : tenants) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", tenant.name);
+            entry.put("phone_number_id", tenant.phoneNumberId);
+            entry.put("access_token_configured", tenant.accessToken != null);
+            entry.put("active_workers", tenant.workers.getActiveCount());
+            entry.put("queued", tenant.workers.getQueue().size());
+            status.add(entry);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,404 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.Category;
+import com.whatsapp.eventservice.model.EntityChange;
+import com.whatsapp.eventservice.model.Event;
+import com.whatsapp.eventservice.repository.CategoryRepository;
+import com.whatsapp.eventservice.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Materialized in-memory snapshot of upcoming events
+ * 
+ * Events are partitioned by city and category into one bucket per day, counted from
+ * the snapshot's base date. A query such as "this weekend in Boston, music" resolves
+ * its date range to a pair of day offsets once and then reads a few array slices,
+ * instead of scanning the events table and re-evaluating the date logic per event.
+ * 
+ * The snapshot is rebuilt from the database lazily on first use and at midnight, and
+ * is patched in memory from the entity change feed once each event write commits.
+ * Changes are queued and applied together on the next read, so a bulk import
+ * rebuilds the buckets once rather than once per event. A rebuild that fails keeps
+ * the previous snapshot and is retried on a later read, at most every 30 seconds.
+ */
+@Service
+public class UpcomingEventsSnapshot {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UpcomingEventsSnapshot.class);
+    
+    /** Days with their own bucket; anything later goes into one overflow bucket */
+    private static final int HORIZON_DAYS = 90;
+    
+    private static final String ALL_CITIES = "*";
+    private static final long ALL_CATEGORIES = -1L;
+    
+    private static final long REBUILD_RETRY_MS = 30_000;
+    
+    private static final Event[] NO_EVENTS = new Event[0];
+    private static final Event[][] NO_BUCKETS = new Event[HORIZON_DAYS + 1][];
+    
+    static {
+        Arrays.fill(NO_BUCKETS, NO_EVENTS);
+    }
+    
+    @Autowired
+    private EventRepository eventRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    private volatile Snapshot current;
+    
+    // Committed changes not yet in the snapshot, applied together on the next read; guarded by this
+    private final Map<Long, Event> pendingSaved = new LinkedHashMap<>();
+    private final Set<Long> pendingDeleted = new HashSet<>();
+    private volatile boolean hasPending;
+    
+    // Set when the last rebuild failed; retried on a read once nextRebuildAttemptMs has passed
+    private volatile boolean rebuildFailed;
+    private volatile long nextRebuildAttemptMs;
+    
+    /**
+     * Find upcoming events matching the given filters
+     * 
+     * @param city City name, or null/"near_me" for all cities; an unknown city matches nothing
+     * @param category Category name, or null/"general" for all categories; an unknown one matches nothing
+     * @param dateRange Date range keyword as produced by the query parsers
+     * @param limit Maximum number of events to return
+     * @return Events ordered by start time
+     */
+    public List<Event> find(String city, String category, String dateRange, int limit) {
+        Snapshot snapshot = currentSnapshot();
+        
+        LocalDateTime now = LocalDateTime.now();
+        int[] days = resolveDayRange(dateRange, snapshot.baseDate);
+        Event[][] buckets = snapshot.bucketsFor(city, category);
+        
+        List<Event> result = new ArrayList<>(Math.min(limit, 32));
+        for (int day = days[0]; day <= days[1] && result.size() < limit; day++) {
+            for (Event event : buckets[day]) {
+                // Only today's bucket can hold events that have already started
+                if (day == 0 && !event.getStartTime().isAfter(now)) {
+                    continue;
+                }
+                result.add(event);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        
+        logger.info("📸 Snapshot query - City: {}, Category: {}, DateRange: {} → {} events",
+                   city, category, dateRange, result.size());
+        return result;
+    }
+    
+    /**
+     * Upcoming event by ID, without going to the database
+     * 
+     * @return The event, or empty if it is not an upcoming event in the snapshot
+     */
+    public Optional<Event> findById(Long id) {
+        return Optional.ofNullable(currentSnapshot().eventsById.get(id));
+    }
+    
+    /**
+     * Number of upcoming events held in the snapshot
+     */
+    public int size() {
+        return currentSnapshot().events.size();
+    }
+    
+    /**
+     * Apply a committed event change; changes tailed from other instances carry no
+     * payload, so the event is reloaded by ID
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChange change) {
+        if (change.getEntityType() != EntityChange.EntityType.event) {
+            return;
+        }
+        
+        if (change.getChangeType() == EntityChange.ChangeType.deleted) {
+            onEventDeleted(change.getEntityId());
+        } else if (change.getEntity() instanceof Event) {
+            onEventSaved((Event) change.getEntity());
+        } else {
+            eventRepository.findById(change.getEntityId())
+                .ifPresentOrElse(this::onEventSaved, () -> onEventDeleted(change.getEntityId()));
+        }
+    }
+    
+    /**
+     * Insert or replace an event after it was created or updated
+     */
+    public synchronized void onEventSaved(Event event) {
+        if (current == null || event.getId() == null) {
+            return;
+        }
+        pendingDeleted.remove(event.getId());
+        pendingSaved.put(event.getId(), event);
+        hasPending = true;
+    }
+    
+    /**
+     * Remove an event after it was deleted
+     */
+    public synchronized void onEventDeleted(Long eventId) {
+        if (current == null) {
+            return;
+        }
+        pendingSaved.remove(eventId);
+        pendingDeleted.add(eventId);
+        hasPending = true;
+    }
+    
+    /**
+     * Build a new snapshot with the pending changes, in one pass however many there are
+     */
+    private void applyPending() {
+        Snapshot snapshot = current;
+        List<Event> events = new ArrayList<>(snapshot.events.size() + pendingSaved.size());
+        for (Event existing : snapshot.events) {
+            if (!pendingSaved.containsKey(existing.getId()) && !pendingDeleted.contains(existing.getId())) {
+                events.add(existing);
+            }
+        }
+        events.addAll(pendingSaved.values());
+        pendingSaved.clear();
+        pendingDeleted.clear();
+        
+        current = Snapshot.build(snapshot.baseDate, events, snapshot.categoryIdsByName);
+    }
+    
+    /**
+     * Roll the day buckets forward at midnight and pick up any writes made outside this service
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollForward() {
+        logger.info("🌙 Rolling upcoming events snapshot forward");
+        rebuild();
+    }
+    
+    /**
+     * Rebuild the snapshot from the database
+     */
+    public synchronized void rebuild() {
+        // Changes committed from here on are applied on top of what the query reads
+        pendingSaved.clear();
+        pendingDeleted.clear();
+        
+        LocalDate today = LocalDate.now();
+        List<Event> events;
+        Map<String, Long> categoryIdsByName = new HashMap<>();
+        try {
+            events = eventRepository.findUpcomingEvents(today.atStartOfDay());
+            for (Category category : categoryRepository.findAll()) {
+                if (category.getName() != null) {
+                    categoryIdsByName.put(category.getName().toLowerCase(), category.getId());
+                }
+            }
+        } catch (RuntimeException e) {
+            // An empty snapshot would be cached until midnight; keep the last good one instead
+            rebuildFailed = true;
+            nextRebuildAttemptMs = System.currentTimeMillis() + REBUILD_RETRY_MS;
+            logger.error("❌ Could not rebuild upcoming events snapshot, keeping the previous one", e);
+            return;
+        }
+        
+        rebuildFailed = false;
+        current = Snapshot.build(today, events, categoryIdsByName);
+        logger.info("✅ Upcoming events snapshot rebuilt with {} events", current.events.size());
+    }
+    
+    private Snapshot currentSnapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null || !snapshot.baseDate.equals(LocalDate.now()) || hasPending || rebuildFailed) {
+            synchronized (this) {
+                snapshot = current;
+                boolean stale = snapshot == null || !snapshot.baseDate.equals(LocalDate.now()) || rebuildFailed;
+                if (stale && System.currentTimeMillis() >= nextRebuildAttemptMs) {
+                    rebuild();
+                }
+                if (current != null && (!pendingSaved.isEmpty() || !pendingDeleted.isEmpty())) {
+                    applyPending();
+                }
+                hasPending = false;
+                snapshot = current;
+            }
+        }
+        // Nothing loaded yet and the database is failing
+        return snapshot != null ? snapshot : Snapshot.build(LocalDate.now(), List.of(), Map.of());
+    }
+    
+    /**
+     * Resolve a date range keyword to inclusive day offsets from the base date
+     */
+    private static int[] resolveDayRange(String dateRange, LocalDate baseDate) {
+        if (dateRange == null) {
+            return new int[]{0, HORIZON_DAYS};
+        }
+        
+        switch (dateRange.toLowerCase()) {
+            case "today":
+                return new int[]{0, 0};
+            case "tomorrow":
+                return new int[]{1, 1};
+            case "weekend": {
+                DayOfWeek dayOfWeek = baseDate.getDayOfWeek();
+                if (dayOfWeek == DayOfWeek.SATURDAY) {
+                    return new int[]{0, 1};
+                }
+                if (dayOfWeek == DayOfWeek.SUNDAY) {
+                    return new int[]{0, 0};
+                }
+                int toSaturday = DayOfWeek.SATURDAY.getValue() - dayOfWeek.getValue();
+                return new int[]{toSaturday, toSaturday + 1};
+            }
+            case "this_week":
+                return new int[]{0, 7};
+            case "next_week":
+                return new int[]{7, 14};
+            case "this_month":
+                return new int[]{0, (int) Math.min(HORIZON_DAYS, ChronoUnit.DAYS.between(baseDate, baseDate.plusMonths(1)))};
+            default:
+                return new int[]{0, HORIZON_DAYS};
+        }
+    }
+    
+    /**
+     * Immutable view of upcoming events bucketed by city, category and day
+     */
+    private static final class Snapshot {
+        
+        private final LocalDate baseDate;
+        private final List<Event> events;
+        private final Map<Long, Event> eventsById;
+        private final Map<String, Long> categoryIdsByName;
+        private final Map<String, Map<Long, Event[][]>> buckets;
+        
+        private Snapshot(LocalDate baseDate, List<Event> events, Map<String, Long> categoryIdsByName,
+                         Map<String, Map<Long, Event[][]>> buckets) {
+            this.baseDate = baseDate;
+            this.events = events;
+            this.eventsById = new HashMap<>(events.size() * 2);
+            for (Event event : events) {
+                if (event.getId() != null) {
+                    eventsById.put(event.getId(), event);
+                }
+            }
+            this.categoryIdsByName = categoryIdsByName;
+            this.buckets = buckets;
+        }
+        
+        static Snapshot build(LocalDate baseDate, List<Event> source, Map<String, Long> categoryIdsByName) {
+            List<Event> events = new ArrayList<>(source.size());
+            for (Event event : source) {
+                if (event.getStartTime() != null && !event.getStartTime().toLocalDate().isBefore(baseDate)) {
+                    events.add(event);
+                }
+            }
+            events.sort(Comparator.comparing(Event::getStartTime));
+            
+            Map<String, Map<Long, List<List<Event>>>> staging = new HashMap<>();
+            for (Event event : events) {
+                int day = (int) Math.min(HORIZON_DAYS, ChronoUnit.DAYS.between(baseDate, event.getStartTime().toLocalDate()));
+                String city = event.getCity() != null ? event.getCity().toLowerCase() : null;
+                Long categoryId = event.getCategoryId();
+                
+                stage(staging, ALL_CITIES, ALL_CATEGORIES, day, event);
+                if (categoryId != null) {
+                    stage(staging, ALL_CITIES, categoryId, day, event);
+                }
+                if (city != null) {
+                    stage(staging, city, ALL_CATEGORIES, day, event);
+                    if (categoryId != null) {
+                        stage(staging, city, categoryId, day, event);
+                    }
+                }
+            }
+            
+            // Freeze the staged lists into plain arrays for allocation-free reads
+            Map<String, Map<Long, Event[][]>> buckets = new HashMap<>();
+            for (Map.Entry<String, Map<Long, List<List<Event>>>> cityEntry : staging.entrySet()) {
+                Map<Long, Event[][]> byCategory = new HashMap<>();
+                for (Map.Entry<Long, List<List<Event>>> categoryEntry : cityEntry.getValue().entrySet()) {
+                    List<List<Event>> days = categoryEntry.getValue();
+                    Event[][] frozen = new Event[HORIZON_DAYS + 1][];
+                    for (int day = 0; day <= HORIZON_DAYS; day++) {
+                        List<Event> bucket = days.get(day);
+                        frozen[day] = bucket == null ? NO_EVENTS : bucket.toArray(NO_EVENTS);
+                    }
+                    byCategory.put(categoryEntry.getKey(), frozen);
+                }
+                buckets.put(cityEntry.getKey(), byCategory);
+            }
+            
+            return new Snapshot(baseDate, List.copyOf(events), Map.copyOf(categoryIdsByName), buckets);
+        }
+        
+        private static void stage(Map<String, Map<Long, List<List<Event>>>> staging, String city, long categoryId,
+                                  int day, Event event) {
+            List<List<Event>> days = staging
+                .computeIfAbsent(city, key -> new HashMap<>())
+                .computeIfAbsent(categoryId, key -> {
+                    List<List<Event>> list = new ArrayList<>(HORIZON_DAYS + 1);
+                    for (int i = 0; i <= HORIZON_DAYS; i++) {
+                        list.add(null);
+                    }
+                    return list;
+                });
+            if (days.get(day) == null) {
+                days.set(day, new ArrayList<>());
+            }
+            days.get(day).add(event);
+        }
+        
+        /**
+         * Day buckets for a city and category. An unspecified filter (null, blank, "near_me"
+         * for the city, "general" for the category) matches all; an unknown city or category
+         * matches nothing, as a strict filter would.
+         */
+        Event[][] bucketsFor(String city, String category) {
+            String cityKey = isUnspecified(city, "near_me") ? ALL_CITIES : city.trim().toLowerCase();
+            Map<Long, Event[][]> byCategory = buckets.get(cityKey);
+            if (byCategory == null) {
+                return NO_BUCKETS;
+            }
+            
+            Long categoryId = ALL_CATEGORIES;
+            if (!isUnspecified(category, "general")) {
+                categoryId = categoryIdsByName.get(category.trim().toLowerCase());
+                if (categoryId == null) {
+                    return NO_BUCKETS;
+                }
+            }
+            Event[][] days = byCategory.get(categoryId);
+            return days != null ? days : NO_BUCKETS;
+        }
+        
+        private static boolean isUnspecified(String value, String anyKeyword) {
+            return value == null || value.isBlank() || anyKeyword.equalsIgnoreCase(value.trim());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.ClusterMember;
+import com.whatsapp.eventservice.model.ClusterRingChange;
+import com.whatsapp.eventservice.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops the in-memory state of users that a cluster ring change moved to another instance
+ * 
+ * The new owner loads the conversation and interest profile from the database on its
+ * first message. Without this, the reaper here would still close the conversation when
+ * its old idle deadline passed, and the caches would serve stale state if the user ever
+ * moved back.
+ */
+@Service
+public class UserHandoff {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserHandoff.class);
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ConversationStateStore conversationStateStore;
+    
+    @Autowired
+    private ConversationReaper conversationReaper;
+    
+    @Autowired
+    private UserInterestProfileCache userInterestProfileCache;
+    
+    @EventListener
+    public void onRingChange(ClusterRingChange change) {
+        Set<Long> localUsers = new HashSet<>(conversationStateStore.userIds());
+        localUsers.addAll(userInterestProfileCache.userIds());
+        if (localUsers.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> movedAway = new HashSet<>();
+        for (Map.Entry<Long, String> user : userRepository.findPhoneNumbersByIds(localUsers).entrySet()) {
+            ClusterMember owner = clusterMembership.ownerOf(user.getValue());
+            if (!clusterMembership.isLocal(owner)) {
+                movedAway.add(user.getKey());
+            }
+        }
+        if (movedAway.isEmpty()) {
+            return;
+        }
+        
+        List<Long> conversationIds = conversationStateStore.evictUsers(movedAway);
+        conversationReaper.untrack(conversationIds);
+        for (Long userId : movedAway) {
+            userInterestProfileCache.evict(userId);
+        }
+        logger.info("🕸️ Handed off {} users and {} conversations to other instances",
+                   movedAway.size(), conversationIds.size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.model.UserInterestProfile;
+import com.whatsapp.eventservice.repository.UserInterestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * In-memory cache of per-user interest profiles
+ * 
+ * Profiles are loaded from user_interest on first use and kept in an access-ordered
+ * LRU map, so the ranking path can personalize results without a DB round trip.
+ * Feedback updates the cached profile in place and increments the stored weight.
+ */
+@Service
+public class UserInterestProfileCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserInterestProfileCache.class);
+    
+    private static final int MAX_CACHED_PROFILES = 10_000;
+    
+    @Autowired
+    private UserInterestRepository userInterestRepository;
+    
+    private final Map<Long, UserInterestProfile> profiles = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserInterestProfile> eldest) {
+            return size() > MAX_CACHED_PROFILES;
+        }
+    };
+    
+    /**
+     * Get the profile for a user, loading it from the database on a cache miss
+     */
+    public UserInterestProfile getProfile(Long userId) {
+        synchronized (profiles) {
+            UserInterestProfile cached = profiles.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        // Load outside the lock so a slow query does not block other users
+        UserInterestProfile loaded = userInterestRepository.findProfileByUserId(userId);
+        
+        synchronized (profiles) {
+            // Another thread may have loaded or updated the profile meanwhile; keep theirs
+            UserInterestProfile existing = profiles.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+    
+    /**
+     * Apply a weight delta for a category, updating both the cache and user_interest
+     */
+    public UserInterestProfile applyDelta(Long userId, Long categoryId, float delta) {
+        logger.info("🎯 Applying interest delta {} for user: {}, category: {}", delta, userId, categoryId);
+        
+        userInterestRepository.incrementCategoryWeight(userId, categoryId, delta);
+        
+        synchronized (profiles) {
+            UserInterestProfile cached = profiles.get(userId);
+            if (cached != null) {
+                UserInterestProfile updated = cached.withDelta(categoryId, delta);
+                profiles.put(userId, updated);
+                return updated;
+            }
+        }
+        
+        // Not cached: the stored row already includes the delta, so load without applying it again.
+        // Replace any profile a concurrent miss loaded before the increment.
+        UserInterestProfile loaded = userInterestRepository.findProfileByUserId(userId);
+        synchronized (profiles) {
+            profiles.put(userId, loaded);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Drop a cached profile so the next access reloads it
+     */
+    public void evict(Long userId) {
+        synchronized (profiles) {
+            profiles.remove(userId);
+        }
+    }
+    
+    /**
+     * Users with a profile held in memory
+     */
+    public Set<Long> userIds() {
+        synchronized (profiles) {
+            return new HashSet<>(profiles.keySet());
+        }
+    }
+    
+    /**
+     * Number of profiles currently held in memory
+     */
+    public int size() {
+        synchronized (profiles) {
+            return profiles.size();
+        }
+    }
+    
+    /**
+     * Reorder items by the user's interest in their category, highest first.
+     * The sort is stable, so items the user has no signal for keep their original order.
+     */
+    public <T> List<T> rankByInterest(Long userId, List<T> items, Function<T, Long> categoryOf) {
+        if (userId == null || items.size() < 2) {
+            return items;
+        }
+        
+        UserInterestProfile profile = getProfile(userId);
+        if (profile.size() == 0) {
+            return items;
+        }
+        
+        List<T> ranked = new ArrayList<>(items);
+        ranked.sort(Comparator.comparingDouble((T item) -> profile.weightFor(categoryOf.apply(item))).reversed());
+        return ranked;
+    }
+}
@@ -1,6 +1,7 @@
 package com.whatsapp.eventservice.service;
 
 import com.whatsapp.eventservice.model.User;
+import com.whatsapp.eventservice.model.UserInterestProfile;
 import com.whatsapp.eventservice.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private UserInterestProfileCache userInterestProfileCache;
+    
     /**
      * Get or create a user by phone number
      * 
@@ -143,9 +147,12 @@ public class UserService {
     public Map<String, String> getUserPreferences(Long id) {
         logger.info("⚙️ Getting preferences for user ID: {}", id);
         
-        // This would typically use a UserPreferenceRepository
-        // For now, return empty map
+        // Category interests come from the cached profile built from user_interest and feedback
+        UserInterestProfile profile = userInterestProfileCache.getProfile(id);
         Map<String, String> preferences = new HashMap<>();
+        for (int i = 0; i < profile.size(); i++) {
+            preferences.put("category_" + profile.categoryIdAt(i), String.valueOf(profile.weightAt(i)));
+        }
         
         logger.info("✅ Retrieved {} preferences for user", preferences.size());
         return preferences;
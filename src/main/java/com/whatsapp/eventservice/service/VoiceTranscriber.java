@@ -0,0 +1,194 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.SpeechConfig;
+import com.whatsapp.eventservice.model.MediaItem;
+import com.whatsapp.eventservice.model.VoiceTranscript;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transcribes voice messages locally so they can be answered like typed ones
+ * 
+ * Stored audio is decoded to 16 kHz mono WAV with the speech.decode-command and passed
+ * to the configured SpeechToTextModel, all on a dedicated bounded pool so recognition
+ * never competes with the request and async threads. Transcripts are cached by the
+ * content hash of the audio, so a forwarded voice note is recognized once. The
+ * transcript is published as a VoiceTranscript from the async executor, where the
+ * message handling picks it up and runs it through the text path.
+ */
+@Service
+public class VoiceTranscriber implements MediaExtractor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(VoiceTranscriber.class);
+    
+    @Autowired
+    private SpeechConfig speechConfig;
+    
+    @Autowired
+    private SpeechToTextModel speechToTextModel;
+    
+    @Autowired
+    private WhatsAppMessageService whatsAppMessageService;
+    
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor conversationExecutor;
+    
+    private ThreadPoolExecutor workers;
+    
+    // Content hash -> transcript, least recently used evicted first
+    private Map<String, String> transcripts;
+    
+    @PostConstruct
+    public void startWorkers() {
+        int cacheEntries = speechConfig.getCacheEntries();
+        transcripts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheEntries;
+            }
+        };
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        workers = new ThreadPoolExecutor(
+            speechConfig.getWorkerThreads(), speechConfig.getWorkerThreads(), 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(speechConfig.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "stt-worker-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+        meterRegistry.gauge("media.stt.queue", Tags.empty(), workers, executor -> executor.getQueue().size());
+        logger.info("🎙️ Speech-to-text pool started with {} workers using {}",
+                   speechConfig.getWorkerThreads(), speechToTextModel.getClass().getSimpleName());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+    
+    @Override
+    public boolean supports(MediaItem item) {
+        return speechConfig.isEnabled() && item.getKind() == MediaItem.Kind.audio && item.getUserId() != null;
+    }
+    
+    @Override
+    public void enqueue(MediaItem item) {
+        String cached = cachedTranscript(item.getContentHash());
+        if (cached != null) {
+            meterRegistry.counter("media.stt.cache", "result", "hit").increment();
+            publish(new VoiceTranscript(item, cached, true));
+            return;
+        }
+        meterRegistry.counter("media.stt.cache", "result", "miss").increment();
+        
+        long queuedAt = System.currentTimeMillis();
+        try {
+            workers.execute(() -> transcribe(item, queuedAt));
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Speech-to-text queue full, skipping {}", item);
+            meterRegistry.counter("media.stt.rejected").increment();
+            whatsAppMessageService.sendTextMessage(item.getFrom(),
+                "I'm listening to a lot of voice messages right now and couldn't get to yours. Could you type what you're looking for?");
+        }
+    }
+    
+    @Override
+    public void failed(MediaItem item) {
+        // Answered as an empty transcript, which asks the user to type instead
+        publish(new VoiceTranscript(item, "", false));
+    }
+    
+    private void transcribe(MediaItem item, long queuedAt) {
+        long started = System.currentTimeMillis();
+        meterRegistry.timer("media.stt.queue_wait").record(started - queuedAt, TimeUnit.MILLISECONDS);
+        
+        String text;
+        Path wav = null;
+        try {
+            wav = Files.createTempFile("voice-", ".wav");
+            LocalCommand.run(speechConfig.getDecodeCommand(),
+                Map.of("input", item.getPath().toString(), "output", wav.toString()), speechConfig.getTimeoutSeconds());
+            long decodedAt = System.currentTimeMillis();
+            meterRegistry.timer("media.stt.decode").record(decodedAt - started, TimeUnit.MILLISECONDS);
+            
+            text = speechToTextModel.transcribe(wav).trim();
+            meterRegistry.timer("media.stt", "outcome", text.isEmpty() ? "no_text" : "text")
+                .record(System.currentTimeMillis() - decodedAt, TimeUnit.MILLISECONDS);
+                
+        } catch (Exception e) {
+            long latencyMs = System.currentTimeMillis() - started;
+            meterRegistry.timer("media.stt", "outcome", "error").record(latencyMs, TimeUnit.MILLISECONDS);
+            logger.error("❌ Speech-to-text failed for {} after {} ms", item, latencyMs, e);
+            // Answered as an empty transcript, which asks the user to type instead
+            text = "";
+        } finally {
+            deleteQuietly(wav);
+        }
+        
+        if (!text.isEmpty() && item.getContentHash() != null) {
+            synchronized (transcripts) {
+                transcripts.put(item.getContentHash(), text);
+            }
+        }
+        logger.info("🎙️ Transcribed {} in {} ms after {} ms queued, {} chars",
+                   item.getMediaId(), System.currentTimeMillis() - started, started - queuedAt, text.length());
+        
+        publish(new VoiceTranscript(item, text, false));
+    }
+    
+    /**
+     * Hand the transcript to the listeners; the reply waits on the LLM, so keep it off the CPU pool
+     */
+    private void publish(VoiceTranscript transcript) {
+        conversationExecutor.execute(() -> applicationEventPublisher.publishEvent(transcript));
+    }
+    
+    private String cachedTranscript(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        synchronized (transcripts) {
+            return transcripts.get(contentHash);
+        }
+    }
+    
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not delete {}", path);
+        }
+    }
+}
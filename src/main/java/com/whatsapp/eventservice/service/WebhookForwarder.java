@@ -0,0 +1,133 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.ClusterConfig;
+import com.whatsapp.eventservice.model.ClusterMember;
+import com.whatsapp.eventservice.model.WebhookEnvelope;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Forwards the messages of users owned by another instance to their owner
+ * 
+ * The raw webhook body goes to the owner's /webhook with its original signature, so
+ * the owner verifies it like any other webhook, plus a header listing the message ids
+ * it should process; statuses stay with the receiving instance. Forwarding runs on a
+ * small bounded pool off the request thread. If the owner cannot be reached or the
+ * pool is full, the messages are processed locally instead: a cold cache on this
+ * instance is better than a lost message.
+ */
+@Service
+public class WebhookForwarder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookForwarder.class);
+    
+    /**
+     * Header naming the message ids a forwarded webhook carries for its receiver
+     */
+    public static final String FORWARDED_MESSAGES_HEADER = "X-Cluster-Forwarded-Messages";
+    
+    @Autowired
+    private ClusterConfig clusterConfig;
+    
+    @Autowired
+    private WebhookService webhookService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private ThreadPoolExecutor forwarders;
+    
+    @PostConstruct
+    public void startWorkers() {
+        AtomicInteger threadCount = new AtomicInteger();
+        forwarders = new ThreadPoolExecutor(
+            clusterConfig.getForwardThreads(), clusterConfig.getForwardThreads(), 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(clusterConfig.getForwardQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "cluster-forward-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        meterRegistry.gauge("cluster.forward.queue", Tags.empty(), forwarders, executor -> executor.getQueue().size());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        forwarders.shutdownNow();
+    }
+    
+    /**
+     * Forward an envelope holding only the owner's messages; returns immediately
+     * 
+     * @param owner Instance owning the senders of the messages
+     * @param envelope Raw body and the message refs to forward
+     * @param signature Original X-Hub-Signature-256 header, may be null
+     */
+    public void forward(ClusterMember owner, WebhookEnvelope envelope, String signature) {
+        try {
+            forwarders.execute(() -> {
+                try {
+                    post(owner, envelope, signature);
+                    meterRegistry.counter("cluster.forward", "outcome", "forwarded").increment();
+                } catch (IOException e) {
+                    logger.warn("⚠️ Forwarding {} messages to {} failed, processing locally: {}",
+                               envelope.getMessages().size(), owner.getInstanceId(), e.getMessage());
+                    meterRegistry.counter("cluster.forward", "outcome", "failed").increment();
+                    webhookService.processEnvelope(envelope);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("⚠️ Forward queue full, processing {} messages for {} locally",
+                       envelope.getMessages().size(), owner.getInstanceId());
+            meterRegistry.counter("cluster.forward", "outcome", "rejected").increment();
+            webhookService.processEnvelope(envelope);
+        }
+    }
+    
+    private void post(ClusterMember owner, WebhookEnvelope envelope, String signature) throws IOException {
+        String messageIds = envelope.getMessages().stream()
+            .map(WebhookEnvelope.MessageRef::getId)
+            .collect(Collectors.joining(","));
+        
+        HttpURLConnection connection = (HttpURLConnection) new URL(owner.getBaseUrl() + "/webhook").openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty(FORWARDED_MESSAGES_HEADER, messageIds);
+            if (signature != null) {
+                connection.setRequestProperty("X-Hub-Signature-256", signature);
+            }
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(clusterConfig.getForwardTimeoutMs());
+            connection.setReadTimeout(clusterConfig.getForwardTimeoutMs());
+            
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(envelope.getBody());
+            }
+            
+            int responseCode = connection.getResponseCode();
+            if (responseCode < 200 || responseCode >= 300) {
+                throw new IOException("Owner answered HTTP " + responseCode);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.whatsapp.eventservice.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatsapp.eventservice.model.ClusterMember;
+import com.whatsapp.eventservice.model.WebhookEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lightweight webhook ingest: read the routing fields and hand the raw body to a worker
+ * 
+ * The body is walked once with the Jackson streaming parser. Only entry[].changes[].value
+ * is descended into, and inside it only metadata.phone_number_id and the scalar fields of
+ * each message and status; media, contacts, interactive parts and everything else are
+ * skipped without being materialized. The request thread never binds the full payload.
+ * 
+ * In cluster mode, messages from users owned by another instance are split off and
+ * forwarded to their owner; statuses and the local users' messages are queued here.
+ */
+@Service
+public class WebhookIngestService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookIngestService.class);
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private WebhookService webhookService;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private WebhookForwarder webhookForwarder;
+    
+    /**
+     * Parse the routing fields and queue the body for processing
+     * 
+     * @param body Raw request body
+     * @param signature X-Hub-Signature-256 header, passed on when messages are forwarded
+     * @param forwardedMessageIds Message ids another instance forwarded here, or null for a webhook from WhatsApp
+     * @return The queued envelope
+     * @throws IOException If the body is not a JSON object
+     */
+    public WebhookEnvelope ingest(byte[] body, String signature, Set<String> forwardedMessageIds) throws IOException {
+        WebhookEnvelope envelope = parse(body);
+        
+        WebhookEnvelope local;
+        if (forwardedMessageIds != null) {
+            // Forwarded by the receiving instance, which handled the statuses; never forwarded again
+            List<WebhookEnvelope.MessageRef> forwarded = new ArrayList<>();
+            for (WebhookEnvelope.MessageRef message : envelope.getMessages()) {
+                if (forwardedMessageIds.contains(message.getId())) {
+                    forwarded.add(message);
+                }
+            }
+            local = envelope.part(forwarded, false);
+        } else if (clusterMembership.isEnabled() && !envelope.getMessages().isEmpty()) {
+            local = routeToOwners(envelope, signature);
+        } else {
+            local = envelope;
+        }
+        
+        if (local.isEmpty()) {
+            logger.debug("📭 Nothing in webhook to process locally");
+            return envelope;
+        }
+        
+        webhookService.processEnvelope(local);
+        return envelope;
+    }
+    
+    /**
+     * Forward messages of users owned elsewhere to their owners
+     * 
+     * @return The part of the envelope to process here: local users' messages and all statuses
+     */
+    private WebhookEnvelope routeToOwners(WebhookEnvelope envelope, String signature) {
+        List<WebhookEnvelope.MessageRef> localMessages = new ArrayList<>();
+        Map<String, List<WebhookEnvelope.MessageRef>> remoteMessages = new HashMap<>();
+        Map<String, ClusterMember> owners = new HashMap<>();
+        
+        for (WebhookEnvelope.MessageRef message : envelope.getMessages()) {
+            ClusterMember owner = clusterMembership.ownerOf(message.getFrom());
+            if (clusterMembership.isLocal(owner)) {
+                localMessages.add(message);
+            } else {
+                owners.put(owner.getInstanceId(), owner);
+                remoteMessages.computeIfAbsent(owner.getInstanceId(), id -> new ArrayList<>()).add(message);
+            }
+        }
+        
+        for (Map.Entry<String, List<WebhookEnvelope.MessageRef>> entry : remoteMessages.entrySet()) {
+            webhookForwarder.forward(owners.get(entry.getKey()), envelope.part(entry.getValue(), false), signature);
+        }
+        return envelope.part(localMessages, true);
+    }
+    
+    /**
+     * Extract message and status routing fields from a webhook body
+     */
+    public WebhookEnvelope parse(byte[] body) throws IOException {
+        WebhookEnvelope envelope = new WebhookEnvelope(body, System.currentTimeMillis());
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Webhook body is not a JSON object");
+            }
+            
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("entry".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readEntry(parser, envelope);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        
+        return envelope;
+    }
+    
+    private void readEntry(JsonParser parser, WebhookEnvelope envelope) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("changes".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    readChange(parser, envelope);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+    
+    private void readChange(JsonParser parser, WebhookEnvelope envelope) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("value".equals(field) && value == JsonToken.START_OBJECT) {
+                readValue(parser, envelope);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+    
+    private void readValue(JsonParser parser, WebhookEnvelope envelope) throws IOException {
+        String phoneNumberId = null;
+        List<WebhookEnvelope.MessageRef> messages = new ArrayList<>();
+        List<WebhookEnvelope.StatusRef> statuses = new ArrayList<>();
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("metadata".equals(field) && value == JsonToken.START_OBJECT) {
+                phoneNumberId = readPhoneNumberId(parser);
+            } else if ("messages".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    messages.add(readMessage(parser));
+                }
+            } else if ("statuses".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    statuses.add(readStatus(parser));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        
+        // metadata may come after messages and statuses, so the id is applied at the end
+        for (WebhookEnvelope.MessageRef message : messages) {
+            message.setPhoneNumberId(phoneNumberId);
+        }
+        for (WebhookEnvelope.StatusRef status : statuses) {
+            status.setPhoneNumberId(phoneNumberId);
+        }
+        envelope.getMessages().addAll(messages);
+        envelope.getStatuses().addAll(statuses);
+    }
+    
+    private String readPhoneNumberId(JsonParser parser) throws IOException {
+        String phoneNumberId = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("phone_number_id".equals(field)) {
+                phoneNumberId = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return phoneNumberId;
+    }
+    
+    private WebhookEnvelope.MessageRef readMessage(JsonParser parser) throws IOException {
+        WebhookEnvelope.MessageRef message = new WebhookEnvelope.MessageRef();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> message.setId(parser.getValueAsString());
+                case "from" -> message.setFrom(parser.getValueAsString());
+                case "type" -> message.setType(parser.getValueAsString());
+                case "timestamp" -> message.setTimestamp(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return message;
+    }
+    
+    private WebhookEnvelope.StatusRef readStatus(JsonParser parser) throws IOException {
+        WebhookEnvelope.StatusRef status = new WebhookEnvelope.StatusRef();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> status.setId(parser.getValueAsString());
+                case "status" -> status.setStatus(parser.getValueAsString());
+                case "recipient_id" -> status.setRecipientId(parser.getValueAsString());
+                case "timestamp" -> status.setTimestamp(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return status;
+    }
+}
@@ -1,6 +1,8 @@
 package com.whatsapp.eventservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.whatsapp.eventservice.config.WhatsAppConfig;
+import com.whatsapp.eventservice.model.WebhookEnvelope;
 import com.whatsapp.eventservice.model.WhatsAppWebhookPayload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,7 +11,10 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -29,6 +34,21 @@ public class WebhookService {
     @Autowired
     private MessageProcessingService messageProcessingService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MessageCorrelationStore messageCorrelationStore;
+    
+    @Autowired
+    private TenantRegistry tenantRegistry;
+    
+    @Autowired
+    private ClusterMembership clusterMembership;
+    
+    @Autowired
+    private ClusterJobScheduler clusterJobScheduler;
+    
     /**
      * Verify webhook URL
      * 
@@ -49,6 +69,48 @@ public class WebhookService {
         }
     }
     
+    /**
+     * Process an ingested webhook on a worker thread
+     * 
+     * Status updates are handled from their routing fields. The body is only bound to
+     * WhatsAppWebhookPayload when it carries messages, which need the full content;
+     * each message is then handed to the worker pool of the number that received it.
+     * 
+     * @param envelope Raw body with its routing fields
+     * @return CompletableFuture for async processing
+     */
+    @Async
+    public CompletableFuture<Void> processEnvelope(WebhookEnvelope envelope) {
+        try {
+            for (WebhookEnvelope.StatusRef statusRef : envelope.getStatuses()) {
+                WhatsAppWebhookPayload.MessageStatus status = new WhatsAppWebhookPayload.MessageStatus();
+                status.setId(statusRef.getId());
+                status.setStatus(statusRef.getStatus());
+                status.setRecipientId(statusRef.getRecipientId());
+                status.setTimestamp(statusRef.getTimestamp());
+                messageProcessingService.processMessageStatus(status);
+            }
+            
+            if (!envelope.getMessages().isEmpty()) {
+                WhatsAppWebhookPayload payload = objectMapper.readValue(envelope.getBody(), WhatsAppWebhookPayload.class);
+                Set<String> messageIds = new HashSet<>();
+                for (WebhookEnvelope.MessageRef messageRef : envelope.getMessages()) {
+                    messageIds.add(messageRef.getId());
+                }
+                processChanges(payload, false, messageIds);
+            }
+            
+            logger.info("✅ Webhook processed: {} messages, {} statuses, {} ms after receipt",
+                       envelope.getMessages().size(), envelope.getStatuses().size(),
+                       System.currentTimeMillis() - envelope.getReceivedAt());
+            
+        } catch (Exception e) {
+            logger.error("❌ Error processing webhook envelope", e);
+        }
+        
+        return CompletableFuture.completedFuture(null);
+    }
+    
     /**
      * Process webhook payload asynchronously
      * 
@@ -60,44 +122,63 @@ public class WebhookService {
         logger.info("📩 Processing webhook payload asynchronously");
         
         try {
-            if (payload.getEntry() == null || payload.getEntry().isEmpty()) {
-                logger.warn("⚠️ No valid entry in webhook payload");
-                return CompletableFuture.completedFuture(null);
+            processChanges(payload, true, null);
+            logger.info("✅ Webhook payload processed successfully");
+            
+        } catch (Exception e) {
+            logger.error("❌ Error processing webhook payload", e);
+        }
+        
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Process the messages, and optionally the statuses, of a bound payload
+     * 
+     * @param messageIds Messages to process, or null for all; the rest belong to another instance
+     */
+    private void processChanges(WhatsAppWebhookPayload payload, boolean includeStatuses, Set<String> messageIds) {
+        if (payload.getEntry() == null || payload.getEntry().isEmpty()) {
+            logger.warn("⚠️ No valid entry in webhook payload");
+            return;
+        }
+        
+        for (WhatsAppWebhookPayload.WebhookEntry entry : payload.getEntry()) {
+            if (entry.getChanges() == null || entry.getChanges().isEmpty()) {
+                continue;
             }
             
-            for (WhatsAppWebhookPayload.WebhookEntry entry : payload.getEntry()) {
-                if (entry.getChanges() == null || entry.getChanges().isEmpty()) {
+            for (WhatsAppWebhookPayload.WebhookChange change : entry.getChanges()) {
+                if (change.getValue() == null) {
                     continue;
                 }
                 
-                for (WhatsAppWebhookPayload.WebhookChange change : entry.getChanges()) {
-                    if (change.getValue() == null) {
-                        continue;
-                    }
+                // Process messages on the pool of the receiving number, so tenants don't queue behind each other
+                if (change.getValue().getMessages() != null && !change.getValue().getMessages().isEmpty()) {
+                    WhatsAppWebhookPayload.Metadata metadata = change.getValue().getMetadata();
+                    TenantRegistry.Tenant tenant = tenantRegistry.forPhoneNumberId(metadata != null ? metadata.getPhoneNumberId() : null);
+                    List<WhatsAppWebhookPayload.WhatsAppContact> contacts = change.getValue().getContacts();
                     
-                    // Process messages
-                    if (change.getValue().getMessages() != null && !change.getValue().getMessages().isEmpty()) {
-                        for (WhatsAppWebhookPayload.WhatsAppMessage message : change.getValue().getMessages()) {
-                            messageProcessingService.processIncomingMessage(message, change.getValue().getContacts());
+                    for (WhatsAppWebhookPayload.WhatsAppMessage message : change.getValue().getMessages()) {
+                        if (messageIds != null && !messageIds.contains(message.getId())) {
+                            continue;
                         }
-                    }
-                    
-                    // Process status updates
-                    if (change.getValue().getStatuses() != null && !change.getValue().getStatuses().isEmpty()) {
-                        for (WhatsAppWebhookPayload.MessageStatus status : change.getValue().getStatuses()) {
-                            messageProcessingService.processMessageStatus(status);
+                        boolean queued = tenantRegistry.execute(tenant, message.getFrom(),
+                            () -> messageProcessingService.processIncomingMessage(message, contacts));
+                        if (!queued) {
+                            logger.error("❌ Ingest queue of tenant {} full, shedding message {}", tenant.getName(), message.getId());
                         }
                     }
                 }
+                
+                // Process status updates
+                if (includeStatuses && change.getValue().getStatuses() != null && !change.getValue().getStatuses().isEmpty()) {
+                    for (WhatsAppWebhookPayload.MessageStatus status : change.getValue().getStatuses()) {
+                        messageProcessingService.processMessageStatus(status);
+                    }
+                }
             }
-            
-            logger.info("✅ Webhook payload processed successfully");
-            
-        } catch (Exception e) {
-            logger.error("❌ Error processing webhook payload", e);
         }
-        
-        return CompletableFuture.completedFuture(null);
     }
     
     /**
@@ -113,6 +194,10 @@ public class WebhookService {
         status.put("version", "1.0.0");
         status.put("whatsapp_configured", whatsAppConfig.getAccessToken() != null);
         status.put("phone_number_id", whatsAppConfig.getPhoneNumberId());
+        status.put("message_correlation", messageCorrelationStore.getStatus());
+        status.put("tenants", tenantRegistry.getStatus());
+        status.put("cluster", clusterMembership.getStatus());
+        status.put("jobs", clusterJobScheduler.getStatus());
         
         return status;
     }
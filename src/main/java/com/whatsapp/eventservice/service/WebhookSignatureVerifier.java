@@ -0,0 +1,159 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.WhatsAppConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies X-Hub-Signature-256 on webhook bodies before anything parses them
+ * 
+ * The HMAC-SHA256 is computed over the raw bytes with a Mac kept per thread, so the
+ * key is set up once per request thread instead of once per request, and compared in
+ * constant time. Signatures seen within the replay window are remembered; a body that
+ * arrives again with the same signature is reported as a replay and dropped. A body
+ * that could not be ingested is forgotten again, so the sender's retry goes through.
+ */
+@Service
+public class WebhookSignatureVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WebhookSignatureVerifier.class);
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final int MAX_REMEMBERED_SIGNATURES = 100_000;
+    
+    public enum Result {
+        valid, invalid, replayed, disabled
+    }
+    
+    @Autowired
+    private WhatsAppConfig whatsAppConfig;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+    
+    private final Map<String, Long> recentSignatures = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void initKey() {
+        String appSecret = whatsAppConfig.getAppSecret();
+        if (appSecret == null || appSecret.isBlank()) {
+            logger.warn("⚠️ whatsapp.app-secret is not set, webhook signatures are NOT verified");
+            return;
+        }
+        
+        key = new SecretKeySpec(appSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+            }
+        });
+    }
+    
+    /**
+     * Check a webhook body against its X-Hub-Signature-256 header
+     * 
+     * @param body Raw request body
+     * @param signatureHeader Header value, "sha256=" followed by the hex digest
+     */
+    public Result verify(byte[] body, String signatureHeader) {
+        if (key == null) {
+            return Result.disabled;
+        }
+        
+        byte[] expected = decode(signatureHeader);
+        if (expected == null) {
+            return reject(Result.invalid);
+        }
+        
+        Mac mac = macs.get();
+        // doFinal resets the Mac, so the thread's instance is ready for the next body
+        byte[] actual = mac.doFinal(body);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return reject(Result.invalid);
+        }
+        
+        long now = System.currentTimeMillis();
+        String fingerprint = Base64.getEncoder().encodeToString(actual);
+        Long previous = recentSignatures.putIfAbsent(fingerprint, now);
+        if (previous != null && now - previous < whatsAppConfig.getReplayWindowSeconds() * 1000L) {
+            return reject(Result.replayed);
+        }
+        if (previous != null) {
+            recentSignatures.put(fingerprint, now);
+        }
+        if (recentSignatures.size() > MAX_REMEMBERED_SIGNATURES) {
+            forgetExpired(now);
+        }
+        return Result.valid;
+    }
+    
+    /**
+     * Forget a signature accepted by verify, when its body could not be ingested
+     * 
+     * @param signatureHeader Header value the body was verified with
+     */
+    public void forget(String signatureHeader) {
+        byte[] digest = key != null ? decode(signatureHeader) : null;
+        if (digest != null) {
+            recentSignatures.remove(Base64.getEncoder().encodeToString(digest));
+        }
+    }
+    
+    private Result reject(Result result) {
+        meterRegistry.counter("webhook.signature.rejected", "reason", result.name()).increment();
+        return result;
+    }
+    
+    private void forgetExpired(long now) {
+        long windowMs = whatsAppConfig.getReplayWindowSeconds() * 1000L;
+        Iterator<Map.Entry<String, Long>> entries = recentSignatures.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (now - entries.next().getValue() >= windowMs) {
+                entries.remove();
+            }
+        }
+    }
+    
+    /**
+     * Hex digest from the header, or null if the header is missing or malformed
+     */
+    private static byte[] decode(String signatureHeader) {
+        if (signatureHeader == null || !signatureHeader.startsWith(SIGNATURE_PREFIX)
+                || signatureHeader.length() != SIGNATURE_PREFIX.length() + 64) {
+            return null;
+        }
+        
+        byte[] digest = new byte[32];
+        for (int i = 0; i < digest.length; i++) {
+            int high = Character.digit(signatureHeader.charAt(SIGNATURE_PREFIX.length() + 2 * i), 16);
+            int low = Character.digit(signatureHeader.charAt(SIGNATURE_PREFIX.length() + 2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            digest[i] = (byte) ((high << 4) | low);
+        }
+        return digest;
+    }
+}
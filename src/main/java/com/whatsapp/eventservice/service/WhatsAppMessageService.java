@@ -1,6 +1,8 @@
 package com.whatsapp.eventservice.service;
 
 import com.whatsapp.eventservice.config.WhatsAppConfig;
+import com.whatsapp.eventservice.model.MessageCorrelation;
+import com.whatsapp.eventservice.model.SuggestedItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,17 +10,24 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import java.net.URI;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Service for sending messages via WhatsApp Business API
  * 
  * This service handles sending text messages, interactive messages, and media
- * through the WhatsApp Cloud API.
+ * through the WhatsApp Cloud API. Messages go out through the business number the
+ * recipient last wrote to, within that number's send budget.
  */
 @Service
 public class WhatsAppMessageService {
@@ -28,7 +37,27 @@ public class WhatsAppMessageService {
     @Autowired
     private WhatsAppConfig whatsAppConfig;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+    
+    @Autowired
+    private MessageCorrelationStore messageCorrelationStore;
+    
+    @Autowired
+    private SuggestionReplyRenderer suggestionReplyRenderer;
+    
+    @Autowired
+    private TenantRegistry tenantRegistry;
+    
+    private RestTemplate restTemplate;
+    
+    @PostConstruct
+    public void initRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(whatsAppConfig.getConnectTimeoutMs());
+        requestFactory.setReadTimeout(whatsAppConfig.getReadTimeoutMs());
+        restTemplate = new RestTemplate(requestFactory);
+    }
     
     /**
      * Send a text message
@@ -38,6 +67,18 @@ public class WhatsAppMessageService {
      * @return True if sent successfully
      */
     public boolean sendTextMessage(String to, String message) {
+        return sendTextMessage(to, message, null);
+    }
+    
+    /**
+     * Send a text message and correlate its wamid with the conversation and message it answers
+     * 
+     * @param to Recipient phone number
+     * @param message Message text
+     * @param correlation Conversation, message row and campaign of the send; may be null
+     * @return True if sent successfully
+     */
+    public boolean sendTextMessage(String to, String message, MessageCorrelation correlation) {
         logger.info("📤 Sending text message to: {}", to);
         
         try {
@@ -50,7 +91,7 @@ public class WhatsAppMessageService {
             text.put("body", message);
             payload.put("text", text);
             
-            return sendMessage(payload);
+            return sendMessage(payload, correlation);
             
         } catch (Exception e) {
             logger.error("❌ Error sending text message", e);
@@ -96,13 +137,47 @@ public class WhatsAppMessageService {
         }
     }
     
+    /**
+     * Send a reply with its suggestions as a single button or list message
+     * 
+     * Falls back to a plain text message when none of the suggestions can be shown.
+     * 
+     * @param to Recipient phone number
+     * @param text Reply text
+     * @param items Suggestions in rank order
+     * @param correlation Conversation, message row and campaign of the send; may be null
+     * @return True if sent successfully
+     */
+    public boolean sendSuggestions(String to, String text, List<SuggestedItem> items, MessageCorrelation correlation) {
+        Map<String, Object> interactive = suggestionReplyRenderer.render(text, items);
+        if (interactive == null) {
+            return sendTextMessage(to, text, correlation);
+        }
+        
+        logger.info("📤 Sending {} suggestions as a {} message to: {}", items.size(), interactive.get("type"), to);
+        
+        try {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("messaging_product", "whatsapp");
+            payload.put("to", to);
+            payload.put("type", "interactive");
+            payload.put("interactive", interactive);
+            
+            return sendMessage(payload, correlation);
+            
+        } catch (Exception e) {
+            logger.error("❌ Error sending suggestions", e);
+            return false;
+        }
+    }
+    
     /**
      * Send an interactive list message
      * 
      * @param to Recipient phone number
      * @param body Message body
      * @param buttonText Button text
-     * @param sections List sections
+     * @param sections Row IDs mapped to row titles, shown as a single section
      * @return True if sent successfully
      */
     public boolean sendListMessage(String to, String body, String buttonText, Map<String, String> sections) {
@@ -220,10 +295,19 @@ public class WhatsAppMessageService {
     public boolean sendEventMessage(String to, String eventTitle, String eventDetails, String eventId) {
         String body = "🎉 " + eventTitle + "\n\n" + eventDetails;
         
-        Map<String, String> buttons = new HashMap<>();
-        buttons.put("interested", "I'm Interested");
-        buttons.put("not_interested", "Not Interested");
-        buttons.put("more_info", "More Info");
+        Long id;
+        try {
+            id = Long.valueOf(eventId);
+        } catch (NumberFormatException e) {
+            logger.error("❌ Invalid event ID for event message: {}", eventId);
+            return false;
+        }
+        
+        // Button ids carry the event, so a tap is routed without asking which event it was
+        Map<String, String> buttons = new LinkedHashMap<>();
+        buttons.put(ButtonActionRouter.actionId(SuggestedItem.ItemType.event, id, ButtonActionRouter.LIKE), "I'm Interested");
+        buttons.put(ButtonActionRouter.actionId(SuggestedItem.ItemType.event, id, ButtonActionRouter.SKIP), "Not Interested");
+        buttons.put(ButtonActionRouter.actionId(SuggestedItem.ItemType.event, id, ButtonActionRouter.MORE), "More Info");
         
         return sendInteractiveMessage(to, body, buttons);
     }
@@ -309,6 +393,39 @@ public class WhatsAppMessageService {
         return sendTextMessage(to, body);
     }
     
+    /**
+     * Look up a media object by id
+     * 
+     * @param mediaId Media id from the webhook message
+     * @param from Sender of the message; selects the token of the number it was sent to
+     * @return Media metadata with a short-lived download URL, mime_type, sha256 and file_size
+     */
+    public Map<String, Object> getMediaInfo(String mediaId, String from) {
+        String url = whatsAppConfig.getApiUrl() + "/" + mediaId;
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + tenantRegistry.forRecipient(from).getAccessToken());
+        
+        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Map.class);
+        return response.getBody();
+    }
+    
+    /**
+     * Download media, handing the response body stream to the extractor without buffering it
+     * 
+     * @param mediaUrl Download URL from getMediaInfo
+     * @param from Sender of the message; selects the token of the number it was sent to
+     * @param extractor Reads the response body
+     * @return Result of the extractor
+     */
+    public <T> T downloadMedia(String mediaUrl, String from, ResponseExtractor<T> extractor) {
+        String accessToken = tenantRegistry.forRecipient(from).getAccessToken();
+        // The URL is already encoded; passing it as a URI keeps it from being expanded as a template
+        return restTemplate.execute(URI.create(mediaUrl), HttpMethod.GET,
+            request -> request.getHeaders().set("Authorization", "Bearer " + accessToken),
+            extractor);
+    }
+    
     /**
      * Core method to send message via WhatsApp API
      * 
@@ -316,16 +433,33 @@ public class WhatsAppMessageService {
      * @return True if sent successfully
      */
     private boolean sendMessage(Map<String, Object> payload) {
+        return sendMessage(payload, null);
+    }
+    
+    /**
+     * Send a message and record the wamid assigned to it
+     * 
+     * @param payload Message payload
+     * @param correlation Conversation, message row and campaign of the send; may be null
+     * @return True if sent successfully
+     */
+    private boolean sendMessage(Map<String, Object> payload, MessageCorrelation correlation) {
         try {
-            if (whatsAppConfig.getAccessToken() == null || whatsAppConfig.getPhoneNumberId() == null) {
-                logger.error("❌ WhatsApp credentials not configured");
+            TenantRegistry.Tenant tenant = tenantRegistry.forRecipient((String) payload.get("to"));
+            if (tenant.getAccessToken() == null || tenant.getPhoneNumberId() == null) {
+                logger.error("❌ WhatsApp credentials not configured for tenant {}", tenant.getName());
                 return false;
             }
             
-            String url = whatsAppConfig.getApiUrl() + "/" + whatsAppConfig.getPhoneNumberId() + "/messages";
+            if (!tenantRegistry.acquireSendPermit(tenant)) {
+                logger.error("❌ Send budget of tenant {} exhausted, message not sent", tenant.getName());
+                return false;
+            }
+            
+            String url = whatsAppConfig.getApiUrl() + "/" + tenant.getPhoneNumberId() + "/messages";
             
             HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + whatsAppConfig.getAccessToken());
+            headers.set("Authorization", "Bearer " + tenant.getAccessToken());
             headers.set("Content-Type", "application/json");
             
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
@@ -334,18 +468,49 @@ public class WhatsAppMessageService {
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 logger.info("✅ Message sent successfully");
+                trackDelivery(payload, response.getBody(), correlation);
                 return true;
             } else {
                 logger.error("❌ Failed to send message. Status: {}", response.getStatusCode());
                 return false;
             }
             
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("⚠️ Interrupted while waiting for the send budget");
+            return false;
         } catch (Exception e) {
             logger.error("❌ Error sending message via WhatsApp API", e);
             return false;
         }
     }
     
+    /**
+     * Register a sent message under the wamid from the API response with the delivery
+     * tracker and the correlation store
+     */
+    private void trackDelivery(Map<String, Object> payload, Map<?, ?> responseBody, MessageCorrelation correlation) {
+        if (responseBody == null || !(responseBody.get("messages") instanceof List<?> messages)
+                || messages.isEmpty() || !(messages.get(0) instanceof Map<?, ?> message)) {
+            logger.warn("⚠️ Send response without a message id, delivery will not be tracked");
+            return;
+        }
+        
+        if (correlation == null) {
+            correlation = new MessageCorrelation();
+        }
+        String type = (String) payload.get("type");
+        // Template sends are how broadcasts go out; the template name stands in for the campaign
+        if (correlation.getCampaign() == null && "template".equals(type)
+                && payload.get("template") instanceof Map<?, ?> template) {
+            correlation.setCampaign((String) template.get("name"));
+        }
+        correlation.setWamid((String) message.get("id"));
+        
+        messageCorrelationStore.record(correlation);
+        deliveryTracker.recordSent(correlation.getWamid(), (String) payload.get("to"), type, correlation.getCampaign());
+    }
+    
     /**
      * Create button list for interactive messages
      * 
@@ -374,21 +539,23 @@ public class WhatsAppMessageService {
     /**
      * Create section list for list messages
      * 
-     * @param sections Section definitions
-     * @return Section list
+     * @param sections Row IDs mapped to row titles
+     * @return Section list with a single section holding the rows
      */
     private Object[] createSectionList(Map<String, String> sections) {
-        Object[] sectionList = new Object[sections.size()];
+        Object[] rows = new Object[sections.size()];
         int index = 0;
         
         for (Map.Entry<String, String> entry : sections.entrySet()) {
-            Map<String, Object> section = new HashMap<>();
-            section.put("title", entry.getKey());
-            section.put("rows", new Object[]{}); // Simplified - would need actual row data
-            sectionList[index++] = section;
+            Map<String, String> row = new HashMap<>();
+            row.put("id", entry.getKey());
+            row.put("title", entry.getValue());
+            rows[index++] = row;
         }
         
-        return sectionList;
+        Map<String, Object> section = new HashMap<>();
+        section.put("rows", rows);
+        return new Object[]{section};
     }
     
     /**
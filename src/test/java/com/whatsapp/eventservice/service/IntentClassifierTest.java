@@ -0,0 +1,66 @@
+package com.whatsapp.eventservice.service;
+
+import com.whatsapp.eventservice.config.IntentClassifierConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for IntentClassifier, trained on the seed intent-training.tsv
+ */
+class IntentClassifierTest {
+    
+    private IntentClassifier classifier;
+    
+    @BeforeEach
+    void setUp() {
+        classifier = new IntentClassifier();
+        ReflectionTestUtils.setField(classifier, "intentClassifierConfig", new IntentClassifierConfig());
+        ReflectionTestUtils.setField(classifier, "meterRegistry", new SimpleMeterRegistry());
+        classifier.train();
+    }
+    
+    @Test
+    void shortSmallTalkTakesTheFastPath() {
+        assertEquals(IntentClassifier.Intent.greeting, classifier.classify("good morning").getIntent());
+        assertEquals(IntentClassifier.Intent.greeting, classifier.classify("hi there").getIntent());
+        assertEquals(IntentClassifier.Intent.thanks, classifier.classify("thank you so much").getIntent());
+        assertEquals(IntentClassifier.Intent.thanks, classifier.classify("ok thanks").getIntent());
+        assertEquals(IntentClassifier.Intent.help, classifier.classify("what can you do").getIntent());
+    }
+    
+    @Test
+    void searchOpeningWithAGreetingIsAQuery() {
+        assertEquals(IntentClassifier.Intent.query,
+            classifier.classify("good morning, any farmers markets near somerville").getIntent());
+    }
+    
+    @Test
+    void searchOpeningWithThanksIsAQuery() {
+        assertEquals(IntentClassifier.Intent.query,
+            classifier.classify("ok thanks, any free museums sunday").getIntent());
+    }
+    
+    @Test
+    void searchOpeningWithHelpIsAQuery() {
+        assertEquals(IntentClassifier.Intent.query,
+            classifier.classify("help me find a kid friendly brunch spot").getIntent());
+    }
+    
+    @Test
+    void shortMessageOfUnknownWordsIsNotSmallTalk() {
+        assertEquals(IntentClassifier.Intent.query, classifier.classify("hi zydeco brunch").getIntent());
+    }
+    
+    @Test
+    void disabledClassifierReportsQuery() {
+        IntentClassifierConfig config = new IntentClassifierConfig();
+        config.setEnabled(false);
+        ReflectionTestUtils.setField(classifier, "intentClassifierConfig", config);
+        
+        assertEquals(IntentClassifier.Intent.query, classifier.classify("hello").getIntent());
+    }
+}